@@ -0,0 +1,599 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.extras;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.ClassRemapper;
+
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+/**
+ * Remaps the classes of a jar or directory between two namespaces of a {@link MappingTreeView}, writing the result to a jar.
+ *
+ * <p>Class files get remapped in parallel, each worker using its own {@link ClassReader} and {@link ClassWriter},
+ * and are written to the output in input order (or sorted by path for directory inputs).
+ * Other entries of input jars get copied verbatim without being decompressed.
+ *
+ * <p>Zip64 archives and encrypted entries aren't supported.
+ */
+public final class JarRemapper {
+	/**
+	 * Constructs a {@code JarRemapper} using one thread per available processor.
+	 *
+	 * @param tree The mapping tree view.
+	 * @param from The input namespace, must be in the tree.
+	 * @param to The output namespace, must be in the tree.
+	 */
+	public JarRemapper(MappingTreeView tree, String from, String to) {
+		this(tree, from, to, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a {@code JarRemapper}.
+	 *
+	 * @param tree The mapping tree view, which must not be modified while remapping.
+	 * @param from The input namespace, must be in the tree.
+	 * @param to The output namespace, must be in the tree.
+	 * @param threads The number of worker threads.
+	 */
+	public JarRemapper(MappingTreeView tree, String from, String to, int threads) {
+		if (threads <= 0) throw new IllegalArgumentException("thread count must be positive");
+
+		this.tree = tree;
+		this.remapper = new MappingTreeRemapper(tree, from, to, true);
+		this.threads = threads;
+	}
+
+	/**
+	 * Remaps the given jar or directory into a new jar, replacing any existing file at the output path.
+	 *
+	 * @return The throughput metrics of the run.
+	 * @throws IllegalArgumentException If the output is the input jar or located inside the input directory.
+	 */
+	public Stats remap(Path input, Path output) throws IOException {
+		Objects.requireNonNull(input, "input path cannot be null");
+		Objects.requireNonNull(output, "output path cannot be null");
+		checkOutput(input, output);
+
+		long startTime = System.nanoTime();
+		remapper.refresh();
+
+		// build the tree's lazy lookup structures once instead of in every worker missing the remapper's tables
+		if (tree instanceof MemoryMappingTree) ((MemoryMappingTree) tree).prepareConcurrentReads();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread ret = new Thread(r, "mapping-io jar remapper");
+			ret.setDaemon(true);
+			return ret;
+		});
+
+		try (ZipOutput out = new ZipOutput(Files.newOutputStream(output))) {
+			Stats stats;
+
+			if (Files.isDirectory(input)) {
+				stats = remapDir(input, out, executor);
+			} else {
+				try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+					stats = remapJar(channel, out, executor);
+				}
+			}
+
+			out.finish();
+			stats.outputBytes = out.offset;
+			stats.elapsedNanos = System.nanoTime() - startTime;
+
+			return stats;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Rejects outputs that would be truncated or walked while reading the input.
+	 */
+	private static void checkOutput(Path input, Path output) throws IOException {
+		if (!Files.exists(input)) return; // reading fails later on
+
+		if (Files.exists(output) && Files.isSameFile(input, output)) {
+			throw new IllegalArgumentException("output is the input: "+output);
+		}
+
+		if (Files.isDirectory(input)) {
+			Path realOutput = output.toAbsolutePath().normalize();
+			Path parent = realOutput.getParent();
+			if (parent != null && Files.exists(parent)) realOutput = parent.toRealPath().resolve(realOutput.getFileName());
+
+			if (realOutput.startsWith(input.toRealPath())) {
+				throw new IllegalArgumentException("output is inside the input directory: "+output);
+			}
+		}
+	}
+
+	private Stats remapJar(FileChannel channel, ZipOutput out, ExecutorService executor) throws IOException {
+		if (channel.size() > Integer.MAX_VALUE) throw new IOException("zip64 archives aren't supported");
+
+		ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+		Stats stats = new Stats();
+		stats.inputBytes = buffer.capacity();
+
+		int eocdPos = findEndOfCentralDir(buffer);
+		int entryCount = buffer.getShort(eocdPos + 10) & 0xffff;
+		long cdOffset = buffer.getInt(eocdPos + 16) & 0xffffffffL;
+		if (entryCount == 0xffff || cdOffset == 0xffffffffL) throw new IOException("zip64 archives aren't supported");
+
+		Queue<Future<OutputEntry>> pending = new ArrayDeque<>();
+		int pos = (int) cdOffset;
+
+		for (int i = 0; i < entryCount; i++) {
+			if (buffer.getInt(pos) != CENTRAL_DIR_SIGNATURE) throw new IOException("invalid central directory entry at "+pos);
+
+			OutputEntry entry = new OutputEntry();
+			entry.versionMadeBy = buffer.getShort(pos + 4) & 0xffff;
+			entry.flags = buffer.getShort(pos + 8) & 0xffff;
+			entry.method = buffer.getShort(pos + 10) & 0xffff;
+			entry.time = buffer.getShort(pos + 12) & 0xffff;
+			entry.date = buffer.getShort(pos + 14) & 0xffff;
+			entry.crc = buffer.getInt(pos + 16);
+			long compressedSize = buffer.getInt(pos + 20) & 0xffffffffL;
+			long size = buffer.getInt(pos + 24) & 0xffffffffL;
+			int nameLen = buffer.getShort(pos + 28) & 0xffff;
+			int extraLen = buffer.getShort(pos + 30) & 0xffff;
+			int commentLen = buffer.getShort(pos + 32) & 0xffff;
+			entry.internalAttributes = buffer.getShort(pos + 36) & 0xffff;
+			entry.externalAttributes = buffer.getInt(pos + 38);
+			long localOffset = buffer.getInt(pos + 42) & 0xffffffffL;
+			String name = readString(buffer, pos + 46, nameLen);
+			pos += 46 + nameLen + extraLen + commentLen;
+
+			if (compressedSize == 0xffffffffL || size == 0xffffffffL || localOffset == 0xffffffffL) throw new IOException("zip64 archives aren't supported");
+			if ((entry.flags & 1) != 0) throw new IOException("encrypted entry "+name);
+			if (buffer.getInt((int) localOffset) != LOCAL_HEADER_SIGNATURE) throw new IOException("invalid local header for "+name);
+
+			int dataOffset = (int) localOffset + 30 + (buffer.getShort((int) localOffset + 26) & 0xffff) + (buffer.getShort((int) localOffset + 28) & 0xffff);
+			ByteBuffer data = slice(buffer, dataOffset, (int) compressedSize);
+
+			if (isClass(name) && (entry.method == STORED || entry.method == DEFLATED)) {
+				stats.classCount++;
+				pending.add(executor.submit(() -> remapClass(name, entry, inflate(data, entry.method, (int) size))));
+			} else {
+				stats.resourceCount++;
+				entry.name = name;
+				entry.compressedData = data;
+				entry.compressedSize = (int) compressedSize;
+				entry.size = (int) size;
+				pending.add(CompletableFuture.completedFuture(entry));
+			}
+
+			drain(pending, out, threads * QUEUE_SIZE_PER_THREAD);
+		}
+
+		drain(pending, out, 0);
+
+		return stats;
+	}
+
+	private Stats remapDir(Path dir, ZipOutput out, ExecutorService executor) throws IOException {
+		List<Path> files;
+
+		try (Stream<Path> stream = Files.walk(dir)) {
+			files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+
+		List<String> names = new ArrayList<>(files.size());
+
+		for (Path file : files) {
+			names.add(dir.relativize(file).toString().replace(dir.getFileSystem().getSeparator(), "/"));
+		}
+
+		Integer[] order = new Integer[files.size()];
+
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+
+		Arrays.sort(order, (a, b) -> names.get(a).compareTo(names.get(b)));
+
+		Stats stats = new Stats();
+		Queue<Future<OutputEntry>> pending = new ArrayDeque<>();
+
+		for (int idx : order) {
+			Path file = files.get(idx);
+			String name = names.get(idx);
+			boolean isClass = isClass(name);
+
+			OutputEntry entry = new OutputEntry();
+			entry.method = DEFLATED;
+			int dosTime = toDosTime(Files.getLastModifiedTime(file).toMillis());
+			entry.time = dosTime & 0xffff;
+			entry.date = dosTime >>> 16;
+
+			if (isClass) {
+				stats.classCount++;
+			} else {
+				stats.resourceCount++;
+			}
+
+			pending.add(executor.submit(() -> {
+				byte[] data = Files.readAllBytes(file);
+				if (isClass) return remapClass(name, entry, data);
+
+				entry.name = name;
+				setData(entry, data);
+
+				return entry;
+			}));
+
+			drain(pending, out, threads * QUEUE_SIZE_PER_THREAD);
+		}
+
+		drain(pending, out, 0);
+
+		for (Path file : files) {
+			stats.inputBytes += Files.size(file);
+		}
+
+		return stats;
+	}
+
+	private OutputEntry remapClass(String name, OutputEntry entry, byte[] data) {
+		ClassReader reader = new ClassReader(data);
+		ClassWriter writer = new ClassWriter(0);
+		reader.accept(new ClassRemapper(writer, remapper), 0);
+
+		String className = reader.getClassName();
+		String suffix = className+".class";
+
+		if (name.endsWith(suffix)) { // keep prefixes like META-INF/versions/9/
+			name = name.substring(0, name.length() - suffix.length())+remapper.map(className)+".class";
+		}
+
+		entry.name = name;
+		setData(entry, writer.toByteArray());
+
+		return entry;
+	}
+
+	private static void setData(OutputEntry entry, byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		entry.crc = (int) crc.getValue();
+		entry.size = data.length;
+
+		if (entry.method == STORED) {
+			entry.compressedData = ByteBuffer.wrap(data);
+		} else {
+			Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+			try {
+				deflater.setInput(data);
+				deflater.finish();
+
+				ByteArrayOutputStream os = new ByteArrayOutputStream(data.length / 2 + 64);
+				byte[] buffer = new byte[8192];
+
+				while (!deflater.finished()) {
+					int len = deflater.deflate(buffer);
+					os.write(buffer, 0, len);
+				}
+
+				entry.compressedData = ByteBuffer.wrap(os.toByteArray());
+			} finally {
+				deflater.end();
+			}
+		}
+
+		entry.compressedSize = entry.compressedData.remaining();
+	}
+
+	private static byte[] inflate(ByteBuffer data, int method, int size) throws IOException {
+		byte[] input = new byte[data.remaining()];
+		data.duplicate().get(input);
+		if (method == STORED) return input;
+
+		Inflater inflater = new Inflater(true);
+
+		try {
+			inflater.setInput(input);
+			byte[] ret = new byte[size];
+			int pos = 0;
+
+			while (pos < size && !inflater.finished()) {
+				int len = inflater.inflate(ret, pos, size - pos);
+				if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+
+				pos += len;
+			}
+
+			if (pos != size) throw new IOException("truncated deflate stream");
+
+			return ret;
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static void drain(Queue<Future<OutputEntry>> pending, ZipOutput out, int maxPending) throws IOException {
+		while (pending.size() > maxPending) {
+			Future<OutputEntry> future = pending.remove();
+			OutputEntry entry;
+
+			try {
+				entry = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted", e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) throw (IOException) cause;
+				if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+				throw new IOException(cause);
+			}
+
+			out.write(entry);
+		}
+	}
+
+	private static int findEndOfCentralDir(ByteBuffer buffer) throws IOException {
+		int min = Math.max(0, buffer.capacity() - 22 - 0xffff);
+
+		for (int pos = buffer.capacity() - 22; pos >= min; pos--) {
+			if (buffer.getInt(pos) == END_OF_CENTRAL_DIR_SIGNATURE) return pos;
+		}
+
+		throw new IOException("not a zip file, missing end of central directory");
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer ret = buffer.duplicate();
+		ret.limit(offset + length).position(offset);
+
+		return ret.slice();
+	}
+
+	private static String readString(ByteBuffer buffer, int offset, int length) {
+		byte[] bytes = new byte[length];
+
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(offset + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static boolean isClass(String name) {
+		return name.endsWith(".class");
+	}
+
+	private static int toDosTime(long millis) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTimeInMillis(millis);
+		int year = cal.get(Calendar.YEAR);
+		if (year < 1980) return (1 << 21) | (1 << 16);
+
+		return (year - 1980) << 25 | (cal.get(Calendar.MONTH) + 1) << 21 | cal.get(Calendar.DAY_OF_MONTH) << 16
+				| cal.get(Calendar.HOUR_OF_DAY) << 11 | cal.get(Calendar.MINUTE) << 5 | cal.get(Calendar.SECOND) >> 1;
+	}
+
+	/**
+	 * Throughput metrics of a {@link JarRemapper#remap} run.
+	 */
+	public static final class Stats {
+		public int getClassCount() {
+			return classCount;
+		}
+
+		public int getResourceCount() {
+			return resourceCount;
+		}
+
+		public long getInputBytes() {
+			return inputBytes;
+		}
+
+		public long getOutputBytes() {
+			return outputBytes;
+		}
+
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		public double getClassesPerSecond() {
+			return elapsedNanos > 0 ? classCount * 1e9 / elapsedNanos : 0;
+		}
+
+		public double getInputMegabytesPerSecond() {
+			return elapsedNanos > 0 ? inputBytes * 1e9 / 1e6 / elapsedNanos : 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d classes, %d resources, %d -> %d bytes in %.1f ms (%.0f classes/s, %.1f MB/s)",
+					classCount, resourceCount, inputBytes, outputBytes, elapsedNanos / 1e6, getClassesPerSecond(), getInputMegabytesPerSecond());
+		}
+
+		int classCount;
+		int resourceCount;
+		long inputBytes;
+		long outputBytes;
+		long elapsedNanos;
+	}
+
+	private static final class OutputEntry {
+		String name;
+		int versionMadeBy = ZIP_VERSION;
+		int flags;
+		int method;
+		int time;
+		int date;
+		int crc;
+		int compressedSize;
+		int size;
+		int internalAttributes;
+		int externalAttributes;
+		ByteBuffer compressedData;
+		long localHeaderOffset;
+	}
+
+	private static final class ZipOutput implements AutoCloseable {
+		ZipOutput(OutputStream os) {
+			this.os = new BufferedOutputStream(os, 1 << 16);
+		}
+
+		void write(OutputEntry entry) throws IOException {
+			byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+			entry.flags = entry.flags & ~DATA_DESCRIPTOR_FLAG | UTF8_FLAG;
+			entry.localHeaderOffset = offset;
+
+			ByteBuffer header = ByteBuffer.allocate(30 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(LOCAL_HEADER_SIGNATURE);
+			header.putShort((short) ZIP_VERSION);
+			header.putShort((short) entry.flags);
+			header.putShort((short) entry.method);
+			header.putShort((short) entry.time);
+			header.putShort((short) entry.date);
+			header.putInt(entry.crc);
+			header.putInt(entry.compressedSize);
+			header.putInt(entry.size);
+			header.putShort((short) name.length);
+			header.putShort((short) 0);
+			header.put(name);
+			write((ByteBuffer) header.flip());
+			write(entry.compressedData);
+
+			entry.compressedData = null;
+			entries.add(entry);
+		}
+
+		void finish() throws IOException {
+			long cdOffset = offset;
+
+			for (OutputEntry entry : entries) {
+				byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+				ByteBuffer header = ByteBuffer.allocate(46 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+				header.putInt(CENTRAL_DIR_SIGNATURE);
+				header.putShort((short) entry.versionMadeBy);
+				header.putShort((short) ZIP_VERSION);
+				header.putShort((short) entry.flags);
+				header.putShort((short) entry.method);
+				header.putShort((short) entry.time);
+				header.putShort((short) entry.date);
+				header.putInt(entry.crc);
+				header.putInt(entry.compressedSize);
+				header.putInt(entry.size);
+				header.putShort((short) name.length);
+				header.putShort((short) 0); // extra
+				header.putShort((short) 0); // comment
+				header.putShort((short) 0); // disk
+				header.putShort((short) entry.internalAttributes);
+				header.putInt(entry.externalAttributes);
+				header.putInt((int) entry.localHeaderOffset);
+				header.put(name);
+				write((ByteBuffer) header.flip());
+			}
+
+			long cdSize = offset - cdOffset;
+			if (entries.size() >= 0xffff || offset >= 0xffffffffL) throw new IOException("output too large, zip64 archives aren't supported");
+
+			ByteBuffer eocd = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+			eocd.putInt(END_OF_CENTRAL_DIR_SIGNATURE);
+			eocd.putShort((short) 0);
+			eocd.putShort((short) 0);
+			eocd.putShort((short) entries.size());
+			eocd.putShort((short) entries.size());
+			eocd.putInt((int) cdSize);
+			eocd.putInt((int) cdOffset);
+			eocd.putShort((short) 0);
+			write((ByteBuffer) eocd.flip());
+		}
+
+		private void write(ByteBuffer buffer) throws IOException {
+			if (buffer.hasArray()) {
+				int len = buffer.limit() - buffer.position();
+				os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), len);
+				offset += len;
+			} else {
+				byte[] tmp = new byte[Math.min(buffer.remaining(), 8192)];
+				ByteBuffer src = buffer.duplicate();
+
+				while (src.hasRemaining()) {
+					int len = Math.min(src.remaining(), tmp.length);
+					src.get(tmp, 0, len);
+					os.write(tmp, 0, len);
+					offset += len;
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			os.close();
+		}
+
+		private final OutputStream os;
+		private final List<OutputEntry> entries = new ArrayList<>();
+		long offset;
+	}
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_DIR_SIGNATURE = 0x02014b50;
+	private static final int END_OF_CENTRAL_DIR_SIGNATURE = 0x06054b50;
+	private static final int ZIP_VERSION = 20;
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+	private static final int DATA_DESCRIPTOR_FLAG = 1 << 3;
+	private static final int UTF8_FLAG = 1 << 11;
+	private static final int QUEUE_SIZE_PER_THREAD = 4;
+
+	private final MappingTreeView tree;
+	private final MappingTreeRemapper remapper;
+	private final int threads;
+}
@@ -16,7 +16,9 @@
 
 package net.fabricmc.mappingio.extras;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.objectweb.asm.commons.Remapper;
 
@@ -24,11 +26,16 @@ import net.fabricmc.mappingio.tree.MappingTreeView;
 
 /**
  * An ASM {@link Remapper} that remaps between two namespaces in a {@link MappingTreeView}.
+ *
+ * <p>In compiled mode, the class and member mappings for the namespace pair are precomputed into flat hash tables,
+ * and the results of all lookups (including pass-through misses) and of descriptor and signature remapping get cached.
+ * Compiled remappers are safe to share between threads, but don't observe changes to the tree until {@link #refresh()} is called.
  */
 public final class MappingTreeRemapper extends Remapper {
 	private final MappingTreeView tree;
 	private final int fromId;
 	private final int toId;
+	private volatile LookupTables tables;
 
 	/**
 	 * Constructs a {@code MappingTreeRemapper}.
@@ -38,12 +45,71 @@ public final class MappingTreeRemapper extends Remapper {
 	 * @param to The output namespace, must be in the tree.
 	 */
 	public MappingTreeRemapper(MappingTreeView tree, String from, String to) {
+		this(tree, from, to, false);
+	}
+
+	/**
+	 * Constructs a {@code MappingTreeRemapper}.
+	 *
+	 * @param tree The mapping tree view.
+	 * @param from The input namespace, must be in the tree.
+	 * @param to The output namespace, must be in the tree.
+	 * @param compiled Whether to precompute lookup tables and cache remapping results.
+	 */
+	public MappingTreeRemapper(MappingTreeView tree, String from, String to, boolean compiled) {
 		Objects.requireNonNull(tree, "Mapping tree cannot be null");
 		Objects.requireNonNull(from, "Input namespace cannot be null");
 		Objects.requireNonNull(to, "Output namespace cannot be null");
 		this.tree = tree;
 		this.fromId = getNamespaceId(tree, from);
 		this.toId = getNamespaceId(tree, to);
+
+		if (compiled) tables = buildTables();
+	}
+
+	/**
+	 * Whether this remapper uses precomputed lookup tables.
+	 */
+	public boolean isCompiled() {
+		return tables != null;
+	}
+
+	/**
+	 * Rebuilds the lookup tables and drops all cached results, to be called after the tree has been modified.
+	 * Has no effect if this remapper isn't in compiled mode.
+	 */
+	public void refresh() {
+		if (tables != null) tables = buildTables();
+	}
+
+	private LookupTables buildTables() {
+		LookupTables newTables = new LookupTables();
+
+		for (MappingTreeView.ClassMappingView cls : tree.getClasses()) {
+			String owner = cls.getName(fromId);
+			if (owner == null) continue;
+
+			newTables.classes.put(owner, getNameOrDefault(cls, owner));
+
+			for (MappingTreeView.FieldMappingView field : cls.getFields()) {
+				putMember(newTables.fields, owner, field);
+			}
+
+			for (MappingTreeView.MethodMappingView method : cls.getMethods()) {
+				putMember(newTables.methods, owner, method);
+			}
+		}
+
+		return newTables;
+	}
+
+	private void putMember(Map<MemberKey, String> table, String owner, MappingTreeView.MemberMappingView member) {
+		String name = member.getName(fromId);
+		String desc = member.getDesc(fromId);
+		// members without a full descriptor get resolved lazily through the tree
+		if (name == null || desc == null || desc.endsWith(")")) return;
+
+		table.putIfAbsent(new MemberKey(owner, name, desc), getNameOrDefault(member, name));
 	}
 
 	private static int getNamespaceId(MappingTreeView tree, String namespace) {
@@ -66,11 +132,88 @@ public final class MappingTreeRemapper extends Remapper {
 
 	@Override
 	public String map(String internalName) {
+		LookupTables tables = this.tables;
+		if (tables == null) return mapClassName(internalName);
+
+		String ret = tables.classes.get(internalName);
+
+		if (ret == null) {
+			ret = mapClassName(internalName);
+			tables.classes.put(internalName, ret);
+		}
+
+		return ret;
+	}
+
+	private String mapClassName(String internalName) {
 		return tree.mapClassName(internalName, fromId, toId);
 	}
 
+	@Override
+	public String mapDesc(String descriptor) {
+		LookupTables tables = this.tables;
+		if (tables == null) return super.mapDesc(descriptor);
+
+		String ret = tables.descs.get(descriptor);
+
+		if (ret == null) {
+			ret = super.mapDesc(descriptor);
+			tables.descs.put(descriptor, ret);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public String mapMethodDesc(String methodDescriptor) {
+		LookupTables tables = this.tables;
+		if (tables == null) return super.mapMethodDesc(methodDescriptor);
+
+		String ret = tables.descs.get(methodDescriptor);
+
+		if (ret == null) {
+			ret = super.mapMethodDesc(methodDescriptor);
+			tables.descs.put(methodDescriptor, ret);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public String mapSignature(String signature, boolean typeSignature) {
+		LookupTables tables = this.tables;
+		if (tables == null || signature == null) return super.mapSignature(signature, typeSignature);
+
+		Map<String, String> cache = typeSignature ? tables.typeSignatures : tables.signatures;
+		String ret = cache.get(signature);
+
+		if (ret == null) {
+			ret = super.mapSignature(signature, typeSignature);
+			cache.put(signature, ret);
+		}
+
+		return ret;
+	}
+
 	@Override
 	public String mapMethodName(String owner, String name, String descriptor) {
+		LookupTables tables = this.tables;
+		if (tables == null) return lookUpMethodName(owner, name, descriptor);
+
+		MemberKey key = new MemberKey(owner, name, descriptor);
+		String ret = tables.methods.get(key);
+
+		if (ret == null) {
+			ret = lookUpMethodName(owner, name, descriptor);
+			tables.methods.put(key, ret);
+		}
+
+		return ret;
+	}
+
+	private String lookUpMethodName(String owner, String name, String descriptor) {
+		if (!tree.mayContainClass(owner, fromId)) return name;
+
 		MappingTreeView.ClassMappingView ownerMapping = tree.getClass(owner, fromId);
 		if (ownerMapping == null) return name;
 
@@ -80,6 +223,23 @@ public final class MappingTreeRemapper extends Remapper {
 
 	@Override
 	public String mapFieldName(String owner, String name, String descriptor) {
+		LookupTables tables = this.tables;
+		if (tables == null) return lookUpFieldName(owner, name, descriptor);
+
+		MemberKey key = new MemberKey(owner, name, descriptor);
+		String ret = tables.fields.get(key);
+
+		if (ret == null) {
+			ret = lookUpFieldName(owner, name, descriptor);
+			tables.fields.put(key, ret);
+		}
+
+		return ret;
+	}
+
+	private String lookUpFieldName(String owner, String name, String descriptor) {
+		if (!tree.mayContainClass(owner, fromId)) return name;
+
 		MappingTreeView.ClassMappingView ownerMapping = tree.getClass(owner, fromId);
 		if (ownerMapping == null) return name;
 
@@ -91,4 +251,42 @@ public final class MappingTreeRemapper extends Remapper {
 	public String mapRecordComponentName(String owner, String name, String descriptor) {
 		return mapFieldName(owner, name, descriptor);
 	}
+
+	private static final class LookupTables {
+		final Map<String, String> classes = new ConcurrentHashMap<>();
+		final Map<MemberKey, String> fields = new ConcurrentHashMap<>();
+		final Map<MemberKey, String> methods = new ConcurrentHashMap<>();
+		final Map<String, String> descs = new ConcurrentHashMap<>();
+		final Map<String, String> signatures = new ConcurrentHashMap<>();
+		final Map<String, String> typeSignatures = new ConcurrentHashMap<>();
+	}
+
+	private static final class MemberKey {
+		MemberKey(String owner, String name, String desc) {
+			this.owner = owner;
+			this.name = name;
+			this.desc = desc;
+			this.hash = (owner.hashCode() * 31 + name.hashCode()) * 31 + Objects.hashCode(desc);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (!(obj instanceof MemberKey)) return false;
+
+			MemberKey o = (MemberKey) obj;
+
+			return hash == o.hash && owner.equals(o.owner) && name.equals(o.name) && Objects.equals(desc, o.desc);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		private final String owner;
+		private final String name;
+		private final String desc;
+		private final int hash;
+	}
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.extras;
+
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.FieldMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodArgMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodVarMappingView;
+import net.fabricmc.tinyremapper.IMappingProvider;
+
+/**
+ * A tiny-remapper {@link IMappingProvider} supplying the mappings between two namespaces of a {@link MappingTreeView}
+ * directly from the tree, without serializing them first.
+ */
+public final class TinyRemapperMappingProvider implements IMappingProvider {
+	/**
+	 * Constructs a {@code TinyRemapperMappingProvider}.
+	 *
+	 * @param tree The mapping tree view.
+	 * @param from The input namespace, must be in the tree.
+	 * @param to The output namespace, must be in the tree.
+	 */
+	public TinyRemapperMappingProvider(MappingTreeView tree, String from, String to) {
+		this(tree, from, to, true);
+	}
+
+	/**
+	 * Constructs a {@code TinyRemapperMappingProvider}.
+	 *
+	 * @param tree The mapping tree view.
+	 * @param from The input namespace, must be in the tree.
+	 * @param to The output namespace, must be in the tree.
+	 * @param supplyLocals Whether to supply method arg and var names.
+	 */
+	public TinyRemapperMappingProvider(MappingTreeView tree, String from, String to, boolean supplyLocals) {
+		Objects.requireNonNull(tree, "Mapping tree cannot be null");
+		Objects.requireNonNull(from, "Input namespace cannot be null");
+		Objects.requireNonNull(to, "Output namespace cannot be null");
+		this.tree = tree;
+		this.fromId = getNamespaceId(tree, from);
+		this.toId = getNamespaceId(tree, to);
+		this.supplyLocals = supplyLocals;
+	}
+
+	private static int getNamespaceId(MappingTreeView tree, String namespace) {
+		int id = tree.getNamespaceId(namespace);
+
+		if (id == MappingTreeView.NULL_NAMESPACE_ID) {
+			throw new IllegalArgumentException(
+					"Namespace '" + namespace
+							+ "' not present in mapping tree. Available: src: " + tree.getSrcNamespace()
+							+ ", dst: " + tree.getDstNamespaces());
+		}
+
+		return id;
+	}
+
+	@Override
+	public void load(MappingAcceptor out) {
+		for (ClassMappingView cls : tree.getClasses()) {
+			String owner = cls.getName(fromId);
+			if (owner == null) continue;
+
+			String dstName = cls.getName(toId);
+			if (dstName != null) out.acceptClass(owner, dstName);
+
+			for (FieldMappingView field : cls.getFields()) {
+				Member member = getMember(owner, field);
+				if (member == null) continue;
+
+				dstName = field.getName(toId);
+				if (dstName != null) out.acceptField(member, dstName);
+			}
+
+			for (MethodMappingView method : cls.getMethods()) {
+				Member member = getMember(owner, method);
+				if (member == null) continue;
+
+				dstName = method.getName(toId);
+				if (dstName != null) out.acceptMethod(member, dstName);
+				if (!supplyLocals) continue;
+
+				for (MethodArgMappingView arg : method.getArgs()) {
+					dstName = arg.getName(toId);
+					if (dstName != null && arg.getLvIndex() >= 0) out.acceptMethodArg(member, arg.getLvIndex(), dstName);
+				}
+
+				for (MethodVarMappingView var : method.getVars()) {
+					dstName = var.getName(toId);
+					if (dstName != null && var.getLvIndex() >= 0) out.acceptMethodVar(member, var.getLvIndex(), var.getStartOpIdx(), var.getLvtRowIndex(), dstName);
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private Member getMember(String owner, MappingTreeView.MemberMappingView member) {
+		String name = member.getName(fromId);
+		String desc = member.getDesc(fromId);
+		if (name == null || desc == null) return null;
+
+		return new Member(owner, name, desc);
+	}
+
+	private final MappingTreeView tree;
+	private final int fromId;
+	private final int toId;
+	private final boolean supplyLocals;
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.extras;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.tree.MappingTree;
+
+public class JarRemapperTest {
+	@TempDir
+	private static Path dir;
+	private static MappingTree mappingTree;
+	private static byte[] resource;
+
+	@BeforeAll
+	public static void setup() {
+		mappingTree = TestHelper.createTestTree();
+		resource = "some resource content, some resource content".getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void remapJar() throws Exception {
+		Path input = dir.resolve("input.jar");
+		Path output = dir.resolve("output.jar");
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(input))) {
+			zos.putNextEntry(new ZipEntry("data.txt"));
+			zos.write(resource);
+
+			ZipEntry stored = new ZipEntry("stored.txt");
+			CRC32 crc = new CRC32();
+			crc.update(resource);
+			stored.setMethod(ZipEntry.STORED);
+			stored.setSize(resource.length);
+			stored.setCrc(crc.getValue());
+			zos.putNextEntry(stored);
+			zos.write(resource);
+
+			zos.putNextEntry(new ZipEntry("class_1.class"));
+			zos.write(createClass());
+		}
+
+		JarRemapper.Stats stats = new JarRemapper(mappingTree, "source", "target", 2).remap(input, output);
+		assertEquals(1, stats.getClassCount());
+		assertEquals(2, stats.getResourceCount());
+
+		check(output, Arrays.asList("data.txt", "stored.txt", "class1Ns0Rename.class"));
+	}
+
+	@Test
+	public void remapDirectory() throws Exception {
+		Path input = dir.resolve("input");
+		Path output = dir.resolve("output-dir.jar");
+		Files.createDirectories(input.resolve("sub"));
+		Files.write(input.resolve("class_1.class"), createClass());
+		Files.write(input.resolve("data.txt"), resource);
+		Files.write(input.resolve("sub/stored.txt"), resource);
+
+		new JarRemapper(mappingTree, "source", "target").remap(input, output);
+
+		check(output, Arrays.asList("class1Ns0Rename.class", "data.txt", "sub/stored.txt"));
+	}
+
+	@Test
+	public void rejectsOverlappingOutput() throws Exception {
+		Path jar = dir.resolve("in-place.jar");
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar))) {
+			zos.putNextEntry(new ZipEntry("data.txt"));
+			zos.write(resource);
+		}
+
+		byte[] content = Files.readAllBytes(jar);
+		JarRemapper remapper = new JarRemapper(mappingTree, "source", "target");
+		assertThrows(IllegalArgumentException.class, () -> remapper.remap(jar, jar));
+		assertArrayEquals(content, Files.readAllBytes(jar));
+
+		Path input = dir.resolve("nested");
+		Files.createDirectories(input);
+		Files.write(input.resolve("data.txt"), resource);
+		Path output = input.resolve("output.jar");
+		assertThrows(IllegalArgumentException.class, () -> remapper.remap(input, output));
+		assertFalse(Files.exists(output));
+	}
+
+	private static void check(Path jar, List<String> expectedNames) throws IOException {
+		List<String> names = new ArrayList<>();
+
+		try (ZipFile zip = new ZipFile(jar.toFile())) {
+			for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
+				ZipEntry entry = e.nextElement();
+				names.add(entry.getName());
+				byte[] data = readAll(zip.getInputStream(entry));
+
+				if (entry.getName().endsWith(".class")) {
+					checkClass(data);
+				} else {
+					assertArrayEquals(resource, data);
+				}
+			}
+		}
+
+		assertEquals(expectedNames, names);
+	}
+
+	private static void checkClass(byte[] data) {
+		List<String> members = new ArrayList<>();
+
+		new ClassReader(data).accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+				members.add(name+":"+descriptor);
+				return null;
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+				members.add(name+descriptor);
+				return null;
+			}
+		}, 0);
+
+		assertEquals("class1Ns0Rename", new ClassReader(data).getClassName());
+		assertEquals(Arrays.asList("field1Ns0Rename:I", "method1Ns0Rename()I", "other(Lclass3Ns0Rename;)V"), members);
+	}
+
+	private static byte[] createClass() {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "class_1", null, "java/lang/Object", null);
+		writer.visitField(Opcodes.ACC_PUBLIC, "field_1", "I", null, null).visitEnd();
+		writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "method_1", "()I", null, null).visitEnd();
+		writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "other", "(Lclass_3;)V", null, null).visitEnd();
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	private static byte[] readAll(InputStream is) throws IOException {
+		try (InputStream in = is) {
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int len;
+
+			while ((len = in.read(buffer)) >= 0) {
+				os.write(buffer, 0, len);
+			}
+
+			return os.toByteArray();
+		}
+	}
+}
@@ -29,11 +29,13 @@ import net.fabricmc.mappingio.tree.MappingTree;
 public class MappingTreeRemapperTest {
 	private static MappingTree mappingTree;
 	private static MappingTreeRemapper remapper;
+	private static MappingTreeRemapper compiledRemapper;
 
 	@BeforeAll
 	public static void setup() {
 		mappingTree = TestHelper.createTestTree();
 		remapper = new MappingTreeRemapper(mappingTree, "source", "target");
+		compiledRemapper = new MappingTreeRemapper(mappingTree, "source", "target", true);
 	}
 
 	@Test
@@ -78,4 +80,33 @@ public class MappingTreeRemapperTest {
 		assertEquals(Type.getType("Lclass3Ns0Rename;"), remapper.mapValue(fieldType));
 		assertEquals(Type.getMethodType("()Lclass1Ns0Rename;"), remapper.mapValue(methodType));
 	}
+
+	@Test
+	public void testCompiled() {
+		for (MappingTreeRemapper remapper : new MappingTreeRemapper[] { remapper, compiledRemapper }) {
+			// repeated lookups are served from the caches in compiled mode
+			for (int i = 0; i < 2; i++) {
+				assertEquals("class1Ns0Rename", remapper.map("class_1"));
+				assertEquals("java/lang/Object", remapper.map("java/lang/Object"));
+				assertEquals("method1Ns0Rename", remapper.mapMethodName("class_1", "method_1", "()I"));
+				assertEquals("unknown", remapper.mapMethodName("class_1", "unknown", "()V"));
+				assertEquals("field1Ns0Rename", remapper.mapFieldName("class_1", "field_1", "I"));
+				assertEquals("()Lclass1Ns0Rename;", remapper.mapMethodDesc("()Lclass_1;"));
+				assertEquals("Ljava/util/List<Lclass3Ns0Rename;>;", remapper.mapSignature("Ljava/util/List<Lclass_3;>;", true));
+			}
+		}
+	}
+
+	@Test
+	public void testCompiledRefresh() {
+		MappingTree tree = TestHelper.createTestTree();
+		MappingTreeRemapper remapper = new MappingTreeRemapper(tree, "source", "target", true);
+		assertEquals("class1Ns0Rename", remapper.map("class_1"));
+
+		tree.getClass("class_1").setDstName("class1Changed", 0);
+		assertEquals("class1Ns0Rename", remapper.map("class_1"));
+
+		remapper.refresh();
+		assertEquals("class1Changed", remapper.map("class_1"));
+	}
 }
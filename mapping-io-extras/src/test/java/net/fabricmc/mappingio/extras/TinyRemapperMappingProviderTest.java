@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.extras;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.tree.MappingTree;
+import net.fabricmc.tinyremapper.IMappingProvider;
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
+
+public class TinyRemapperMappingProviderTest {
+	@Test
+	public void load() {
+		MappingTree tree = TestHelper.createTestTree();
+		Map<String, String> classes = new HashMap<>();
+		Map<String, String> members = new HashMap<>();
+		Map<String, String> locals = new HashMap<>();
+
+		new TinyRemapperMappingProvider(tree, "source", "target").load(new IMappingProvider.MappingAcceptor() {
+			@Override
+			public void acceptClass(String srcName, String dstName) {
+				classes.put(srcName, dstName);
+			}
+
+			@Override
+			public void acceptMethod(Member method, String dstName) {
+				members.put(method.owner+"."+method.name+method.desc, dstName);
+			}
+
+			@Override
+			public void acceptMethodArg(Member method, int lvIndex, String dstName) {
+				locals.put(method.owner+"."+method.name+method.desc+"@"+lvIndex, dstName);
+			}
+
+			@Override
+			public void acceptMethodVar(Member method, int lvIndex, int startOpIdx, int asmIndex, String dstName) {
+				locals.put(method.owner+"."+method.name+method.desc+"#"+lvIndex, dstName);
+			}
+
+			@Override
+			public void acceptField(Member field, String dstName) {
+				members.put(field.owner+"."+field.name+":"+field.desc, dstName);
+			}
+		});
+
+		assertEquals("class1Ns0Rename", classes.get("class_1"));
+		assertEquals("class3Ns0Rename", classes.get("class_3"));
+		assertEquals("method1Ns0Rename", members.get("class_1.method_1()I"));
+		assertEquals("field1Ns0Rename", members.get("class_1.field_1:I"));
+		assertFalse(locals.isEmpty());
+
+		for (String name : locals.values()) {
+			assertTrue(name.startsWith("param") || name.startsWith("var"), name);
+		}
+	}
+}
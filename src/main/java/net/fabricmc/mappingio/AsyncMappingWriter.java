@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Mapping writer decoupling the visiting thread from the actual writer, see {@link MappingWriter#async}.
+ *
+ * <p>Visit calls are recorded into a fixed ring of reusable records and replayed by a dedicated thread. Since the
+ * delegate's return values aren't known when recording, all visit methods except {@link #visitEnd} return
+ * {@code true} and the replaying thread skips the elements the delegate rejected instead.
+ *
+ * <p>The replaying thread is started by the first visit call and only exits once the delegate finished or this writer
+ * got closed, so callers have to close it even if the visit is aborted, e.g. by a failing reader. Closing it before
+ * {@link #visitEnd} returned {@code true} discards the pending calls and closes the delegate.
+ *
+ * <p>Instances support a single visiting thread only.
+ */
+final class AsyncMappingWriter implements MappingWriter {
+	AsyncMappingWriter(MappingWriter writer, int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException("invalid capacity: "+capacity);
+
+		this.writer = writer;
+		this.records = new Record[capacity];
+
+		for (int i = 0; i < capacity; i++) {
+			records[i] = new Record();
+		}
+	}
+
+	@Override
+	public Set<MappingFlag> getFlags() {
+		return writer.getFlags();
+	}
+
+	@Override
+	public void reset() {
+		try {
+			enqueue(OP_RESET, null, 0, 0, 0, 0, null, null);
+		} catch (IOException e) {
+			// surfaced again by the next visit call
+		}
+	}
+
+	@Override
+	public boolean visitHeader() throws IOException {
+		enqueue(OP_HEADER, null, 0, 0, 0, 0, null, null);
+
+		return true;
+	}
+
+	@Override
+	public void visitNamespaces(String srcNamespace, List<String> dstNamespaces) throws IOException {
+		Record record = acquire();
+		record.list = new ArrayList<>(dstNamespaces);
+		publish(record, OP_NAMESPACES, null, 0, 0, 0, 0, srcNamespace, null);
+	}
+
+	@Override
+	public void visitMetadata(String key, @Nullable String value) throws IOException {
+		enqueue(OP_METADATA, null, 0, 0, 0, 0, key, value);
+	}
+
+	@Override
+	public boolean visitContent() throws IOException {
+		enqueue(OP_CONTENT, null, 0, 0, 0, 0, null, null);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitClass(String srcName) throws IOException {
+		enqueue(OP_CLASS, MappedElementKind.CLASS, 0, 0, 0, 0, srcName, null);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitField(String srcName, @Nullable String srcDesc) throws IOException {
+		enqueue(OP_FIELD, MappedElementKind.FIELD, 0, 0, 0, 0, srcName, srcDesc);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethod(String srcName, @Nullable String srcDesc) throws IOException {
+		enqueue(OP_METHOD, MappedElementKind.METHOD, 0, 0, 0, 0, srcName, srcDesc);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) throws IOException {
+		enqueue(OP_METHOD_ARG, MappedElementKind.METHOD_ARG, argPosition, lvIndex, 0, 0, srcName, null);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) throws IOException {
+		enqueue(OP_METHOD_VAR, MappedElementKind.METHOD_VAR, lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcName, null);
+
+		return true;
+	}
+
+	@Override
+	public void visitDstName(MappedElementKind targetKind, int namespace, String name) throws IOException {
+		enqueue(OP_DST_NAME, targetKind, namespace, 0, 0, 0, name, null);
+	}
+
+	@Override
+	public void visitDstDesc(MappedElementKind targetKind, int namespace, String desc) throws IOException {
+		enqueue(OP_DST_DESC, targetKind, namespace, 0, 0, 0, desc, null);
+	}
+
+	@Override
+	public boolean visitElementContent(MappedElementKind targetKind) throws IOException {
+		enqueue(OP_ELEMENT_CONTENT, targetKind, 0, 0, 0, 0, null, null);
+
+		return true;
+	}
+
+	@Override
+	public void visitComment(MappedElementKind targetKind, String comment) throws IOException {
+		enqueue(OP_COMMENT, targetKind, 0, 0, 0, 0, comment, null);
+	}
+
+	/**
+	 * Waits for the writer thread to replay all recorded calls, then returns the delegate's result.
+	 */
+	@Override
+	public boolean visitEnd() throws IOException {
+		enqueue(OP_END, null, 0, 0, 0, 0, null, null);
+		awaitProcessed(tail);
+
+		return endResult;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+
+			if (consumer == null) { // nothing visited yet
+				finished = true;
+				writer.close();
+				return;
+			}
+
+			closeRequested = true;
+			LockSupport.unpark(consumer);
+			boolean interrupted = false;
+
+			while (true) {
+				try {
+					consumer.join();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+
+		checkFailure();
+	}
+
+	private void enqueue(int op, @Nullable MappedElementKind kind, int i0, int i1, int i2, int i3, @Nullable String s0, @Nullable String s1) throws IOException {
+		publish(acquire(), op, kind, i0, i1, i2, i3, s0, s1);
+	}
+
+	/**
+	 * Waits for a free record at the tail of the ring, applying backpressure to the visiting thread.
+	 */
+	private Record acquire() throws IOException {
+		checkFinished();
+
+		if (consumer == null) {
+			consumer = new Thread(this::consume, "mapping-io async writer");
+			consumer.setDaemon(true);
+			consumer.start();
+		}
+
+		long pos = tail;
+
+		if (pos - head >= records.length) {
+			producer = Thread.currentThread();
+			producerWaiting = true;
+
+			try {
+				while (pos - head >= records.length) {
+					LockSupport.park(this);
+					checkFinished();
+					if (Thread.interrupted()) throw new InterruptedIOException();
+				}
+			} finally {
+				producerWaiting = false;
+			}
+		}
+
+		return records[(int) (pos % records.length)];
+	}
+
+	private void publish(Record record, int op, @Nullable MappedElementKind kind, int i0, int i1, int i2, int i3, @Nullable String s0, @Nullable String s1) {
+		record.op = op;
+		record.kind = kind;
+		record.i0 = i0;
+		record.i1 = i1;
+		record.i2 = i2;
+		record.i3 = i3;
+		record.s0 = s0;
+		record.s1 = s1;
+		tail++; // volatile write, publishes the record
+		if (consumerWaiting) LockSupport.unpark(consumer);
+	}
+
+	private void awaitProcessed(long pos) throws IOException {
+		if (head < pos) {
+			producer = Thread.currentThread();
+			producerWaiting = true;
+
+			try {
+				while (head < pos) {
+					checkFinished();
+					LockSupport.park(this);
+					if (Thread.interrupted()) throw new InterruptedIOException();
+				}
+			} finally {
+				producerWaiting = false;
+			}
+		}
+
+		checkFailure();
+	}
+
+	private void checkFinished() throws IOException {
+		if (!finished) return;
+
+		checkFailure();
+
+		throw new IOException("writer already closed");
+	}
+
+	private void checkFailure() throws IOException {
+		Throwable failure = this.failure;
+		if (failure == null) return;
+
+		if (failure instanceof IOException) throw (IOException) failure;
+		if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+		if (failure instanceof Error) throw (Error) failure;
+
+		throw new IOException(failure);
+	}
+
+	private void consume() {
+		try {
+			boolean running = true;
+
+			while (running) {
+				long pos = head;
+
+				if (pos == tail) {
+					consumerWaiting = true;
+
+					while (pos == tail && !closeRequested) {
+						LockSupport.park(this);
+					}
+
+					consumerWaiting = false;
+				}
+
+				if (closeRequested) {
+					writer.close();
+					break;
+				}
+
+				Record record = records[(int) (pos % records.length)];
+				running = replay(record);
+				record.s0 = record.s1 = null;
+				record.list = null;
+				head = pos + 1; // volatile write, releases the record
+				if (producerWaiting) LockSupport.unpark(producer);
+			}
+		} catch (Throwable t) {
+			try {
+				writer.close();
+			} catch (Throwable t2) {
+				t.addSuppressed(t2);
+			}
+
+			failure = t;
+		} finally {
+			finished = true;
+			Thread producer = this.producer;
+			if (producer != null) LockSupport.unpark(producer);
+		}
+	}
+
+	/**
+	 * Replays a recorded call, skipping the content of elements rejected by the delegate.
+	 *
+	 * @return whether further records have to be consumed.
+	 */
+	private boolean replay(Record r) throws IOException {
+		switch (r.op) {
+		case OP_RESET:
+			skip = SKIP_NONE;
+			writer.reset();
+			return true;
+		case OP_HEADER:
+			skip = writer.visitHeader() ? SKIP_NONE : SKIP_HEADER;
+			return true;
+		case OP_NAMESPACES:
+			if (skip == SKIP_NONE) writer.visitNamespaces(r.s0, r.list);
+			return true;
+		case OP_METADATA:
+			if (skip == SKIP_NONE) writer.visitMetadata(r.s0, r.s1);
+			return true;
+		case OP_CONTENT:
+			skip = writer.visitContent() ? SKIP_NONE : SKIP_CONTENT;
+			return true;
+		case OP_CLASS:
+		case OP_FIELD:
+		case OP_METHOD:
+		case OP_METHOD_ARG:
+		case OP_METHOD_VAR: {
+			int level = r.kind.level;
+
+			if (skip != SKIP_NONE) {
+				if (skip < 0 || level > skip) return true; // header, content or parent skipped
+
+				skip = SKIP_NONE;
+			}
+
+			if (!visitElement(r)) skip = level;
+			return true;
+		}
+		case OP_DST_NAME:
+			if (skip == SKIP_NONE) writer.visitDstName(r.kind, r.i0, r.s0);
+			return true;
+		case OP_DST_DESC:
+			if (skip == SKIP_NONE) writer.visitDstDesc(r.kind, r.i0, r.s0);
+			return true;
+		case OP_ELEMENT_CONTENT:
+			if (skip == SKIP_NONE && !writer.visitElementContent(r.kind)) skip = r.kind.level;
+			return true;
+		case OP_COMMENT:
+			if (skip == SKIP_NONE) writer.visitComment(r.kind, r.s0);
+			return true;
+		case OP_END:
+			skip = SKIP_NONE;
+			endResult = writer.visitEnd();
+			return !endResult; // the delegate closes itself once done
+		default:
+			throw new IllegalStateException("invalid op: "+r.op);
+		}
+	}
+
+	private boolean visitElement(Record r) throws IOException {
+		switch (r.op) {
+		case OP_CLASS: return writer.visitClass(r.s0);
+		case OP_FIELD: return writer.visitField(r.s0, r.s1);
+		case OP_METHOD: return writer.visitMethod(r.s0, r.s1);
+		case OP_METHOD_ARG: return writer.visitMethodArg(r.i0, r.i1, r.s0);
+		case OP_METHOD_VAR: return writer.visitMethodVar(r.i0, r.i1, r.i2, r.i3, r.s0);
+		default: throw new IllegalStateException();
+		}
+	}
+
+	private static final class Record {
+		int op;
+		MappedElementKind kind;
+		int i0;
+		int i1;
+		int i2;
+		int i3;
+		String s0;
+		String s1;
+		List<String> list;
+	}
+
+	private static final int OP_RESET = 0;
+	private static final int OP_HEADER = 1;
+	private static final int OP_NAMESPACES = 2;
+	private static final int OP_METADATA = 3;
+	private static final int OP_CONTENT = 4;
+	private static final int OP_CLASS = 5;
+	private static final int OP_FIELD = 6;
+	private static final int OP_METHOD = 7;
+	private static final int OP_METHOD_ARG = 8;
+	private static final int OP_METHOD_VAR = 9;
+	private static final int OP_DST_NAME = 10;
+	private static final int OP_DST_DESC = 11;
+	private static final int OP_ELEMENT_CONTENT = 12;
+	private static final int OP_COMMENT = 13;
+	private static final int OP_END = 14;
+
+	private static final int SKIP_NONE = Integer.MAX_VALUE;
+	private static final int SKIP_HEADER = -1;
+	private static final int SKIP_CONTENT = -2;
+
+	private final MappingWriter writer;
+	private final Record[] records;
+	/**
+	 * Replaying thread, started by the first recorded call.
+	 */
+	private Thread consumer;
+	/**
+	 * Visiting thread, set before it starts waiting.
+	 */
+	private volatile Thread producer;
+	/**
+	 * Position of the next record to replay, only written by the consumer.
+	 */
+	private volatile long head;
+	/**
+	 * Position of the next record to record, only written by the producer.
+	 */
+	private volatile long tail;
+	private volatile boolean producerWaiting;
+	private volatile boolean consumerWaiting;
+	/**
+	 * Set by {@link #close} to make the consumer close the delegate and exit without replaying further records.
+	 */
+	private volatile boolean closeRequested;
+	private volatile Throwable failure;
+	private volatile boolean finished;
+	/**
+	 * Result of the last replayed {@code visitEnd}, published by the volatile write to {@link #head}.
+	 */
+	private boolean endResult;
+	private boolean closed;
+	/**
+	 * Replay skip state of the consumer thread, either SKIP_NONE, SKIP_HEADER, SKIP_CONTENT or the level of the element
+	 * whose content is being skipped.
+	 */
+	private int skip = SKIP_NONE;
+}
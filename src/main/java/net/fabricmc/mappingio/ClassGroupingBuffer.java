@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.adapter.ForwardingMappingVisitor;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+/**
+ * Visitor buffering the incoming elements grouped by class, in a compact binary form.
+ *
+ * <p>Once the input has been fully visited, the buffered classes are replayed to the next visitor in their order
+ * of first appearance, as many times as it requests. Each class is merged in a small {@link MemoryMappingTree} on
+ * replay, so the next visitor receives unique elements. Destination descriptors can't be supplied since they depend
+ * on all classes, so visitors requiring them aren't supported.
+ */
+final class ClassGroupingBuffer implements MappingVisitor {
+	/**
+	 * @throws IllegalArgumentException If {@code next} requires destination descriptors.
+	 */
+	ClassGroupingBuffer(MappingVisitor next) {
+		Set<MappingFlag> flags = EnumSet.noneOf(MappingFlag.class);
+		flags.addAll(next.getFlags());
+
+		if (flags.contains(MappingFlag.NEEDS_DST_FIELD_DESC) || flags.contains(MappingFlag.NEEDS_DST_METHOD_DESC)) {
+			throw new IllegalArgumentException("visitors requiring destination descriptors aren't supported, use a MemoryMappingTree");
+		}
+
+		this.next = next;
+
+		flags.remove(MappingFlag.NEEDS_ELEMENT_UNIQUENESS);
+		flags.remove(MappingFlag.NEEDS_MULTIPLE_PASSES);
+		this.flags = Collections.unmodifiableSet(flags);
+	}
+
+	@Override
+	public Set<MappingFlag> getFlags() {
+		return flags;
+	}
+
+	@Override
+	public void visitNamespaces(String srcNamespace, List<String> dstNamespaces) {
+		this.srcNamespace = srcNamespace;
+		this.dstNamespaces = new ArrayList<>(dstNamespaces);
+	}
+
+	@Override
+	public void visitMetadata(String key, @Nullable String value) {
+		metadata.add(new String[] { key, value });
+	}
+
+	@Override
+	public boolean visitClass(String srcName) {
+		current = classes.computeIfAbsent(srcName, k -> new VisitBuffer());
+		current.visitClass();
+
+		return true;
+	}
+
+	@Override
+	public boolean visitField(String srcName, @Nullable String srcDesc) {
+		current.visitField(srcName, srcDesc);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethod(String srcName, @Nullable String srcDesc) {
+		current.visitMethod(srcName, srcDesc);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) {
+		current.visitMethodArg(argPosition, lvIndex, srcName);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) {
+		current.visitMethodVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcName);
+
+		return true;
+	}
+
+	@Override
+	public void visitDstName(MappedElementKind targetKind, int namespace, String name) {
+		current.visitDstName(targetKind, namespace, name);
+	}
+
+	@Override
+	public void visitComment(MappedElementKind targetKind, String comment) {
+		current.visitComment(targetKind, comment);
+	}
+
+	/**
+	 * Replays the buffered content to the next visitor.
+	 */
+	@Override
+	public boolean visitEnd() throws IOException {
+		MappingVisitor classVisitor = new ClassContentForwarder(next);
+		List<String[]> metadataToVisit = getMetadataToVisit(next, metadata);
+
+		do {
+			if (next.visitHeader()) {
+				next.visitNamespaces(srcNamespace, dstNamespaces);
+
+				for (String[] entry : metadataToVisit) {
+					next.visitMetadata(entry[0], entry[1]);
+				}
+			}
+
+			if (next.visitContent()) {
+				for (Map.Entry<String, VisitBuffer> entry : classes.entrySet()) {
+					MemoryMappingTree tree = new MemoryMappingTree();
+					tree.visitNamespaces(srcNamespace, dstNamespaces);
+					entry.getValue().replay(entry.getKey(), tree);
+					tree.accept(classVisitor);
+				}
+			}
+		} while (!next.visitEnd());
+
+		return true;
+	}
+
+	static List<String[]> getMetadataToVisit(MappingVisitor next, List<String[]> metadata) {
+		if (!next.getFlags().contains(MappingFlag.NEEDS_METADATA_UNIQUENESS)) return metadata;
+
+		Map<String, String[]> uniqueMetadata = new LinkedHashMap<>();
+
+		for (String[] entry : metadata) {
+			uniqueMetadata.remove(entry[0]); // keep the latest occurrence's position
+			uniqueMetadata.put(entry[0], entry);
+		}
+
+		return new ArrayList<>(uniqueMetadata.values());
+	}
+
+	/**
+	 * Forwards a class-only tree's content, suppressing its header and end.
+	 */
+	static final class ClassContentForwarder extends ForwardingMappingVisitor {
+		ClassContentForwarder(MappingVisitor next) {
+			super(next);
+		}
+
+		@Override
+		public boolean visitHeader() {
+			return false;
+		}
+
+		@Override
+		public boolean visitContent() {
+			return true;
+		}
+
+		@Override
+		public boolean visitEnd() {
+			return true;
+		}
+	}
+
+	private final MappingVisitor next;
+	private final Set<MappingFlag> flags;
+	private String srcNamespace;
+	private List<String> dstNamespaces;
+	private final List<String[]> metadata = new ArrayList<>();
+	private final Map<String, VisitBuffer> classes = new LinkedHashMap<>();
+	private VisitBuffer current;
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.adapter.ForwardingMappingVisitor;
+import net.fabricmc.mappingio.format.FeatureSet;
+import net.fabricmc.mappingio.format.FeatureSet.ElementCommentSupport;
+import net.fabricmc.mappingio.format.FeatureSet.FeaturePresence;
+import net.fabricmc.mappingio.format.FeatureSet.MetadataSupport;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+/**
+ * Converts mappings between formats, only buffering as much as the target format requires.
+ *
+ * <p>The {@link Strategy} is selected based on the source and target formats' features and the writer's
+ * {@link MappingFlag}s, and elements the target format can't represent are skipped while reading.
+ */
+public final class MappingConverter {
+	private MappingConverter() {
+	}
+
+	public enum Strategy {
+		/**
+		 * The reader's output is streamed to the writer.
+		 */
+		DIRECT,
+		/**
+		 * The input is buffered grouped by class in a compact form, then replayed with unique elements.
+		 */
+		CLASS_GROUPED,
+		/**
+		 * The input is read into a {@link MemoryMappingTree}, as required for deriving destination descriptors.
+		 */
+		TREE
+	}
+
+	/**
+	 * Converts the input file or directory to the output path.
+	 *
+	 * @param inputFormat The input's format, or {@code null} for detecting it.
+	 * @return The used strategy.
+	 */
+	public static Strategy convert(Path input, @Nullable MappingFormat inputFormat, Path output, MappingFormat outputFormat) throws IOException {
+		MappingWriter writer = MappingWriter.create(output, outputFormat);
+		if (writer == null) throw new IllegalArgumentException("no writer available for "+outputFormat);
+
+		try (MappingWriter w = writer) {
+			return convert(input, inputFormat, w, outputFormat);
+		}
+	}
+
+	/**
+	 * Converts the input file or directory, feeding the supplied writer for the output format.
+	 *
+	 * @param inputFormat The input's format, or {@code null} for detecting it.
+	 * @return The used strategy.
+	 */
+	public static Strategy convert(Path input, @Nullable MappingFormat inputFormat, MappingWriter writer, MappingFormat outputFormat) throws IOException {
+		if (inputFormat == null) {
+			inputFormat = MappingReader.detectFormat(input);
+			if (inputFormat == null) throw new IOException("invalid/unsupported mapping format");
+		}
+
+		Strategy strategy = selectStrategy(inputFormat, outputFormat, writer.getFlags());
+
+		switch (strategy) {
+		case DIRECT:
+			MappingReader.read(input, inputFormat, new ElementFilter(writer, outputFormat.features(), writer.getFlags()));
+			break;
+		case CLASS_GROUPED: {
+			ClassGroupingBuffer buffer = new ClassGroupingBuffer(writer);
+			MappingReader.read(input, inputFormat, new ElementFilter(buffer, outputFormat.features(), buffer.getFlags()));
+			break;
+		}
+		case TREE: {
+			MemoryMappingTree tree = new MemoryMappingTree();
+			MappingReader.read(input, inputFormat, new ElementFilter(tree, outputFormat.features(), tree.getFlags()));
+			tree.accept(writer);
+			break;
+		}
+		default:
+			throw new IllegalStateException();
+		}
+
+		return strategy;
+	}
+
+	/**
+	 * Selects the cheapest conversion strategy satisfying the writer's requirements.
+	 *
+	 * <p>Destination descriptors depend on the mappings of all classes, so a tree is required if the writer needs them
+	 * and the input doesn't provide them. No input format guarantees unique elements, so they're grouped by class if
+	 * the writer needs them. Grouping can't pass on destination descriptors, so a writer needing both gets a tree.
+	 */
+	public static Strategy selectStrategy(MappingFormat inputFormat, MappingFormat outputFormat, Set<MappingFlag> writerFlags) {
+		FeatureSet in = inputFormat.features();
+		FeatureSet out = outputFormat.features();
+
+		if (writerFlags.contains(MappingFlag.NEEDS_DST_FIELD_DESC)
+				&& out.supportsFields()
+				&& in.fields().dstDescs() != FeaturePresence.REQUIRED) {
+			return Strategy.TREE;
+		}
+
+		if (writerFlags.contains(MappingFlag.NEEDS_DST_METHOD_DESC)
+				&& out.supportsMethods()
+				&& in.methods().dstDescs() != FeaturePresence.REQUIRED) {
+			return Strategy.TREE;
+		}
+
+		if (writerFlags.contains(MappingFlag.NEEDS_ELEMENT_UNIQUENESS)) {
+			if (writerFlags.contains(MappingFlag.NEEDS_DST_FIELD_DESC) || writerFlags.contains(MappingFlag.NEEDS_DST_METHOD_DESC)) {
+				return Strategy.TREE;
+			}
+
+			return Strategy.CLASS_GROUPED;
+		}
+
+		return Strategy.DIRECT;
+	}
+
+	/**
+	 * Rejects elements the target format can't represent, so readers can skip parsing them.
+	 */
+	private static final class ElementFilter extends ForwardingMappingVisitor {
+		ElementFilter(MappingVisitor next, FeatureSet features, Set<MappingFlag> flags) {
+			super(next);
+
+			this.flags = flags;
+			this.fields = features.supportsFields();
+			this.methods = features.supportsMethods();
+			this.args = features.supportsArgs();
+			this.vars = features.supportsVars();
+			this.comments = features.elementComments() != ElementCommentSupport.NONE;
+			this.metadata = features.fileMetadata() != MetadataSupport.NONE;
+		}
+
+		@Override
+		public Set<MappingFlag> getFlags() {
+			return flags;
+		}
+
+		@Override
+		public void visitMetadata(String key, @Nullable String value) throws IOException {
+			if (metadata) super.visitMetadata(key, value);
+		}
+
+		@Override
+		public boolean visitField(String srcName, @Nullable String srcDesc) throws IOException {
+			return fields && super.visitField(srcName, srcDesc);
+		}
+
+		@Override
+		public boolean visitMethod(String srcName, @Nullable String srcDesc) throws IOException {
+			return methods && super.visitMethod(srcName, srcDesc);
+		}
+
+		@Override
+		public boolean visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) throws IOException {
+			return args && super.visitMethodArg(argPosition, lvIndex, srcName);
+		}
+
+		@Override
+		public boolean visitMethodVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) throws IOException {
+			return vars && super.visitMethodVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcName);
+		}
+
+		@Override
+		public void visitComment(MappedElementKind targetKind, String comment) throws IOException {
+			if (comments) super.visitComment(targetKind, comment);
+		}
+
+		private final Set<MappingFlag> flags;
+		private final boolean fields;
+		private final boolean methods;
+		private final boolean args;
+		private final boolean vars;
+		private final boolean comments;
+		private final boolean metadata;
+	}
+}
@@ -16,8 +16,10 @@
 
 package net.fabricmc.mappingio;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
@@ -31,6 +33,7 @@ import net.fabricmc.mappingio.format.rgs.RgsFileReader;
 import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.binary.BinaryFileReader;
 import net.fabricmc.mappingio.format.enigma.EnigmaDirReader;
 import net.fabricmc.mappingio.format.enigma.EnigmaFileReader;
 import net.fabricmc.mappingio.format.intellij.MigrationMapFileReader;
@@ -53,12 +56,28 @@ public final class MappingReader {
 			return MappingFormat.ENIGMA_DIR;
 		}
 
-		try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+		try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+			byte[] magic = new byte[BINARY_MAGIC.length()];
+			int pos = 0;
+			int len;
+
+			is.mark(magic.length);
+
+			while (pos < magic.length && (len = is.read(magic, pos, magic.length - pos)) >= 0) {
+				pos += len;
+			}
+
+			if (pos == magic.length && new String(magic, StandardCharsets.ISO_8859_1).equals(BINARY_MAGIC)) {
+				return MappingFormat.BINARY_FILE;
+			}
+
+			is.reset(); // continue with text detection on the same stream
+
 			String fileName = file.getFileName().toString();
 			int dotIdx = fileName.lastIndexOf('.');
 			String fileExt = dotIdx >= 0 ? fileName.substring(dotIdx + 1) : null;
 
-			return detectFormat(reader, fileExt);
+			return detectFormat(new InputStreamReader(is, StandardCharsets.UTF_8), fileExt);
 		}
 	}
 
@@ -173,7 +192,9 @@ public final class MappingReader {
 			if (format == null) throw new IOException("invalid/unsupported mapping format");
 		}
 
-		if (format.features().hasNamespaces()) {
+		if (format == MappingFormat.BINARY_FILE) {
+			return BinaryFileReader.getNamespaces(file);
+		} else if (format.features().hasNamespaces()) {
 			try (Reader reader = Files.newBufferedReader(file)) {
 				return getNamespaces(reader, format);
 			}
@@ -238,7 +259,9 @@ public final class MappingReader {
 			if (format == null) throw new IOException("invalid/unsupported mapping format");
 		}
 
-		if (format.hasSingleFile()) {
+		if (format == MappingFormat.BINARY_FILE) {
+			BinaryFileReader.read(path, visitor);
+		} else if (format.hasSingleFile()) {
 			try (Reader reader = Files.newBufferedReader(path)) {
 				read(reader, format, visitor);
 			}
@@ -326,10 +349,11 @@ public final class MappingReader {
 	}
 
 	private static void checkReaderCompatible(MappingFormat format) throws IOException {
-		if (!format.hasSingleFile()) {
+		if (!format.supportsCharStreams()) {
 			throw new IOException("can't read mapping format "+format.name+" using a Reader, use the Path based API");
 		}
 	}
 
 	private static final int DETECT_HEADER_LEN = 4096;
+	private static final String BINARY_MAGIC = "MIOB";
 }
@@ -16,7 +16,16 @@
 
 package net.fabricmc.mappingio;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.jetbrains.annotations.ApiStatus;
 
 public final class MappingUtil {
 	private MappingUtil() {
@@ -56,6 +65,39 @@ public final class MappingUtil {
 		return ret.toString();
 	}
 
+	/**
+	 * Runs the tasks on the common fork-join pool and waits for all of them, even if one failed.
+	 *
+	 * @throws IOException If a task failed with an {@link IOException} or a checked exception, which is wrapped.
+	 * Only the first failure is reported, unchecked ones are rethrown as is.
+	 */
+	@ApiStatus.Internal
+	public static void invokeAll(List<? extends Callable<?>> tasks) throws IOException {
+		List<ForkJoinTask<?>> futures = new ArrayList<>(tasks.size());
+
+		for (Callable<?> task : tasks) {
+			futures.add(ForkJoinPool.commonPool().submit(task));
+		}
+
+		Throwable failure = null;
+
+		for (ForkJoinTask<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if (failure == null) failure = new IOException("interrupted", e);
+			} catch (ExecutionException e) {
+				if (failure == null) failure = e.getCause();
+			}
+		}
+
+		if (failure instanceof IOException) throw (IOException) failure;
+		if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+		if (failure instanceof Error) throw (Error) failure;
+		if (failure != null) throw new IOException(failure);
+	}
+
 	static String[] toArray(String s) {
 		return s != null ? new String[] { s } : null;
 	}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.enigma.EnigmaFileReader;
+import net.fabricmc.mappingio.tree.MappingTree.ClassMapping;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+/**
+ * Keeps a {@link MemoryMappingTree} in sync with Enigma directories and mapping files as they're being edited.
+ *
+ * <p>The watcher tracks which classes each file contributed to the tree. Once a file changes, those classes are
+ * removed, only that file is parsed again and its classes get merged back in, after which the listeners are notified
+ * of all affected classes. Classes contributed by more than one file are removed as a whole when either changes, so
+ * the other contributing files are parsed again as well and everything is merged back in the original load order.
+ *
+ * <p>Changes are applied on the thread calling {@link #processEvents}, which is also where the listeners are invoked.
+ * The tree must not be accessed concurrently with that.
+ */
+public final class MappingWatcher implements Closeable {
+	public MappingWatcher(MemoryMappingTree tree) throws IOException {
+		this.tree = tree;
+		this.watchService = FileSystems.getDefault().newWatchService();
+	}
+
+	/**
+	 * Loads all {@linkplain MappingFormat#ENIGMA_FILE Enigma files} in the directory and its subdirectories into
+	 * the tree and starts watching them, including files and directories added later.
+	 *
+	 * <p>If the tree doesn't have any namespaces yet, the fallback namespaces are used.
+	 */
+	public void addEnigmaDir(Path dir) throws IOException {
+		dir = dir.toAbsolutePath().normalize();
+		if (!Files.isDirectory(dir)) throw new IOException("not a directory: "+dir);
+
+		if (tree.getSrcNamespace() == null) {
+			tree.visitHeader();
+			tree.visitNamespaces(MappingUtil.NS_SOURCE_FALLBACK, Collections.singletonList(MappingUtil.NS_TARGET_FALLBACK));
+		}
+
+		enigmaDirs.add(dir);
+		reload(registerDir(dir), new HashSet<>());
+	}
+
+	/**
+	 * Loads the mapping file into the tree and starts watching it.
+	 *
+	 * <p>If the tree doesn't have any namespaces yet, it adopts the file's.
+	 */
+	public void addFile(Path file) throws IOException {
+		file = file.toAbsolutePath().normalize();
+
+		if (tree.getSrcNamespace() == null) {
+			List<String> namespaces = MappingReader.getNamespaces(file);
+			tree.visitHeader();
+			tree.visitNamespaces(namespaces.get(0), namespaces.subList(1, namespaces.size()));
+		}
+
+		files.add(file);
+		register(file.getParent());
+		reload(Collections.singleton(file), new HashSet<>());
+	}
+
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Waits for file changes and applies them to the tree.
+	 *
+	 * <p>Once the first change arrives, all further queued changes are collected as well before reloading the
+	 * affected files.
+	 *
+	 * @return Whether any classes changed.
+	 */
+	public boolean processEvents(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+		WatchKey key = watchService.poll(timeout, unit);
+		if (key == null) return false;
+
+		Set<Path> changedFiles = new LinkedHashSet<>();
+
+		do {
+			Path dir = watchedDirs.get(key);
+
+			if (dir != null) {
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						rescan(changedFiles);
+						continue;
+					}
+
+					Path path = dir.resolve((Path) event.context());
+
+					if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path) && isInEnigmaDir(path)) {
+						changedFiles.addAll(registerDir(path));
+					} else if (isTracked(path)) {
+						changedFiles.add(path);
+					} else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) { // possibly a directory
+						for (Path file : fileClasses.keySet()) {
+							if (file.startsWith(path)) changedFiles.add(file);
+						}
+					}
+				}
+			}
+
+			if (!key.reset()) watchedDirs.remove(key);
+		} while ((key = watchService.poll()) != null);
+
+		Set<String> changedClasses = new HashSet<>();
+		reload(changedFiles, changedClasses);
+
+		if (changedClasses.isEmpty()) return false;
+
+		Set<String> classes = Collections.unmodifiableSet(changedClasses);
+
+		for (Listener listener : listeners) {
+			listener.onClassesChanged(classes);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Replaces the files' classes in the tree with their current content, along with those of all other files
+	 * contributing to the same classes.
+	 */
+	private void reload(Collection<Path> changedFiles, Set<String> changedClasses) throws IOException {
+		Set<Path> reloadFiles = new HashSet<>(changedFiles);
+		Set<String> removedClasses = new HashSet<>();
+		boolean grown;
+
+		do {
+			grown = false;
+
+			for (Path file : reloadFiles) {
+				Set<String> classes = fileClasses.get(file);
+				if (classes != null) removedClasses.addAll(classes);
+			}
+
+			for (Map.Entry<Path, Set<String>> entry : fileClasses.entrySet()) {
+				if (!reloadFiles.contains(entry.getKey()) && !Collections.disjoint(entry.getValue(), removedClasses)) {
+					reloadFiles.add(entry.getKey());
+					grown = true;
+				}
+			}
+		} while (grown);
+
+		for (String name : removedClasses) {
+			tree.removeClass(name);
+		}
+
+		changedClasses.addAll(removedClasses);
+
+		// merge previously loaded files in their original order so conflicts resolve the same way
+		List<Path> orderedFiles = new ArrayList<>(reloadFiles.size());
+
+		for (Path file : fileClasses.keySet()) {
+			if (reloadFiles.contains(file)) orderedFiles.add(file);
+		}
+
+		for (Path file : changedFiles) {
+			if (!fileClasses.containsKey(file)) orderedFiles.add(file);
+		}
+
+		for (Path file : orderedFiles) {
+			load(file, changedClasses);
+		}
+	}
+
+	/**
+	 * Merges the file's current content into the tree, or stops tracking it if it no longer exists.
+	 */
+	private void load(Path file, Set<String> changedClasses) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			fileClasses.remove(file);
+			return;
+		}
+
+		MemoryMappingTree fileTree = new MemoryMappingTree();
+
+		if (files.contains(file)) {
+			MappingReader.read(file, fileTree);
+		} else {
+			try (Reader reader = Files.newBufferedReader(file)) {
+				EnigmaFileReader.read(reader, tree.getSrcNamespace(), tree.getDstNamespaces().get(0), fileTree);
+			}
+		}
+
+		Set<String> classes = new HashSet<>();
+
+		for (ClassMapping cls : fileTree.getClasses()) {
+			classes.add(tree.addClass(cls).getSrcName());
+		}
+
+		fileClasses.put(file, classes);
+		changedClasses.addAll(classes);
+	}
+
+	/**
+	 * Watches the directory and its subdirectories.
+	 *
+	 * @return The Enigma files found.
+	 */
+	private List<Path> registerDir(Path dir) throws IOException {
+		List<Path> ret = new ArrayList<>();
+
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+				register(subDir);
+
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (isEnigmaFile(file)) ret.add(file);
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		return ret;
+	}
+
+	private void register(Path dir) throws IOException {
+		if (watchedDirs.containsValue(dir)) return;
+
+		WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+		watchedDirs.put(key, dir);
+	}
+
+	/**
+	 * Collects all tracked files after missing events.
+	 */
+	private void rescan(Set<Path> changedFiles) throws IOException {
+		changedFiles.addAll(fileClasses.keySet());
+		changedFiles.addAll(files);
+
+		for (Path dir : enigmaDirs) {
+			if (Files.isDirectory(dir)) changedFiles.addAll(registerDir(dir));
+		}
+	}
+
+	private boolean isTracked(Path path) {
+		return files.contains(path) || isEnigmaFile(path) && isInEnigmaDir(path);
+	}
+
+	private boolean isInEnigmaDir(Path path) {
+		for (Path dir : enigmaDirs) {
+			if (path.startsWith(dir)) return true;
+		}
+
+		return false;
+	}
+
+	private static boolean isEnigmaFile(Path file) {
+		return file.getFileName().toString().endsWith("." + MappingFormat.ENIGMA_FILE.fileExt);
+	}
+
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * @param srcNames The source names of all removed, added or reloaded classes.
+		 */
+		void onClassesChanged(Set<String> srcNames);
+	}
+
+	private final MemoryMappingTree tree;
+	private final WatchService watchService;
+	private final Set<Path> enigmaDirs = new HashSet<>();
+	private final Set<Path> files = new HashSet<>();
+	private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+	private final Map<Path, Set<String>> fileClasses = new LinkedHashMap<>();
+	private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+}
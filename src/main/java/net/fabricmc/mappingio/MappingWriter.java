@@ -21,10 +21,13 @@ import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.Utf8FileWriter;
+import net.fabricmc.mappingio.format.binary.BinaryFileWriter;
 import net.fabricmc.mappingio.format.enigma.EnigmaDirWriter;
 import net.fabricmc.mappingio.format.enigma.EnigmaFileWriter;
 import net.fabricmc.mappingio.format.intellij.MigrationMapFileWriter;
@@ -41,8 +44,10 @@ import net.fabricmc.mappingio.format.tiny.Tiny2FileWriter;
 public interface MappingWriter extends Closeable, MappingVisitor {
 	@Nullable
 	static MappingWriter create(Path file, MappingFormat format) throws IOException {
-		if (format.hasSingleFile()) {
-			return create(Files.newBufferedWriter(file), format);
+		if (format == MappingFormat.BINARY_FILE) {
+			return new BinaryFileWriter(Files.newOutputStream(file));
+		} else if (format.hasSingleFile()) {
+			return create(new Utf8FileWriter(file), format);
 		} else {
 			switch (format) {
 			case ENIGMA_DIR: return new EnigmaDirWriter(file, true);
@@ -53,7 +58,7 @@ public interface MappingWriter extends Closeable, MappingVisitor {
 
 	@Nullable
 	static MappingWriter create(Writer writer, MappingFormat format) throws IOException {
-		if (!format.hasSingleFile()) throw new IllegalArgumentException("format "+format+" is not applicable to a single writer");
+		if (!format.supportsCharStreams()) throw new IllegalArgumentException("format "+format+" is not applicable to a single writer");
 
 		switch (format) {
 		case TINY_FILE: return new Tiny1FileWriter(writer);
@@ -73,6 +78,34 @@ public interface MappingWriter extends Closeable, MappingVisitor {
 		}
 	}
 
+	/**
+	 * Wraps a writer so it runs on a dedicated thread, with the visiting thread only recording the visit calls.
+	 *
+	 * <p>Up to {@code capacity} calls are buffered before the visiting thread has to wait for the writer. All visit
+	 * methods except {@link #visitEnd()} return {@code true} immediately, the writer's thread skips any content the
+	 * writer rejects. Exceptions thrown by the writer are rethrown by subsequent visit calls, {@link #visitEnd()} or
+	 * {@link #close()}.
+	 *
+	 * <p>The thread is started by the first visit call. The returned writer has to be closed even if the visit is
+	 * aborted, closing it before {@link #visitEnd()} returned {@code true} stops the thread and closes the writer.
+	 *
+	 * <p>The returned writer must only be used by a single thread at a time.
+	 */
+	static MappingWriter async(MappingWriter writer, int capacity) {
+		return new AsyncMappingWriter(writer, capacity);
+	}
+
+	/**
+	 * Creates a writer delivering all visit calls to the supplied writers, each running on its own thread as if wrapped
+	 * with {@link #async(MappingWriter, int)}.
+	 *
+	 * <p>The returned writer's flags are the union of all writers' flags, but destination descriptors are only passed
+	 * to the writers requesting them. Writers not requesting multiple passes only receive the first one.
+	 */
+	static MappingWriter tee(List<? extends MappingWriter> writers, int queueCapacity) {
+		return new TeeMappingWriter(writers, queueCapacity);
+	}
+
 	@Override
 	default boolean visitEnd() throws IOException {
 		close();
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.ClassGroupingBuffer.ClassContentForwarder;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+/**
+ * Visitor buffering the incoming elements in a compact binary form, spilling sorted runs to temporary files once
+ * a heap budget is exceeded.
+ *
+ * <p>Once the input has been fully visited, the runs are merged and replayed to the next visitor as many times as it
+ * requests, with the classes sorted by source name and every class' content in the supplied {@link VisitOrder}. Each
+ * class is merged in a small {@link MemoryMappingTree} on replay, so the next visitor receives unique elements while
+ * only a single class is held in full at a time. Destination descriptors can't be supplied since they depend on all
+ * classes, so visitors requiring them aren't supported.
+ *
+ * <p>The buffer can be passed to any reader instead of letting it fall back to building a full tree for visitors
+ * requiring {@link MappingFlag#NEEDS_ELEMENT_UNIQUENESS} or {@link MappingFlag#NEEDS_MULTIPLE_PASSES}. Temporary
+ * files are deleted after the replay, or by {@link #close()} if it didn't complete.
+ */
+public final class SpillingMappingBuffer implements MappingVisitor, Closeable {
+	public SpillingMappingBuffer(MappingVisitor next) {
+		this(next, DEFAULT_HEAP_BUDGET, null);
+	}
+
+	/**
+	 * @param heapBudget The approximate amount of buffered bytes to keep in memory before spilling to disk.
+	 * @param tempDir The directory for the temporary files, or {@code null} for the default temporary directory.
+	 */
+	public SpillingMappingBuffer(MappingVisitor next, long heapBudget, @Nullable Path tempDir) {
+		this(next, heapBudget, tempDir, VisitOrder.createByName());
+	}
+
+	/**
+	 * @param heapBudget The approximate amount of buffered bytes to keep in memory before spilling to disk.
+	 * @param tempDir The directory for the temporary files, or {@code null} for the default temporary directory.
+	 * @param order The order for visiting each class' content, classes are always sorted by source name.
+	 * @throws IllegalArgumentException If {@code next} requires destination descriptors.
+	 */
+	public SpillingMappingBuffer(MappingVisitor next, long heapBudget, @Nullable Path tempDir, VisitOrder order) {
+		if (heapBudget < 0) throw new IllegalArgumentException("negative heap budget: "+heapBudget);
+
+		Set<MappingFlag> flags = EnumSet.noneOf(MappingFlag.class);
+		flags.addAll(next.getFlags());
+
+		if (flags.contains(MappingFlag.NEEDS_DST_FIELD_DESC) || flags.contains(MappingFlag.NEEDS_DST_METHOD_DESC)) {
+			throw new IllegalArgumentException("visitors requiring destination descriptors aren't supported, use a MemoryMappingTree");
+		}
+
+		this.next = next;
+		this.heapBudget = heapBudget;
+		this.tempDir = tempDir;
+		this.order = order;
+
+		flags.remove(MappingFlag.NEEDS_ELEMENT_UNIQUENESS);
+		flags.remove(MappingFlag.NEEDS_MULTIPLE_PASSES);
+		this.flags = Collections.unmodifiableSet(flags);
+	}
+
+	@Override
+	public Set<MappingFlag> getFlags() {
+		return flags;
+	}
+
+	@Override
+	public void visitNamespaces(String srcNamespace, List<String> dstNamespaces) {
+		this.srcNamespace = srcNamespace;
+		this.dstNamespaces = new ArrayList<>(dstNamespaces);
+	}
+
+	@Override
+	public void visitMetadata(String key, @Nullable String value) {
+		metadata.add(new String[] { key, value });
+	}
+
+	@Override
+	public boolean visitClass(String srcName) throws IOException {
+		finishRecord();
+
+		currentClass = srcName;
+		current = new VisitBuffer();
+		current.visitClass();
+
+		return true;
+	}
+
+	@Override
+	public boolean visitField(String srcName, @Nullable String srcDesc) {
+		current.visitField(srcName, srcDesc);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethod(String srcName, @Nullable String srcDesc) {
+		current.visitMethod(srcName, srcDesc);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) {
+		current.visitMethodArg(argPosition, lvIndex, srcName);
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) {
+		current.visitMethodVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcName);
+
+		return true;
+	}
+
+	@Override
+	public void visitDstName(MappedElementKind targetKind, int namespace, String name) {
+		current.visitDstName(targetKind, namespace, name);
+	}
+
+	@Override
+	public void visitComment(MappedElementKind targetKind, String comment) {
+		current.visitComment(targetKind, comment);
+	}
+
+	/**
+	 * Replays the buffered content to the next visitor.
+	 */
+	@Override
+	public boolean visitEnd() throws IOException {
+		finishRecord();
+		records.sort(RECORD_COMPARATOR);
+
+		MappingVisitor classVisitor = new ClassContentForwarder(next);
+		List<String[]> metadataToVisit = ClassGroupingBuffer.getMetadataToVisit(next, metadata);
+
+		try {
+			do {
+				if (next.visitHeader()) {
+					next.visitNamespaces(srcNamespace, dstNamespaces);
+
+					for (String[] entry : metadataToVisit) {
+						next.visitMetadata(entry[0], entry[1]);
+					}
+				}
+
+				if (next.visitContent()) {
+					replayClasses(classVisitor);
+				}
+			} while (!next.visitEnd());
+		} finally {
+			close();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Deletes the temporary files and drops the buffered content.
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException exc = null;
+
+		for (Path run : runs) {
+			try {
+				Files.deleteIfExists(run);
+			} catch (IOException e) {
+				if (exc == null) {
+					exc = e;
+				} else {
+					exc.addSuppressed(e);
+				}
+			}
+		}
+
+		runs.clear();
+		records.clear();
+		bufferedBytes = 0;
+
+		if (exc != null) throw exc;
+	}
+
+	private void finishRecord() throws IOException {
+		if (current == null) return;
+
+		records.add(new Record(currentClass, current));
+		bufferedBytes += current.size() + 2L * currentClass.length() + RECORD_OVERHEAD;
+		current = null;
+
+		if (bufferedBytes > heapBudget) spill();
+	}
+
+	private void spill() throws IOException {
+		records.sort(RECORD_COMPARATOR);
+
+		Path run = tempDir != null ? Files.createTempFile(tempDir, "mapping-io", ".run") : Files.createTempFile("mapping-io", ".run");
+		runs.add(run);
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+			out.writeInt(records.size());
+
+			for (Record record : records) {
+				byte[] key = record.srcName.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(key.length);
+				out.write(key);
+				record.buffer.writeTo(out);
+			}
+		}
+
+		records.clear();
+		bufferedBytes = 0;
+	}
+
+	/**
+	 * Merges the sorted runs and the in-memory records, visiting each class once.
+	 */
+	private void replayClasses(MappingVisitor classVisitor) throws IOException {
+		List<Source> sources = new ArrayList<>(runs.size() + 1);
+		PriorityQueue<Source> queue = new PriorityQueue<>(runs.size() + 1, SOURCE_COMPARATOR);
+
+		try {
+			for (Path run : runs) {
+				sources.add(new RunSource(sources.size(), run));
+			}
+
+			sources.add(new MemorySource(sources.size(), records.iterator()));
+
+			for (Source source : sources) {
+				if (source.advance()) queue.add(source);
+			}
+
+			while (!queue.isEmpty()) {
+				String srcName = queue.peek().srcName;
+				MemoryMappingTree tree = new MemoryMappingTree();
+				tree.visitNamespaces(srcNamespace, dstNamespaces);
+
+				while (!queue.isEmpty() && queue.peek().srcName.equals(srcName)) {
+					Source source = queue.poll();
+					source.buffer.replay(srcName, tree);
+
+					if (source.advance()) queue.add(source);
+				}
+
+				tree.accept(classVisitor, order);
+			}
+		} finally {
+			for (Source source : sources) {
+				source.close();
+			}
+		}
+	}
+
+	private static final class Record {
+		Record(String srcName, VisitBuffer buffer) {
+			this.srcName = srcName;
+			this.buffer = buffer;
+		}
+
+		final String srcName;
+		final VisitBuffer buffer;
+	}
+
+	/**
+	 * Sorted stream of class records, ties between sources are resolved by their index to keep the visit order.
+	 */
+	private abstract static class Source implements Closeable {
+		Source(int index) {
+			this.index = index;
+		}
+
+		abstract boolean advance() throws IOException;
+
+		@Override
+		public void close() throws IOException { }
+
+		final int index;
+		String srcName;
+		VisitBuffer buffer;
+	}
+
+	private static final class MemorySource extends Source {
+		MemorySource(int index, Iterator<Record> records) {
+			super(index);
+
+			this.records = records;
+		}
+
+		@Override
+		boolean advance() {
+			if (!records.hasNext()) return false;
+
+			Record record = records.next();
+			srcName = record.srcName;
+			buffer = record.buffer;
+
+			return true;
+		}
+
+		private final Iterator<Record> records;
+	}
+
+	private static final class RunSource extends Source {
+		RunSource(int index, Path file) throws IOException {
+			super(index);
+
+			this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+			this.remaining = in.readInt();
+		}
+
+		@Override
+		boolean advance() throws IOException {
+			if (remaining == 0) return false;
+
+			byte[] key = new byte[in.readInt()];
+			in.readFully(key);
+			srcName = new String(key, StandardCharsets.UTF_8);
+			buffer = VisitBuffer.readFrom(in);
+			remaining--;
+
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+		private final DataInputStream in;
+		private int remaining;
+	}
+
+	private static final long DEFAULT_HEAP_BUDGET = 64L << 20;
+	private static final int RECORD_OVERHEAD = 64; // object headers, references and array slack
+	private static final Comparator<Record> RECORD_COMPARATOR = Comparator.comparing(r -> r.srcName);
+	private static final Comparator<Source> SOURCE_COMPARATOR = Comparator.<Source, String>comparing(s -> s.srcName).thenComparingInt(s -> s.index);
+
+	private final MappingVisitor next;
+	private final long heapBudget;
+	private final Path tempDir;
+	private final VisitOrder order;
+	private final Set<MappingFlag> flags;
+	private String srcNamespace;
+	private List<String> dstNamespaces;
+	private final List<String[]> metadata = new ArrayList<>();
+	private final List<Record> records = new ArrayList<>();
+	private final List<Path> runs = new ArrayList<>();
+	private long bufferedBytes;
+	private String currentClass;
+	private VisitBuffer current;
+}
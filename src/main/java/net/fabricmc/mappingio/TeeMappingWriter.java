@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Mapping writer delivering its visit calls to multiple writers, each running on its own thread, see
+ * {@link MappingWriter#tee}.
+ */
+final class TeeMappingWriter implements MappingWriter {
+	TeeMappingWriter(List<? extends MappingWriter> writers, int queueCapacity) {
+		if (writers.isEmpty()) throw new IllegalArgumentException("no writers");
+
+		Set<MappingFlag> flags = EnumSet.noneOf(MappingFlag.class);
+		List<MappingWriter> asyncWriters = new ArrayList<>(writers.size());
+		List<MappingWriter> dstFieldDescWriters = new ArrayList<>();
+		List<MappingWriter> dstMethodDescWriters = new ArrayList<>();
+
+		try {
+			for (MappingWriter writer : writers) {
+				Set<MappingFlag> writerFlags = writer.getFlags();
+				MappingWriter asyncWriter = new AsyncMappingWriter(writer, queueCapacity);
+
+				flags.addAll(writerFlags);
+				asyncWriters.add(asyncWriter);
+				if (writerFlags.contains(MappingFlag.NEEDS_DST_FIELD_DESC)) dstFieldDescWriters.add(asyncWriter);
+				if (writerFlags.contains(MappingFlag.NEEDS_DST_METHOD_DESC)) dstMethodDescWriters.add(asyncWriter);
+			}
+		} catch (RuntimeException e) {
+			for (MappingWriter writer : asyncWriters) {
+				try {
+					writer.close();
+				} catch (IOException | RuntimeException e2) {
+					e.addSuppressed(e2);
+				}
+			}
+
+			throw e;
+		}
+
+		this.flags = Collections.unmodifiableSet(flags);
+		this.writers = asyncWriters;
+		this.activeWriters = new ArrayList<>(asyncWriters);
+		this.dstFieldDescWriters = dstFieldDescWriters;
+		this.dstMethodDescWriters = dstMethodDescWriters;
+	}
+
+	/**
+	 * @return The union of all writers' flags.
+	 */
+	@Override
+	public Set<MappingFlag> getFlags() {
+		return flags;
+	}
+
+	@Override
+	public void reset() {
+		for (MappingWriter writer : activeWriters) {
+			writer.reset();
+		}
+	}
+
+	@Override
+	public boolean visitHeader() throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitHeader();
+		}
+
+		return true;
+	}
+
+	@Override
+	public void visitNamespaces(String srcNamespace, List<String> dstNamespaces) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitNamespaces(srcNamespace, dstNamespaces);
+		}
+	}
+
+	@Override
+	public void visitMetadata(String key, @Nullable String value) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitMetadata(key, value);
+		}
+	}
+
+	@Override
+	public boolean visitContent() throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitContent();
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean visitClass(String srcName) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitClass(srcName);
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean visitField(String srcName, @Nullable String srcDesc) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitField(srcName, srcDesc);
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethod(String srcName, @Nullable String srcDesc) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitMethod(srcName, srcDesc);
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitMethodArg(argPosition, lvIndex, srcName);
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitMethodVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcName);
+		}
+
+		return true;
+	}
+
+	@Override
+	public void visitDstName(MappedElementKind targetKind, int namespace, String name) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitDstName(targetKind, namespace, name);
+		}
+	}
+
+	/**
+	 * Only forwards the descriptors to the writers requesting them via their flags.
+	 */
+	@Override
+	public void visitDstDesc(MappedElementKind targetKind, int namespace, String desc) throws IOException {
+		List<MappingWriter> targets;
+
+		switch (targetKind) {
+		case FIELD:
+			targets = dstFieldDescWriters;
+			break;
+		case METHOD:
+			targets = dstMethodDescWriters;
+			break;
+		default:
+			targets = activeWriters;
+		}
+
+		for (MappingWriter writer : targets) {
+			writer.visitDstDesc(targetKind, namespace, desc);
+		}
+	}
+
+	@Override
+	public boolean visitElementContent(MappedElementKind targetKind) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitElementContent(targetKind);
+		}
+
+		return true;
+	}
+
+	@Override
+	public void visitComment(MappedElementKind targetKind, String comment) throws IOException {
+		for (MappingWriter writer : activeWriters) {
+			writer.visitComment(targetKind, comment);
+		}
+	}
+
+	/**
+	 * Waits for all writers to finish the current pass. Writers not requesting another pass are excluded from
+	 * subsequent passes.
+	 *
+	 * @return {@code true} once all writers are done.
+	 */
+	@Override
+	public boolean visitEnd() throws IOException {
+		IOException failure = null;
+
+		for (MappingWriter writer : new ArrayList<>(activeWriters)) {
+			try {
+				if (writer.visitEnd()) {
+					activeWriters.remove(writer);
+					dstFieldDescWriters.remove(writer);
+					dstMethodDescWriters.remove(writer);
+				}
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+
+		if (failure != null) {
+			close(failure);
+			throw failure;
+		}
+
+		return activeWriters.isEmpty();
+	}
+
+	@Override
+	public void close() throws IOException {
+		close(null);
+	}
+
+	private void close(@Nullable IOException failure) throws IOException {
+		IOException closeFailure = null;
+
+		for (MappingWriter writer : writers) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				if (failure != null) {
+					if (e != failure) failure.addSuppressed(e);
+				} else if (closeFailure == null) {
+					closeFailure = e;
+				} else {
+					closeFailure.addSuppressed(e);
+				}
+			}
+		}
+
+		activeWriters.clear();
+		dstFieldDescWriters.clear();
+		dstMethodDescWriters.clear();
+
+		if (closeFailure != null) throw closeFailure;
+	}
+
+	private final Set<MappingFlag> flags;
+	private final List<MappingWriter> writers;
+	private final List<MappingWriter> activeWriters;
+	private final List<MappingWriter> dstFieldDescWriters;
+	private final List<MappingWriter> dstMethodDescWriters;
+}
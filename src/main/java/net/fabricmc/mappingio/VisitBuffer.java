@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Growable byte array holding the visit calls for one class in a compact binary form.
+ *
+ * <p>Integers are stored as zigzag varints, strings as length prefixed UTF-8.
+ */
+final class VisitBuffer {
+	VisitBuffer() {
+		this(new byte[64], 0);
+	}
+
+	private VisitBuffer(byte[] data, int size) {
+		this.data = data;
+		this.size = size;
+	}
+
+	static VisitBuffer readFrom(DataInput in) throws IOException {
+		int size = in.readInt();
+		byte[] data = new byte[size];
+		in.readFully(data);
+
+		return new VisitBuffer(data, size);
+	}
+
+	void writeTo(DataOutput out) throws IOException {
+		out.writeInt(size);
+		out.write(data, 0, size);
+	}
+
+	int size() {
+		return size;
+	}
+
+	void visitClass() {
+		writeOp(OP_CLASS);
+	}
+
+	void visitField(String srcName, @Nullable String srcDesc) {
+		writeOp(OP_FIELD);
+		writeString(srcName);
+		writeString(srcDesc);
+	}
+
+	void visitMethod(String srcName, @Nullable String srcDesc) {
+		writeOp(OP_METHOD);
+		writeString(srcName);
+		writeString(srcDesc);
+	}
+
+	void visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) {
+		writeOp(OP_METHOD_ARG);
+		writeInt(argPosition);
+		writeInt(lvIndex);
+		writeString(srcName);
+	}
+
+	void visitMethodVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) {
+		writeOp(OP_METHOD_VAR);
+		writeInt(lvtRowIndex);
+		writeInt(lvIndex);
+		writeInt(startOpIdx);
+		writeInt(endOpIdx);
+		writeString(srcName);
+	}
+
+	void visitDstName(MappedElementKind targetKind, int namespace, String name) {
+		writeOp(OP_DST_NAME);
+		writeOp(targetKind.ordinal());
+		writeInt(namespace);
+		writeString(name);
+	}
+
+	void visitComment(MappedElementKind targetKind, String comment) {
+		writeOp(OP_COMMENT);
+		writeOp(targetKind.ordinal());
+		writeString(comment);
+	}
+
+	void replay(String className, MappingVisitor visitor) throws IOException {
+		pos = 0;
+
+		while (pos < size) {
+			int op = data[pos++];
+
+			switch (op) {
+			case OP_CLASS:
+				visitor.visitClass(className);
+				break;
+			case OP_FIELD:
+				visitor.visitField(readString(), readString());
+				break;
+			case OP_METHOD:
+				visitor.visitMethod(readString(), readString());
+				break;
+			case OP_METHOD_ARG:
+				visitor.visitMethodArg(readInt(), readInt(), readString());
+				break;
+			case OP_METHOD_VAR:
+				visitor.visitMethodVar(readInt(), readInt(), readInt(), readInt(), readString());
+				break;
+			case OP_DST_NAME:
+				visitor.visitDstName(KINDS[data[pos++]], readInt(), readString());
+				break;
+			case OP_COMMENT:
+				visitor.visitComment(KINDS[data[pos++]], readString());
+				break;
+			default:
+				throw new IllegalStateException("invalid op: "+op);
+			}
+		}
+	}
+
+	private void writeOp(int op) {
+		ensureCapacity(1);
+		data[size++] = (byte) op;
+	}
+
+	private void writeInt(int value) {
+		ensureCapacity(5);
+		int v = value << 1 ^ value >> 31; // zigzag, -1 is common
+
+		while ((v & ~0x7f) != 0) {
+			data[size++] = (byte) (v & 0x7f | 0x80);
+			v >>>= 7;
+		}
+
+		data[size++] = (byte) v;
+	}
+
+	private void writeString(@Nullable String str) {
+		if (str == null) {
+			writeInt(-1);
+		} else {
+			byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length);
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, data, size, bytes.length);
+			size += bytes.length;
+		}
+	}
+
+	private void ensureCapacity(int extra) {
+		if (size + extra > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+		}
+	}
+
+	private int readInt() {
+		int v = 0;
+		int shift = 0;
+		int b;
+
+		do {
+			b = data[pos++];
+			v |= (b & 0x7f) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return v >>> 1 ^ -(v & 1);
+	}
+
+	@Nullable
+	private String readString() {
+		int len = readInt();
+		if (len < 0) return null;
+
+		String ret = new String(data, pos, len, StandardCharsets.UTF_8);
+		pos += len;
+
+		return ret;
+	}
+
+	private static final MappedElementKind[] KINDS = MappedElementKind.values();
+
+	private static final int OP_CLASS = 0;
+	private static final int OP_FIELD = 1;
+	private static final int OP_METHOD = 2;
+	private static final int OP_METHOD_ARG = 3;
+	private static final int OP_METHOD_VAR = 4;
+	private static final int OP_DST_NAME = 5;
+	private static final int OP_COMMENT = 6;
+
+	private byte[] data;
+	private int size;
+	private int pos;
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * SHA-256 fingerprints of mapping files or directories, derived either from their metadata or their content.
+ */
+final class FileFingerprint {
+	private FileFingerprint() {
+	}
+
+	/**
+	 * @param salt Additional data to include in the fingerprint.
+	 * @param hashContent Whether to hash the file content instead of path, size, modification time and file key.
+	 * @return The lower case hex encoded fingerprint.
+	 */
+	static String compute(Path path, String salt, boolean hashContent) throws IOException {
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e); // mandatory algorithm, can't happen
+		}
+
+		path = path.toAbsolutePath().normalize();
+		update(digest, salt);
+
+		if (Files.isDirectory(path)) {
+			List<Path> files = new ArrayList<>();
+
+			try (Stream<Path> stream = Files.walk(path)) {
+				stream.filter(Files::isRegularFile).forEach(files::add);
+			}
+
+			Collections.sort(files);
+
+			for (Path file : files) {
+				update(digest, path.relativize(file).toString());
+				updateFile(digest, file, hashContent);
+			}
+		} else {
+			updateFile(digest, path, hashContent);
+		}
+
+		StringBuilder ret = new StringBuilder(64);
+
+		for (byte b : digest.digest()) {
+			ret.append(Character.forDigit(b >>> 4 & 0xf, 16));
+			ret.append(Character.forDigit(b & 0xf, 16));
+		}
+
+		return ret.toString();
+	}
+
+	private static void updateFile(MessageDigest digest, Path file, boolean hashContent) throws IOException {
+		if (hashContent) {
+			byte[] buffer = new byte[65536];
+			int len;
+
+			try (InputStream in = Files.newInputStream(file)) {
+				while ((len = in.read(buffer)) >= 0) {
+					digest.update(buffer, 0, len);
+				}
+			}
+		} else {
+			BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+			update(digest, file+"\0"+attrs.size()+"\0"+attrs.lastModifiedTime().toMillis()+"\0"+attrs.fileKey());
+		}
+	}
+
+	private static void update(MessageDigest digest, String str) {
+		digest.update(str.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+}
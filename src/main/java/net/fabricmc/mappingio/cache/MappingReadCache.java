@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.cache;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappingFlag;
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.adapter.ForwardingMappingVisitor;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.binary.BinaryFileReader;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+/**
+ * Persistent cache of parsed mapping files, replaying a {@linkplain MappingFormat#BINARY_FILE binary} copy of
+ * previously read files instead of parsing their text again.
+ *
+ * <p>Entries are keyed either by the file's path, size, modification time and file key (inode), or by a hash of its
+ * content, which survives copies and touches at the cost of reading the file. They're written atomically, so
+ * concurrent processes sharing a cache directory only ever see complete entries. The least recently used entries
+ * are evicted once the cache exceeds its size limit, tracked through the entries' modification times.
+ *
+ * <p>Directories and files that are already binary are read directly without caching. Entries that fail to load are
+ * discarded and the file is parsed again. Visitors requiring destination descriptors are supplied from a
+ * {@link MemoryMappingTree} the entry is read into first, since entries don't store them.
+ */
+public final class MappingReadCache {
+	/**
+	 * Creates a cache keyed by file metadata with a limit of {@value #DEFAULT_MAX_SIZE} bytes.
+	 */
+	public MappingReadCache(Path cacheDir) {
+		this(cacheDir, DEFAULT_MAX_SIZE, false);
+	}
+
+	/**
+	 * @param maxSize The size limit of all entries in bytes.
+	 * @param hashContent Whether to key entries by content hash instead of file metadata.
+	 */
+	public MappingReadCache(Path cacheDir, long maxSize, boolean hashContent) {
+		if (maxSize < 0) throw new IllegalArgumentException("negative max size: "+maxSize);
+
+		this.cacheDir = cacheDir.toAbsolutePath().normalize();
+		this.maxSize = maxSize;
+		this.hashContent = hashContent;
+	}
+
+	public void read(Path file, MappingVisitor visitor) throws IOException {
+		read(file, null, visitor);
+	}
+
+	/**
+	 * Replays the file's cached entry to the visitor, or reads it through {@link MappingReader} and caches the result.
+	 */
+	public void read(Path file, @Nullable MappingFormat format, MappingVisitor visitor) throws IOException {
+		if (format == null) {
+			format = MappingReader.detectFormat(file);
+			if (format == null) throw new IOException("invalid/unsupported mapping format");
+		}
+
+		if (!format.supportsCharStreams()) {
+			MappingReader.read(file, format, visitor);
+			return;
+		}
+
+		Path entry = cacheDir.resolve(FileFingerprint.compute(file, KEY_VERSION+"\0"+format.name(), hashContent)+"."+MappingFormat.BINARY_FILE.fileExt);
+
+		if (Files.isRegularFile(entry)) {
+			Set<MappingFlag> flags = visitor.getFlags();
+
+			if (flags.contains(MappingFlag.NEEDS_DST_FIELD_DESC) || flags.contains(MappingFlag.NEEDS_DST_METHOD_DESC)) {
+				// binary entries don't store destination descriptors, let a tree compute them
+				MemoryMappingTree tree = new MemoryMappingTree();
+
+				if (readEntry(entry, tree)) {
+					tree.accept(visitor);
+					return;
+				}
+			} else if (readEntry(entry, visitor)) {
+				return;
+			}
+		}
+
+		MemoryMappingTree tree = new MemoryMappingTree();
+		MappingReader.read(file, format, tree);
+		writeEntry(entry, tree);
+		tree.accept(visitor);
+	}
+
+	/**
+	 * @return Whether the entry could be read, {@code false} if it's corrupted and was discarded before visiting.
+	 */
+	private boolean readEntry(Path entry, MappingVisitor visitor) throws IOException {
+		boolean[] started = new boolean[1];
+
+		try {
+			BinaryFileReader.read(entry, new ForwardingMappingVisitor(visitor) {
+				@Override
+				public boolean visitHeader() throws IOException {
+					started[0] = true;
+
+					return super.visitHeader();
+				}
+
+				@Override
+				public boolean visitContent() throws IOException {
+					started[0] = true;
+
+					return super.visitContent();
+				}
+			});
+		} catch (NoSuchFileException e) { // evicted concurrently
+			if (started[0]) throw e;
+
+			return false;
+		} catch (IOException e) {
+			if (started[0]) throw e;
+
+			Files.deleteIfExists(entry);
+
+			return false;
+		}
+
+		try {
+			Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis())); // mark as recently used
+		} catch (IOException e) {
+			// evicted concurrently, harmless
+		}
+
+		return true;
+	}
+
+	private void writeEntry(Path entry, MemoryMappingTree tree) throws IOException {
+		Files.createDirectories(cacheDir);
+		Path tmp = Files.createTempFile(cacheDir, entry.getFileName().toString(), ".tmp");
+
+		try {
+			tree.accept(MappingWriter.create(tmp, MappingFormat.BINARY_FILE));
+
+			try {
+				Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+
+		evict();
+	}
+
+	/**
+	 * Deletes the least recently used entries until the cache fits its size limit.
+	 */
+	private void evict() throws IOException {
+		List<Path> entries = new ArrayList<>();
+		List<BasicFileAttributes> attributes = new ArrayList<>();
+		long size = 0;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "*."+MappingFormat.BINARY_FILE.fileExt)) {
+			for (Path entry : stream) {
+				try {
+					BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+					entries.add(entry);
+					attributes.add(attrs);
+					size += attrs.size();
+				} catch (NoSuchFileException e) {
+					// evicted concurrently
+				}
+			}
+		}
+
+		if (size <= maxSize) return;
+
+		Integer[] order = new Integer[entries.size()];
+
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+
+		Arrays.sort(order, Comparator.comparing(i -> attributes.get(i).lastModifiedTime()));
+
+		for (int i : order) {
+			if (size <= maxSize) break;
+
+			Files.deleteIfExists(entries.get(i));
+			size -= attributes.get(i).size();
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() throws IOException {
+		if (!Files.isDirectory(cacheDir)) return;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "*."+MappingFormat.BINARY_FILE.fileExt)) {
+			for (Path entry : stream) {
+				Files.deleteIfExists(entry);
+			}
+		}
+	}
+
+	public static final long DEFAULT_MAX_SIZE = 256L << 20;
+	private static final int KEY_VERSION = 1;
+
+	private final Path cacheDir;
+	private final long maxSize;
+	private final boolean hashContent;
+}
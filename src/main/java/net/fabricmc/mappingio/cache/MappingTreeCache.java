@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.cache;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ElementMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.FieldMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MetadataEntryView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodArgMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodVarMappingView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+/**
+ * In-memory cache of mapping trees shared by everything in the process loading the same files, e.g. the plugins of
+ * a long-running build daemon.
+ *
+ * <p>Trees are keyed by their file's absolute path and fingerprint, which is derived from the file metadata or
+ * optionally its content, see {@link MappingReadCache}. Modified files are thus read again. Concurrent requests for
+ * the same tree share a single load.
+ *
+ * <p>Entries are only softly referenced, so the garbage collector may reclaim them under memory pressure. In
+ * addition, the least recently used entries are dropped once the estimated size of all retained trees exceeds the
+ * cache's memory budget.
+ *
+ * <p>The returned trees are shared read-only views, prepared for concurrent reads. Their elements must not be modified.
+ */
+public final class MappingTreeCache {
+	/**
+	 * Creates a cache keyed by file metadata with a budget of {@value #DEFAULT_MAX_SIZE} bytes.
+	 */
+	public MappingTreeCache() {
+		this(DEFAULT_MAX_SIZE, false);
+	}
+
+	/**
+	 * @param maxSize The memory budget of all retained trees in bytes, as estimated by their name lengths.
+	 * @param hashContent Whether to fingerprint files by content instead of metadata.
+	 */
+	public MappingTreeCache(long maxSize, boolean hashContent) {
+		if (maxSize < 0) throw new IllegalArgumentException("negative max size: "+maxSize);
+
+		this.maxSize = maxSize;
+		this.hashContent = hashContent;
+	}
+
+	/**
+	 * @return The process-wide cache instance.
+	 */
+	public static MappingTreeCache getShared() {
+		return SharedHolder.INSTANCE;
+	}
+
+	public MappingTreeView get(Path path) throws IOException {
+		return get(path, null);
+	}
+
+	/**
+	 * Gets the tree for the file or directory, reading it through {@link MappingReader} if it isn't cached yet.
+	 */
+	public MappingTreeView get(Path path, @Nullable MappingFormat format) throws IOException {
+		path = path.toAbsolutePath().normalize();
+
+		if (format == null) {
+			format = MappingReader.detectFormat(path);
+			if (format == null) throw new IOException("invalid/unsupported mapping format");
+		}
+
+		String fingerprint = FileFingerprint.compute(path, format.name(), hashContent);
+		expungeCleared();
+
+		for (;;) {
+			CompletableFuture<Entry> future = entries.get(path);
+
+			if (future == null) {
+				CompletableFuture<Entry> newFuture = new CompletableFuture<>();
+				future = entries.putIfAbsent(path, newFuture);
+
+				if (future == null) {
+					misses.increment();
+
+					return load(path, format, fingerprint, newFuture);
+				}
+			}
+
+			Entry entry;
+
+			try {
+				entry = future.join();
+			} catch (CompletionException e) {
+				entries.remove(path, future);
+
+				if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+
+				throw e;
+			}
+
+			MappingTreeView tree = entry.get();
+
+			if (tree != null && entry.fingerprint.equals(fingerprint)) {
+				hits.increment();
+
+				synchronized (lru) {
+					lru.get(path); // mark as recently used
+				}
+
+				return tree;
+			}
+
+			// stale or reclaimed, drop and retry
+			if (entries.remove(path, future)) unlink(entry);
+		}
+	}
+
+	private MappingTreeView load(Path path, MappingFormat format, String fingerprint, CompletableFuture<Entry> future) throws IOException {
+		long start = System.nanoTime();
+		MemoryMappingTree tree = new MemoryMappingTree();
+
+		try {
+			MappingReader.read(path, format, tree);
+		} catch (IOException | RuntimeException e) {
+			entries.remove(path, future);
+			future.completeExceptionally(e);
+			throw e;
+		}
+
+		// build the lazy lookup structures before sharing the tree with other threads
+		tree.prepareConcurrentReads();
+		MappingTreeView ret = new ReadOnlyTreeView(tree);
+		Entry entry = new Entry(path, fingerprint, estimateSize(tree), ret, queue);
+		loadTime.add(System.nanoTime() - start);
+
+		synchronized (lru) {
+			Entry prev = lru.put(path, entry);
+			if (prev != null) retainedSize -= prev.size;
+			retainedSize += entry.size;
+
+			for (Iterator<Entry> it = lru.values().iterator(); retainedSize > maxSize && it.hasNext(); ) {
+				Entry eldest = it.next();
+				if (eldest == entry) continue;
+
+				it.remove();
+				retainedSize -= eldest.size;
+				entries.computeIfPresent(eldest.path, (k, v) -> v.getNow(null) == eldest ? null : v);
+			}
+		}
+
+		future.complete(entry);
+
+		return ret;
+	}
+
+	/**
+	 * Drops the entries whose trees were reclaimed by the garbage collector.
+	 */
+	private void expungeCleared() {
+		Reference<? extends MappingTreeView> ref;
+
+		while ((ref = queue.poll()) != null) {
+			Entry entry = (Entry) ref;
+			entries.computeIfPresent(entry.path, (k, v) -> v.getNow(null) == entry ? null : v);
+			unlink(entry);
+		}
+	}
+
+	private void unlink(Entry entry) {
+		synchronized (lru) {
+			if (lru.get(entry.path) == entry) {
+				lru.remove(entry.path);
+				retainedSize -= entry.size;
+			}
+		}
+	}
+
+	/**
+	 * Removes the entry for the file or directory, if any.
+	 */
+	public void invalidate(Path path) {
+		path = path.toAbsolutePath().normalize();
+		CompletableFuture<Entry> future = entries.remove(path);
+		if (future == null) return;
+
+		Entry entry = future.getNow(null);
+		if (entry != null) unlink(entry);
+	}
+
+	/**
+	 * Removes all entries and resets the statistics.
+	 */
+	public void clear() {
+		synchronized (lru) {
+			entries.clear();
+			lru.clear();
+			retainedSize = 0;
+		}
+
+		hits.reset();
+		misses.reset();
+		loadTime.reset();
+	}
+
+	public Stats getStats() {
+		synchronized (lru) {
+			return new Stats(hits.sum(), misses.sum(), loadTime.sum(), lru.size(), retainedSize);
+		}
+	}
+
+	private static long estimateSize(MappingTreeView tree) {
+		int namespaces = tree.getMaxNamespaceId();
+		long ret = TREE_OVERHEAD;
+
+		for (MetadataEntryView entry : tree.getMetadata()) {
+			ret += ELEMENT_OVERHEAD + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+		}
+
+		for (ClassMappingView cls : tree.getClasses()) {
+			ret += estimateSize(cls, namespaces);
+
+			for (FieldMappingView field : cls.getFields()) {
+				ret += estimateSize(field, namespaces) + estimateSize(field.getSrcDesc());
+			}
+
+			for (MethodMappingView method : cls.getMethods()) {
+				ret += estimateSize(method, namespaces) + estimateSize(method.getSrcDesc());
+
+				for (MethodArgMappingView arg : method.getArgs()) {
+					ret += estimateSize(arg, namespaces);
+				}
+
+				for (MethodVarMappingView var : method.getVars()) {
+					ret += estimateSize(var, namespaces);
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	private static long estimateSize(ElementMappingView element, int namespaces) {
+		long ret = ELEMENT_OVERHEAD + 8L * namespaces + estimateSize(element.getSrcName()) + estimateSize(element.getComment());
+
+		for (int i = 0; i < namespaces; i++) {
+			ret += estimateSize(element.getDstName(i));
+		}
+
+		return ret;
+	}
+
+	private static long estimateSize(@Nullable String str) {
+		return str == null ? 0 : STRING_OVERHEAD + 2L * str.length();
+	}
+
+	public static final class Stats {
+		Stats(long hits, long misses, long loadTimeNanos, int entries, long retainedSize) {
+			this.hits = hits;
+			this.misses = misses;
+			this.loadTimeNanos = loadTimeNanos;
+			this.entries = entries;
+			this.retainedSize = retainedSize;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return The number of requests that had to load their tree.
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return The total time spent loading trees in nanoseconds.
+		 */
+		public long getLoadTimeNanos() {
+			return loadTimeNanos;
+		}
+
+		public int getEntries() {
+			return entries;
+		}
+
+		/**
+		 * @return The estimated size of all retained trees in bytes.
+		 */
+		public long getRetainedSize() {
+			return retainedSize;
+		}
+
+		@Override
+		public String toString() {
+			return "hits: "+hits+", misses: "+misses+", load time: "+loadTimeNanos / 1_000_000+" ms, entries: "+entries+", retained: "+retainedSize+" B";
+		}
+
+		private final long hits;
+		private final long misses;
+		private final long loadTimeNanos;
+		private final int entries;
+		private final long retainedSize;
+	}
+
+	private static final class Entry extends SoftReference<MappingTreeView> {
+		Entry(Path path, String fingerprint, long size, MappingTreeView tree, ReferenceQueue<? super MappingTreeView> queue) {
+			super(tree, queue);
+
+			this.path = path;
+			this.fingerprint = fingerprint;
+			this.size = size;
+		}
+
+		final Path path;
+		final String fingerprint;
+		final long size;
+	}
+
+	private static final class SharedHolder {
+		static final MappingTreeCache INSTANCE = new MappingTreeCache();
+	}
+
+	public static final long DEFAULT_MAX_SIZE = 512L << 20;
+	private static final int TREE_OVERHEAD = 256;
+	private static final int ELEMENT_OVERHEAD = 64;
+	private static final int STRING_OVERHEAD = 40;
+
+	private final long maxSize;
+	private final boolean hashContent;
+	private final Map<Path, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+	private final Map<Path, Entry> lru = new LinkedHashMap<>(16, 0.75f, true); // guarded by itself
+	private final ReferenceQueue<MappingTreeView> queue = new ReferenceQueue<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder loadTime = new LongAdder();
+	private long retainedSize; // guarded by lru
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Concurrent string interner letting multiple mapping trees share equal names, e.g. those of several game versions.
+ *
+ * <p>Unlike {@link String#intern()}, strings are only weakly referenced and get dropped once no tree uses them
+ * anymore.
+ *
+ * @see net.fabricmc.mappingio.tree.MemoryMappingTree#setNameInterner
+ */
+public final class NameInterner {
+	/**
+	 * @return The process-wide interner instance.
+	 */
+	public static NameInterner getShared() {
+		return SharedHolder.INSTANCE;
+	}
+
+	/**
+	 * @return The canonical instance equal to {@code str}, or {@code null} if {@code str} is {@code null}.
+	 */
+	@Nullable
+	public String intern(@Nullable String str) {
+		if (str == null) return null;
+
+		expungeCleared();
+		WeakKey key = new WeakKey(str, queue);
+
+		for (;;) {
+			WeakKey prev = strings.putIfAbsent(key, key);
+			if (prev == null) return str;
+
+			String ret = prev.get();
+
+			if (ret != null) {
+				if (ret != str) {
+					deduplicatedStrings.increment();
+					deduplicatedBytes.add(STRING_OVERHEAD + 2L * str.length());
+				}
+
+				return ret;
+			}
+
+			strings.remove(prev, prev); // cleared since the lookup
+		}
+	}
+
+	/**
+	 * @return The number of currently interned strings.
+	 */
+	public int size() {
+		expungeCleared();
+
+		return strings.size();
+	}
+
+	/**
+	 * @return The number of strings replaced by an equal interned instance.
+	 */
+	public long getDeduplicatedStrings() {
+		return deduplicatedStrings.sum();
+	}
+
+	/**
+	 * @return The estimated heap size of all strings replaced by an equal interned instance in bytes.
+	 */
+	public long getDeduplicatedBytes() {
+		return deduplicatedBytes.sum();
+	}
+
+	private void expungeCleared() {
+		Reference<? extends String> ref;
+
+		while ((ref = queue.poll()) != null) {
+			strings.remove(ref, ref);
+		}
+	}
+
+	private static final class WeakKey extends WeakReference<String> {
+		WeakKey(String referent, ReferenceQueue<? super String> queue) {
+			super(referent, queue);
+
+			this.hash = referent.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (!(obj instanceof WeakKey)) return false;
+
+			WeakKey o = (WeakKey) obj;
+			if (o.hash != hash) return false;
+
+			String str = get();
+
+			return str != null && str.equals(o.get());
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		private final int hash;
+	}
+
+	private static final class SharedHolder {
+		static final NameInterner INSTANCE = new NameInterner();
+	}
+
+	private static final int STRING_OVERHEAD = 40;
+
+	private final ConcurrentMap<WeakKey, WeakKey> strings = new ConcurrentHashMap<>();
+	private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+	private final LongAdder deduplicatedStrings = new LongAdder();
+	private final LongAdder deduplicatedBytes = new LongAdder();
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.cache;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+/**
+ * Tree view delegating to a shared tree without exposing the tree itself or its mutable collections.
+ *
+ * <p>The returned elements still belong to the delegate and must not be modified.
+ */
+final class ReadOnlyTreeView implements MappingTreeView {
+	ReadOnlyTreeView(MappingTreeView delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public String getSrcNamespace() {
+		return delegate.getSrcNamespace();
+	}
+
+	@Override
+	public List<String> getDstNamespaces() {
+		return Collections.unmodifiableList(delegate.getDstNamespaces());
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata() {
+		return Collections.unmodifiableList(delegate.getMetadata());
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata(String key) {
+		return Collections.unmodifiableList(delegate.getMetadata(key));
+	}
+
+	@Override
+	public Collection<? extends ClassMappingView> getClasses() {
+		return Collections.unmodifiableCollection(delegate.getClasses());
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String srcName) {
+		return delegate.getClass(srcName);
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String name, int namespace) {
+		return delegate.getClass(name, namespace);
+	}
+
+	@Override
+	public boolean mayContainClass(CharSequence name, int start, int end, int namespace) {
+		return delegate.mayContainClass(name, start, end, namespace);
+	}
+
+	@Override
+	public String mapDesc(CharSequence desc, int start, int end, int srcNamespace, int dstNamespace) {
+		return delegate.mapDesc(desc, start, end, srcNamespace, dstNamespace);
+	}
+
+	@Override
+	public void accept(MappingVisitor visitor, VisitOrder order) throws IOException {
+		delegate.accept(visitor, order);
+	}
+
+	@Override
+	public <V extends MappingVisitor> List<V> parallelAccept(IntFunction<V> shardVisitorFactory, VisitOrder order, int shards) throws IOException {
+		return delegate.parallelAccept(shardVisitorFactory, order, shards);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	private final MappingTreeView delegate;
+}
@@ -290,12 +290,27 @@ public enum MappingFormat {
 					.withSrcNames(FeaturePresence.REQUIRED)
 					.withDstNames(FeaturePresence.REQUIRED)
 					.withSrcDescs(FeaturePresence.REQUIRED))
-			.withFileComments(true));
+			.withFileComments(true)),
+
+	/**
+	 * Mapping-IO's own binary format, meant for fast loading of cached mappings.
+	 *
+	 * <p>It has the same feature set as {@linkplain #TINY_2_FILE Tiny v2}, minus file comments. Being
+	 * {@linkplain #isBinary() binary}, it's only readable and writable via the {@link java.nio.file.Path Path} based
+	 * APIs.
+	 */
+	BINARY_FILE("Binary mapping file", "miob", true, true, FeatureSetBuilder.createFrom(TINY_2_FILE.features)
+			.withFileComments(false));
 
 	MappingFormat(String name, @Nullable String fileExt, boolean hasWriter, FeatureSetBuilder featureBuilder) {
+		this(name, fileExt, hasWriter, false, featureBuilder);
+	}
+
+	MappingFormat(String name, @Nullable String fileExt, boolean hasWriter, boolean binary, FeatureSetBuilder featureBuilder) {
 		this.name = name;
 		this.fileExt = fileExt;
 		this.hasWriter = hasWriter;
+		this.binary = binary;
 		this.features = featureBuilder.build();
 		this.hasNamespaces = features.hasNamespaces();
 		this.hasFieldDescriptors = features.fields().srcDescs() != FeaturePresence.ABSENT || features.fields().dstDescs() != FeaturePresence.ABSENT;
@@ -312,6 +327,21 @@ public enum MappingFormat {
 		return fileExt != null;
 	}
 
+	/**
+	 * @return Whether the format's files contain binary data instead of text.
+	 */
+	public boolean isBinary() {
+		return binary;
+	}
+
+	/**
+	 * @return Whether the format can be read from a {@link java.io.Reader Reader} and written to a
+	 * {@link java.io.Writer Writer}, which requires a single text file.
+	 */
+	public boolean supportsCharStreams() {
+		return hasSingleFile() && !binary;
+	}
+
 	public String getGlobPattern() {
 		if (fileExt == null) throw new UnsupportedOperationException("not applicable to dir based format");
 
@@ -319,6 +349,7 @@ public enum MappingFormat {
 	}
 
 	private final FeatureSet features;
+	private final boolean binary;
 	public final String name;
 	public final boolean hasWriter;
 	@Nullable
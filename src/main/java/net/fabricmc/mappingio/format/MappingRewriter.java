@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.adapter.MappingDstNsReorder;
+import net.fabricmc.mappingio.adapter.MappingNsRenamer;
+import net.fabricmc.mappingio.format.srg.TsrgFileReader;
+import net.fabricmc.mappingio.format.tiny.Tiny2FileReader;
+import net.fabricmc.mappingio.format.tiny.Tiny2Util;
+
+/**
+ * Rewrites a mapping file into the same format, only parsing the parts affected by the configured changes.
+ *
+ * <p>Namespace renames only touch the header, the class blocks are copied byte for byte. Destination namespace
+ * reorders permute the affected columns without decoding the names. Classes selected for a transformation are the
+ * only ones read and written through the regular reader and writer, with the transformation followed by the
+ * namespace changes, which equals reading the whole file through the same visitor chain as long as the input is
+ * laid out the way the writer would produce it.
+ *
+ * <p>Supported formats are {@link MappingFormat#TINY_2_FILE} and {@link MappingFormat#TSRG_2_FILE}.
+ */
+public final class MappingRewriter {
+	public MappingRewriter(MappingFormat format) {
+		if (!isSupported(format)) throw new IllegalArgumentException("unsupported format: "+format);
+
+		this.format = format;
+	}
+
+	public static boolean isSupported(MappingFormat format) {
+		return format == MappingFormat.TINY_2_FILE || format == MappingFormat.TSRG_2_FILE;
+	}
+
+	/**
+	 * Renames source and destination namespaces, as {@link MappingNsRenamer} does.
+	 */
+	public MappingRewriter renameNamespaces(Map<String, String> nameMap) {
+		this.nameMap = nameMap;
+
+		return this;
+	}
+
+	/**
+	 * Reorders the destination namespaces, as {@link MappingDstNsReorder} does.
+	 *
+	 * @param newDstNs The input's destination namespaces in the desired order, before renaming them.
+	 */
+	public MappingRewriter reorderDstNamespaces(List<String> newDstNs) {
+		this.newDstNs = newDstNs;
+
+		return this;
+	}
+
+	/**
+	 * Only keeps the classes whose source name matches the filter.
+	 */
+	public MappingRewriter filterClasses(Predicate<String> filter) {
+		this.classFilter = filter;
+
+		return this;
+	}
+
+	/**
+	 * Transforms the classes whose source name matches the selector.
+	 *
+	 * <p>The transform receives the visitor handling the namespace changes and writing, and sees the input's
+	 * namespaces. Only the selected class is visited per invocation, other classes are passed through unchanged.
+	 */
+	public MappingRewriter transformClasses(Predicate<String> selector, Function<MappingVisitor, MappingVisitor> transform) {
+		this.transformSelector = selector;
+		this.transform = transform;
+
+		return this;
+	}
+
+	public void rewrite(Path input, Path output) throws IOException {
+		byte[] data = Files.readAllBytes(input);
+
+		try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(output))) {
+			rewrite(data, os);
+		}
+	}
+
+	/**
+	 * Rewrites the input stream's content to the output stream, neither of which is closed.
+	 */
+	public void rewrite(InputStream input, OutputStream output) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		int len;
+
+		while ((len = input.read(chunk)) >= 0) {
+			buffer.write(chunk, 0, len);
+		}
+
+		rewrite(buffer.toByteArray(), output);
+		output.flush();
+	}
+
+	private void rewrite(byte[] data, OutputStream out) throws IOException {
+		boolean tiny2 = format == MappingFormat.TINY_2_FILE;
+		int headerLineEnd = lineEnd(data, 0);
+		String[] headerColumns = stripCr(decode(data, 0, headerLineEnd)).split(tiny2 ? "\t" : " ", -1);
+		int nsStart = tiny2 ? 3 : 1;
+
+		if (tiny2 ? headerColumns.length < 5 || !headerColumns[0].equals("tiny") || !headerColumns[1].equals("2")
+				: headerColumns.length < 3 || !headerColumns[0].equals("tsrg2")) {
+			throw new IOException("invalid/unsupported "+format.name+" header");
+		}
+
+		String srcNs = headerColumns[nsStart];
+		List<String> dstNs = Arrays.asList(headerColumns).subList(nsStart + 1, headerColumns.length);
+		List<String> outDstNs = newDstNs != null ? newDstNs : dstNs;
+		int[] columnMap = new int[outDstNs.size()];
+		boolean permute = outDstNs.size() != dstNs.size();
+
+		for (int i = 0; i < columnMap.length; i++) {
+			columnMap[i] = dstNs.indexOf(outDstNs.get(i));
+			if (columnMap[i] != i) permute = true;
+		}
+
+		// header line
+
+		char separator = tiny2 ? '\t' : ' ';
+		StringBuilder header = new StringBuilder();
+
+		for (int i = 0; i < nsStart; i++) {
+			header.append(headerColumns[i]).append(separator);
+		}
+
+		header.append(rename(srcNs));
+
+		for (String ns : outDstNs) {
+			header.append(separator).append(rename(ns));
+		}
+
+		header.append('\n');
+		out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+
+		// properties, tiny v2 only
+
+		int contentStart = next(data, headerLineEnd);
+		boolean escapedNames = false;
+
+		if (tiny2) {
+			while (contentStart < data.length && data[contentStart] == '\t') {
+				int end = lineEnd(data, contentStart);
+				if (stripCr(decode(data, contentStart + 1, end)).equals(Tiny2Util.escapedNamesProperty)) escapedNames = true;
+				contentStart = next(data, end);
+			}
+
+			out.write(data, next(data, headerLineEnd), contentStart - next(data, headerLineEnd));
+		}
+
+		// class blocks, copied as is if only the header changed
+
+		if (classFilter == null && transformSelector == null && !permute) {
+			out.write(data, contentStart, data.length - contentStart);
+			return;
+		}
+
+		int copyStart = contentStart;
+		int pos = contentStart;
+
+		while (pos < data.length) {
+			int blockEnd = next(data, lineEnd(data, pos));
+
+			while (blockEnd < data.length && data[blockEnd] == '\t') {
+				blockEnd = next(data, lineEnd(data, blockEnd));
+			}
+
+			String srcName = getClassName(data, pos, tiny2, escapedNames);
+
+			if (srcName != null && classFilter != null && !classFilter.test(srcName)) {
+				out.write(data, copyStart, pos - copyStart);
+				copyStart = blockEnd;
+			} else if (srcName != null && transformSelector != null && transformSelector.test(srcName)) {
+				out.write(data, copyStart, pos - copyStart);
+				renderBlock(data, contentStart, pos, blockEnd, out);
+				copyStart = blockEnd;
+			} else if (srcName != null && permute) {
+				out.write(data, copyStart, pos - copyStart);
+				permuteBlock(data, pos, blockEnd, tiny2, dstNs.size(), columnMap, out);
+				copyStart = blockEnd;
+			}
+
+			pos = blockEnd;
+		}
+
+		out.write(data, copyStart, data.length - copyStart);
+	}
+
+	@Nullable
+	private static String getClassName(byte[] data, int start, boolean tiny2, boolean escapedNames) {
+		String line = stripCr(decode(data, start, lineEnd(data, start)));
+
+		if (tiny2) {
+			if (!line.startsWith("c\t")) return null;
+
+			int end = line.indexOf('\t', 2);
+			String name = end < 0 ? line.substring(2) : line.substring(2, end);
+
+			return escapedNames ? Tiny2Util.unescape(name) : name;
+		} else {
+			if (line.isEmpty() || line.startsWith("#")) return null;
+
+			int end = line.indexOf(' ');
+
+			return end < 0 ? line : line.substring(0, end);
+		}
+	}
+
+	/**
+	 * Reads the block through the regular reader after the original header and writes it through the transform.
+	 */
+	private void renderBlock(byte[] data, int headerEnd, int start, int end, OutputStream out) throws IOException {
+		StringWriter rendered = new StringWriter();
+		MappingVisitor visitor = MappingWriter.create(rendered, format);
+		if (nameMap != null) visitor = new MappingNsRenamer(visitor, nameMap);
+		if (newDstNs != null) visitor = new MappingDstNsReorder(visitor, newDstNs);
+		visitor = transform.apply(visitor);
+
+		try (Reader reader = new InputStreamReader(new SequenceInputStream(new ByteArrayInputStream(data, 0, headerEnd),
+				new ByteArrayInputStream(data, start, end - start)), StandardCharsets.UTF_8)) {
+			if (format == MappingFormat.TINY_2_FILE) {
+				Tiny2FileReader.read(reader, visitor);
+			} else {
+				TsrgFileReader.read(reader, visitor);
+			}
+		}
+
+		// drop the re-rendered header
+
+		String str = rendered.toString();
+		int pos = str.indexOf('\n') + 1;
+
+		if (format == MappingFormat.TINY_2_FILE) {
+			while (pos > 0 && pos < str.length() && str.charAt(pos) == '\t') {
+				pos = str.indexOf('\n', pos) + 1;
+			}
+		}
+
+		if (pos > 0) out.write(str.substring(pos).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Permutes the destination name columns of every line in the block, without any unescaping.
+	 */
+	private static void permuteBlock(byte[] data, int start, int end, boolean tiny2, int dstNsCount, int[] columnMap, OutputStream out) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		List<String> columns = new ArrayList<>();
+
+		for (int pos = start; pos < end; pos = next(data, lineEnd(data, pos))) {
+			int lineEnd = lineEnd(data, pos);
+			int indent = 0;
+
+			while (pos + indent < lineEnd && data[pos + indent] == '\t') {
+				indent++;
+			}
+
+			String line = decode(data, pos + indent, lineEnd);
+			String suffix = "";
+
+			if (line.endsWith("\r")) {
+				line = line.substring(0, line.length() - 1);
+				suffix = "\r";
+			}
+
+			if (lineEnd < data.length) suffix += "\n";
+
+			columns.clear();
+			Collections.addAll(columns, line.split(tiny2 ? "\t" : " ", -1));
+			int prefix;
+			String missing;
+
+			if (tiny2) {
+				prefix = getTiny2DstColumn(indent, columns.get(0));
+				missing = "";
+			} else {
+				prefix = columns.size() - dstNsCount;
+				missing = indent == 2 ? (columns.size() > 1 ? columns.get(1) : null) : columns.get(0);
+				if (indent == 2 && prefix < 2 || prefix < 1) prefix = -1;
+			}
+
+			for (int i = 0; i < indent; i++) {
+				sb.append('\t');
+			}
+
+			if (prefix < 0) { // not a mapping line, e.g. a comment
+				sb.append(line);
+			} else {
+				char separator = tiny2 ? '\t' : ' ';
+
+				for (int i = 0; i < prefix; i++) {
+					if (i > 0) sb.append(separator);
+					sb.append(i < columns.size() ? columns.get(i) : "");
+				}
+
+				for (int srcColumn : columnMap) {
+					int idx = prefix + srcColumn;
+					sb.append(separator).append(srcColumn >= 0 && idx < columns.size() ? columns.get(idx) : missing);
+				}
+			}
+
+			sb.append(suffix);
+		}
+
+		out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return The index of the first destination name column, or -1 if the line doesn't have any.
+	 */
+	private static int getTiny2DstColumn(int indent, String section) {
+		if (indent == 0) {
+			return section.equals("c") ? 2 : -1;
+		}
+
+		switch (section) {
+		case "f":
+		case "m":
+		case "p":
+			return 3;
+		case "v":
+			return 5;
+		default:
+			return -1;
+		}
+	}
+
+	private String rename(String ns) {
+		if (nameMap == null) return ns;
+
+		return nameMap.getOrDefault(ns, ns);
+	}
+
+	private static int lineEnd(byte[] data, int pos) {
+		while (pos < data.length && data[pos] != '\n') {
+			pos++;
+		}
+
+		return pos;
+	}
+
+	private static int next(byte[] data, int lineEnd) {
+		return Math.min(lineEnd + 1, data.length);
+	}
+
+	private static String decode(byte[] data, int start, int end) {
+		return new String(data, start, end - start, StandardCharsets.UTF_8);
+	}
+
+	private static String stripCr(String line) {
+		return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+	}
+
+	private final MappingFormat format;
+	private Map<String, String> nameMap;
+	private List<String> newDstNs;
+	private Predicate<String> classFilter;
+	private Predicate<String> transformSelector;
+	private Function<MappingVisitor, MappingVisitor> transform;
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import net.fabricmc.mappingio.MappingUtil;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.adapter.ForwardingMappingVisitor;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+/**
+ * Writes mapping trees using multiple threads, producing the same output as the regular sequential writers.
+ *
+ * <p>Formats whose writers only depend on the current class for each written block are supported, see
+ * {@link #isSupported(MappingFormat)}. Their class blocks are rendered concurrently into separate buffers with the
+ * regular writer logic, then concatenated in visitation order, while the header is only written once.
+ * Unsupported formats and trees other than {@link MemoryMappingTree} are written sequentially.
+ */
+public final class ParallelTreeWriter {
+	private ParallelTreeWriter() {
+	}
+
+	public static boolean isSupported(MappingFormat format) {
+		return supportedFormats.contains(format);
+	}
+
+	/**
+	 * Writes the tree in its input order, using as many shards as the common fork-join pool has threads.
+	 *
+	 * @see #write(MappingTreeView, Writer, MappingFormat, VisitOrder, int)
+	 */
+	public static void write(MappingTreeView tree, Writer writer, MappingFormat format) throws IOException {
+		write(tree, writer, format, VisitOrder.createByInputOrder(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * Writes the tree to the supplied writer, which is flushed but not closed afterwards.
+	 *
+	 * <p>The tree must not be modified while this method runs.
+	 *
+	 * @param shards The maximum amount of concurrently rendered shards.
+	 */
+	public static void write(MappingTreeView tree, Writer writer, MappingFormat format, VisitOrder order, int shards) throws IOException {
+		if (shards < 1) throw new IllegalArgumentException("invalid shard count: "+shards);
+
+		List<? extends ClassMappingView> classes = new ArrayList<>(order.sortClasses(tree.getClasses()));
+		shards = Math.min(shards, classes.size());
+
+		if (shards <= 1 || !isSupported(format) || !(tree instanceof MemoryMappingTree)) {
+			MappingWriter mappingWriter = MappingWriter.create(new NonClosingWriter(writer), format);
+			if (mappingWriter == null) throw new IllegalArgumentException("no writer available for "+format);
+
+			tree.accept(mappingWriter, order);
+			writer.flush();
+
+			return;
+		}
+
+		MemoryMappingTree memoryTree = (MemoryMappingTree) tree;
+		memoryTree.prepareConcurrentReads();
+
+		List<Shard> shardList = new ArrayList<>(shards);
+		List<Callable<Void>> tasks = new ArrayList<>(shards);
+
+		for (int i = 0; i < shards; i++) {
+			int start = (int) ((long) classes.size() * i / shards);
+			int end = (int) ((long) classes.size() * (i + 1) / shards);
+			// Prime the writer with the previous shard's last class, so its state matches the sequential writer's.
+			boolean primed = start > 0;
+			List<? extends ClassMappingView> shardClasses = classes.subList(primed ? start - 1 : start, end);
+			Shard shard = new Shard(format, primed);
+
+			shardList.add(shard);
+			tasks.add(() -> {
+				memoryTree.accept(shard, shardClasses, order);
+
+				return null;
+			});
+		}
+
+		MappingUtil.invokeAll(tasks);
+
+		Shard first = shardList.get(0);
+		Shard last = shardList.get(shardList.size() - 1);
+
+		for (int pass = 0; pass < first.passes.size(); pass++) {
+			Pass header = first.passes.get(pass);
+			first.buffer.writeTo(writer, header.start, header.contentStart);
+
+			for (Shard shard : shardList) {
+				Pass content = shard.passes.get(pass);
+				shard.buffer.writeTo(writer, content.contentStart, content.contentEnd);
+			}
+
+			Pass footer = last.passes.get(pass);
+			last.buffer.writeTo(writer, footer.contentEnd, footer.end);
+		}
+
+		writer.flush();
+	}
+
+	/**
+	 * Records the buffer regions for the header, content and footer of each visitation pass of a shard.
+	 */
+	private static final class Shard extends ForwardingMappingVisitor {
+		Shard(MappingFormat format, boolean primed) throws IOException {
+			this(new StringBuilderWriter(), format, primed);
+		}
+
+		private Shard(StringBuilderWriter buffer, MappingFormat format, boolean primed) throws IOException {
+			super(MappingWriter.create(buffer, format));
+
+			this.buffer = buffer;
+			this.primed = primed;
+		}
+
+		@Override
+		public boolean visitHeader() throws IOException {
+			currentPass = new Pass(buffer.length());
+			classCount = 0;
+
+			return super.visitHeader();
+		}
+
+		@Override
+		public boolean visitClass(String srcName) throws IOException {
+			if (classCount++ == (primed ? 1 : 0)) {
+				currentPass.contentStart = buffer.length();
+			}
+
+			return super.visitClass(srcName);
+		}
+
+		@Override
+		public boolean visitEnd() throws IOException {
+			int contentEnd = buffer.length();
+			if (currentPass.contentStart < 0) currentPass.contentStart = contentEnd;
+			currentPass.contentEnd = contentEnd;
+
+			boolean ret = super.visitEnd();
+			currentPass.end = buffer.length();
+			passes.add(currentPass);
+
+			return ret;
+		}
+
+		final StringBuilderWriter buffer;
+		final List<Pass> passes = new ArrayList<>();
+		private final boolean primed;
+		private Pass currentPass;
+		private int classCount;
+	}
+
+	private static final class Pass {
+		Pass(int start) {
+			this.start = start;
+		}
+
+		final int start;
+		int contentStart = -1;
+		int contentEnd;
+		int end;
+	}
+
+	/**
+	 * Unsynchronized alternative to {@link java.io.StringWriter}.
+	 */
+	private static final class StringBuilderWriter extends Writer {
+		@Override
+		public void write(int c) {
+			sb.append((char) c);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			sb.append(cbuf, off, len);
+		}
+
+		@Override
+		public void write(String str) {
+			sb.append(str);
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			sb.append(str, off, off + len);
+		}
+
+		@Override
+		public Writer append(CharSequence csq) {
+			sb.append(csq);
+
+			return this;
+		}
+
+		@Override
+		public void flush() { }
+
+		@Override
+		public void close() { }
+
+		int length() {
+			return sb.length();
+		}
+
+		void writeTo(Writer writer, int start, int end) throws IOException {
+			if (start >= end) return;
+
+			if (chunk == null) chunk = new char[CHUNK_SIZE];
+
+			for (int pos = start; pos < end; pos += CHUNK_SIZE) {
+				int len = Math.min(CHUNK_SIZE, end - pos);
+				sb.getChars(pos, pos + len, chunk, 0);
+				writer.write(chunk, 0, len);
+			}
+		}
+
+		private static final int CHUNK_SIZE = 8192;
+
+		private final StringBuilder sb = new StringBuilder();
+		private char[] chunk;
+	}
+
+	private static final class NonClosingWriter extends FilterWriter {
+		NonClosingWriter(Writer out) {
+			super(out);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+
+	private static final Set<MappingFormat> supportedFormats = EnumSet.of(
+			MappingFormat.TINY_2_FILE,
+			MappingFormat.ENIGMA_FILE,
+			MappingFormat.SRG_FILE,
+			MappingFormat.XSRG_FILE,
+			MappingFormat.JAM_FILE,
+			MappingFormat.TSRG_FILE,
+			MappingFormat.TSRG_2_FILE,
+			MappingFormat.PROGUARD_FILE);
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Unsynchronized UTF-8 file writer.
+ *
+ * <p>Encodes directly into a byte buffer that gets written to a {@link FileChannel} once full, avoiding the locking
+ * and charset encoder overhead of {@link java.io.BufferedWriter}. Instances must not be shared between threads.
+ */
+@ApiStatus.Internal
+public final class Utf8FileWriter extends Writer {
+	/**
+	 * Creates a writer truncating or creating the file.
+	 */
+	public Utf8FileWriter(Path file) throws IOException {
+		this(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+	}
+
+	public Utf8FileWriter(Path file, OpenOption... options) throws IOException {
+		this.channel = FileChannel.open(file, options);
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (c < 0x80 && highSurrogate == 0) {
+			if (pos == buffer.length) flushBuffer();
+
+			buffer[pos++] = (byte) c;
+		} else {
+			writeChar((char) c);
+		}
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			char c = cbuf[i];
+
+			if (c < 0x80 && highSurrogate == 0 && pos < buffer.length) {
+				buffer[pos++] = (byte) c;
+			} else {
+				writeChar(c);
+			}
+		}
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		write(str, 0, str.length());
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			char c = str.charAt(i);
+
+			if (c < 0x80 && highSurrogate == 0 && pos < buffer.length) {
+				buffer[pos++] = (byte) c;
+			} else {
+				writeChar(c);
+			}
+		}
+	}
+
+	@Override
+	public Writer append(CharSequence csq) throws IOException {
+		if (csq == null) csq = "null";
+
+		for (int i = 0, end = csq.length(); i < end; i++) {
+			writeChar(csq.charAt(i));
+		}
+
+		return this;
+	}
+
+	@Override
+	public Writer append(char c) throws IOException {
+		writeChar(c);
+
+		return this;
+	}
+
+	private void writeChar(char c) throws IOException {
+		if (buffer.length - pos < 4) flushBuffer();
+
+		if (highSurrogate != 0) {
+			if (!Character.isLowSurrogate(c)) throw new MalformedInputException(1);
+
+			int cp = Character.toCodePoint(highSurrogate, c);
+			highSurrogate = 0;
+			buffer[pos++] = (byte) (0xf0 | cp >>> 18);
+			buffer[pos++] = (byte) (0x80 | cp >>> 12 & 0x3f);
+			buffer[pos++] = (byte) (0x80 | cp >>> 6 & 0x3f);
+			buffer[pos++] = (byte) (0x80 | cp & 0x3f);
+		} else if (c < 0x80) {
+			buffer[pos++] = (byte) c;
+		} else if (c < 0x800) {
+			buffer[pos++] = (byte) (0xc0 | c >>> 6);
+			buffer[pos++] = (byte) (0x80 | c & 0x3f);
+		} else if (Character.isHighSurrogate(c)) { // completed by the next char
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			throw new MalformedInputException(1);
+		} else {
+			buffer[pos++] = (byte) (0xe0 | c >>> 12);
+			buffer[pos++] = (byte) (0x80 | c >>> 6 & 0x3f);
+			buffer[pos++] = (byte) (0x80 | c & 0x3f);
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (pos == 0) return;
+
+		ByteBuffer buf = ByteBuffer.wrap(buffer, 0, pos);
+
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+
+		pos = 0;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (closed) throw new IOException("writer closed");
+
+		flushBuffer();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+
+		closed = true;
+
+		try {
+			if (highSurrogate != 0) throw new MalformedInputException(1);
+
+			flushBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int pos;
+	private char highSurrogate;
+	private boolean closed;
+}
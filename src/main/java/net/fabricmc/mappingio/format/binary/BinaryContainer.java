@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.binary;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.format.MappingFormat;
+
+/**
+ * Parsed header of a {@linkplain MappingFormat#BINARY_FILE binary mapping file}, providing access to its string
+ * table and class records.
+ *
+ * <h2>Layout</h2>
+ * Fixed width integers are big endian, varints are unsigned LEB128 and signed values are zigzag encoded. String
+ * references are indices into the string table, offset by one if they may be absent ({@code 0} meaning null).
+ * <pre>
+ * "MIOB" version:u8
+ * stringCount:u32 stringOffset:u32*(stringCount + 1) utf8Bytes
+ * srcNamespace:string dstNamespaceCount:varint dstNamespace:string*
+ * metadataCount:varint (key:string value:string?)*
+ * classCount:varint (srcName:u32 dstName:u32?* offset:u32)*
+ * (indexSize:u32 classIndex:u32*) for the source and every destination namespace
+ * class records, offsets are relative to the first one
+ * crc32:u32 over all previous bytes
+ * </pre>
+ * The string offsets are relative to the first string's bytes, each string ends where the next one starts, so strings
+ * are accessed directly without scanning the table. The class table rows hold the class names in every namespace for direct access. Each namespace's index lists the
+ * rows of the classes named in it, sorted by the names' UTF-8 bytes (unsigned), for lookups by binary search.
+ *
+ * <p>A class record consists of the source name, the destination names and a sequence of tagged entries up to
+ * {@link #TAG_END}. Method args and vars follow their method, comments the element they belong to.
+ */
+final class BinaryContainer {
+	private BinaryContainer(ByteBuffer buf) {
+		this.buf = buf;
+	}
+
+	/**
+	 * Parses the header, the supplied buffer's position is irrelevant and left untouched.
+	 */
+	static BinaryContainer parse(ByteBuffer buf, boolean verifyChecksum) throws IOException {
+		return parse(buf, verifyChecksum, true);
+	}
+
+	/**
+	 * @param cacheStrings Whether to keep decoded strings, at the cost of a reference per string table entry.
+	 */
+	static BinaryContainer parse(ByteBuffer buf, boolean verifyChecksum, boolean cacheStrings) throws IOException {
+		buf = buf.duplicate();
+		buf.position(0);
+		BinaryContainer ret = new BinaryContainer(buf);
+		ret.cacheStrings = cacheStrings;
+
+		try {
+			ret.parseHeader(verifyChecksum);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("truncated or corrupted binary mapping file", e);
+		}
+
+		return ret;
+	}
+
+	private void parseHeader(boolean verifyChecksum) throws IOException {
+		int size = buf.limit();
+
+		if (size < MAGIC.length + 1 + 4) throw new IOException("invalid binary mapping file: too short");
+
+		for (byte b : MAGIC) {
+			if (buf.get() != b) throw new IOException("invalid binary mapping file: no MIOB header");
+		}
+
+		int version = buf.get() & 0xff;
+		if (version != VERSION) throw new IOException("unsupported binary mapping file version: "+version);
+
+		if (verifyChecksum) {
+			int expected = buf.getInt(size - 4);
+			if (computeChecksum(buf, size - 4) != expected) throw new IOException("binary mapping file checksum mismatch");
+		}
+
+		stringCount = buf.getInt();
+		if (stringCount < 0) throw new IOException("invalid binary mapping file: negative string count");
+
+		stringTableStart = buf.position();
+		stringDataStart = stringTableStart + (stringCount + 1) * 4;
+		strings = cacheStrings ? new String[stringCount] : null;
+		buf.position(stringDataStart + buf.getInt(stringDataStart - 4));
+
+		srcNamespace = getString(readVarInt(buf));
+		int dstNsCount = readVarInt(buf);
+		List<String> dstNamespaces = new ArrayList<>(dstNsCount);
+
+		for (int i = 0; i < dstNsCount; i++) {
+			dstNamespaces.add(getString(readVarInt(buf)));
+		}
+
+		this.dstNamespaces = Collections.unmodifiableList(dstNamespaces);
+
+		int metadataCount = readVarInt(buf);
+		metadataKeys = new String[metadataCount];
+		metadataValues = new String[metadataCount];
+
+		for (int i = 0; i < metadataCount; i++) {
+			metadataKeys[i] = getString(readVarInt(buf));
+			metadataValues[i] = getOptionalString(readVarInt(buf));
+		}
+
+		classCount = readVarInt(buf);
+		classRowSize = (dstNsCount + 2) * 4;
+		classTableStart = buf.position();
+		indexStarts = new int[dstNsCount + 1];
+		int pos = classTableStart + classCount * classRowSize;
+
+		for (int i = 0; i <= dstNsCount; i++) {
+			indexStarts[i] = pos;
+			pos += 4 + buf.getInt(pos) * 4;
+		}
+
+		contentStart = pos;
+		contentEnd = size - 4;
+
+		if (contentStart > contentEnd) throw new IOException("invalid binary mapping file: truncated class table");
+	}
+
+	String getSrcNamespace() {
+		return srcNamespace;
+	}
+
+	List<String> getDstNamespaces() {
+		return dstNamespaces;
+	}
+
+	int getMetadataCount() {
+		return metadataKeys.length;
+	}
+
+	String getMetadataKey(int idx) {
+		return metadataKeys[idx];
+	}
+
+	@Nullable
+	String getMetadataValue(int idx) {
+		return metadataValues[idx];
+	}
+
+	int getClassCount() {
+		return classCount;
+	}
+
+	/**
+	 * @return The class' name string reference in the namespace, plus one for destination namespaces.
+	 */
+	int getClassNameRef(int classIdx, int namespace) {
+		return buf.getInt(classTableStart + classIdx * classRowSize + (namespace + 1) * 4);
+	}
+
+	/**
+	 * @return The absolute position of the class' record.
+	 */
+	int getClassPosition(int classIdx) {
+		return contentStart + buf.getInt(classTableStart + classIdx * classRowSize + classRowSize - 4);
+	}
+
+	/**
+	 * Looks up a class by its name in the supplied namespace, without decoding any names.
+	 *
+	 * @return The class index, or -1 if absent.
+	 */
+	int findClass(byte[] utf8Name, int namespace) {
+		int indexStart = indexStarts[namespace + 1];
+		int low = 0;
+		int high = buf.getInt(indexStart) - 1;
+		int refOffset = namespace < 0 ? 0 : 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int classIdx = buf.getInt(indexStart + 4 + mid * 4);
+			int cmp = compareString(getClassNameRef(classIdx, namespace) - refOffset, utf8Name);
+
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return classIdx;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Compares a string table entry's UTF-8 bytes with the supplied ones, unsigned and lexicographically.
+	 */
+	private int compareString(int idx, byte[] utf8) {
+		int pos = getStringStart(idx);
+		int len = getStringStart(idx + 1) - pos;
+		int common = Math.min(len, utf8.length);
+
+		for (int i = 0; i < common; i++) {
+			int cmp = (buf.get(pos + i) & 0xff) - (utf8[i] & 0xff);
+			if (cmp != 0) return cmp;
+		}
+
+		return len - utf8.length;
+	}
+
+	int getContentEnd() {
+		return contentEnd;
+	}
+
+	/**
+	 * @return A new view of the underlying buffer with independent position.
+	 */
+	ByteBuffer newReader(int position) {
+		ByteBuffer ret = buf.duplicate();
+		ret.position(position);
+
+		return ret;
+	}
+
+	String getString(int idx) {
+		String ret = cacheStrings ? strings[idx] : null;
+
+		if (ret == null) {
+			if (idx < 0 || idx >= stringCount) throw new IndexOutOfBoundsException("invalid string index: "+idx);
+
+			int pos = getStringStart(idx);
+			int len = getStringStart(idx + 1) - pos;
+
+			if (buf.hasArray()) {
+				ret = new String(buf.array(), buf.arrayOffset() + pos, len, StandardCharsets.UTF_8);
+			} else {
+				byte[] bytes = new byte[len];
+				newReader(pos).get(bytes);
+				ret = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			if (cacheStrings) strings[idx] = ret;
+		}
+
+		return ret;
+	}
+
+	/**
+	 * @param idx The string index, or the string count for the end of the last string.
+	 * @return The absolute position of the string's UTF-8 bytes.
+	 */
+	private int getStringStart(int idx) {
+		return stringDataStart + buf.getInt(stringTableStart + idx * 4);
+	}
+
+	/**
+	 * @param ref The string index plus one, or 0 for none.
+	 */
+	@Nullable
+	String getOptionalString(int ref) {
+		return ref == 0 ? null : getString(ref - 1);
+	}
+
+	static int readVarInt(ByteBuffer buf) {
+		int ret = 0;
+		int shift = 0;
+		int b;
+
+		do {
+			b = buf.get();
+			ret |= (b & 0x7f) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return ret;
+	}
+
+	static int readSignedVarInt(ByteBuffer buf) {
+		int v = readVarInt(buf);
+
+		return v >>> 1 ^ -(v & 1);
+	}
+
+	static int computeChecksum(ByteBuffer buf, int end) {
+		CRC32 crc = new CRC32();
+
+		if (buf.hasArray()) {
+			crc.update(buf.array(), buf.arrayOffset(), end);
+		} else {
+			ByteBuffer in = buf.duplicate();
+			in.position(0);
+			byte[] chunk = new byte[8192];
+
+			for (int pos = 0; pos < end; pos += chunk.length) {
+				int len = Math.min(chunk.length, end - pos);
+				in.get(chunk, 0, len);
+				crc.update(chunk, 0, len);
+			}
+		}
+
+		return (int) crc.getValue();
+	}
+
+	static final byte[] MAGIC = { 'M', 'I', 'O', 'B' };
+	static final int VERSION = 2;
+
+	static final int TAG_END = 0;
+	static final int TAG_FIELD = 1;
+	static final int TAG_METHOD = 2;
+	static final int TAG_METHOD_ARG = 3;
+	static final int TAG_METHOD_VAR = 4;
+	static final int TAG_COMMENT = 5;
+
+	private final ByteBuffer buf;
+	private int stringCount;
+	private int stringTableStart;
+	private int stringDataStart;
+	private String[] strings;
+	private String srcNamespace;
+	private List<String> dstNamespaces;
+	private String[] metadataKeys;
+	private String[] metadataValues;
+	private boolean cacheStrings;
+	private int classCount;
+	private int classRowSize;
+	private int classTableStart;
+	private int[] indexStarts;
+	private int contentStart;
+	private int contentEnd;
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.binary;
+
+import static net.fabricmc.mappingio.format.binary.BinaryContainer.readSignedVarInt;
+import static net.fabricmc.mappingio.format.binary.BinaryContainer.readVarInt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.format.MappingFormat;
+
+/**
+ * {@linkplain MappingFormat#BINARY_FILE Binary mapping file} reader.
+ *
+ * <p>The whole file is loaded into memory and its checksum verified before visiting. Repeated visit passes are
+ * supported regardless of {@link net.fabricmc.mappingio.MappingFlag#NEEDS_MULTIPLE_PASSES}.
+ */
+public final class BinaryFileReader {
+	private BinaryFileReader() {
+	}
+
+	public static List<String> getNamespaces(Path file) throws IOException {
+		return getNamespaces(BinaryContainer.parse(ByteBuffer.wrap(Files.readAllBytes(file)), false));
+	}
+
+	public static List<String> getNamespaces(InputStream in) throws IOException {
+		return getNamespaces(BinaryContainer.parse(ByteBuffer.wrap(readAllBytes(in)), false));
+	}
+
+	private static List<String> getNamespaces(BinaryContainer container) {
+		List<String> ret = new ArrayList<>(container.getDstNamespaces().size() + 1);
+		ret.add(container.getSrcNamespace());
+		ret.addAll(container.getDstNamespaces());
+
+		return ret;
+	}
+
+	public static void read(Path file, MappingVisitor visitor) throws IOException {
+		read(ByteBuffer.wrap(Files.readAllBytes(file)), visitor);
+	}
+
+	/**
+	 * Reads the stream's remaining content, the stream isn't closed.
+	 */
+	public static void read(InputStream in, MappingVisitor visitor) throws IOException {
+		read(ByteBuffer.wrap(readAllBytes(in)), visitor);
+	}
+
+	static void read(ByteBuffer data, MappingVisitor visitor) throws IOException {
+		BinaryContainer container = BinaryContainer.parse(data, true);
+
+		for (;;) {
+			if (visitor.visitHeader()) {
+				visitor.visitNamespaces(container.getSrcNamespace(), container.getDstNamespaces());
+
+				for (int i = 0; i < container.getMetadataCount(); i++) {
+					visitor.visitMetadata(container.getMetadataKey(i), container.getMetadataValue(i));
+				}
+			}
+
+			if (visitor.visitContent()) {
+				try {
+					for (int i = 0; i < container.getClassCount(); i++) {
+						readClass(container, container.newReader(container.getClassPosition(i)), visitor);
+					}
+				} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+					throw new IOException("corrupted binary mapping file", e);
+				}
+			}
+
+			if (visitor.visitEnd()) break;
+		}
+	}
+
+	/**
+	 * Visits a single class record, tracking which elements the visitor accepted content for.
+	 */
+	static void readClass(BinaryContainer container, ByteBuffer in, MappingVisitor visitor) throws IOException {
+		int dstNsCount = container.getDstNamespaces().size();
+		String srcName = container.getString(readVarInt(in));
+
+		boolean classVisited = visitor.visitClass(srcName);
+		boolean classOpen = readElement(container, in, MappedElementKind.CLASS, dstNsCount, classVisited, visitor);
+		boolean methodOpen = false;
+		MappedElementKind lastKind = MappedElementKind.CLASS;
+		boolean lastOpen = classOpen;
+
+		for (;;) {
+			int tag = in.get();
+
+			switch (tag) {
+			case BinaryContainer.TAG_END:
+				return;
+			case BinaryContainer.TAG_FIELD:
+			case BinaryContainer.TAG_METHOD: {
+				String memberSrcName = container.getString(readVarInt(in));
+				String memberSrcDesc = container.getOptionalString(readVarInt(in));
+				boolean visited;
+
+				if (tag == BinaryContainer.TAG_FIELD) {
+					lastKind = MappedElementKind.FIELD;
+					visited = classOpen && visitor.visitField(memberSrcName, memberSrcDesc);
+				} else {
+					lastKind = MappedElementKind.METHOD;
+					visited = classOpen && visitor.visitMethod(memberSrcName, memberSrcDesc);
+				}
+
+				lastOpen = readElement(container, in, lastKind, dstNsCount, visited, visitor);
+				methodOpen = lastOpen && tag == BinaryContainer.TAG_METHOD;
+				break;
+			}
+			case BinaryContainer.TAG_METHOD_ARG: {
+				int argPosition = readSignedVarInt(in);
+				int lvIndex = readSignedVarInt(in);
+				String argSrcName = container.getOptionalString(readVarInt(in));
+				lastKind = MappedElementKind.METHOD_ARG;
+				boolean visited = methodOpen && visitor.visitMethodArg(argPosition, lvIndex, argSrcName);
+				lastOpen = readElement(container, in, lastKind, dstNsCount, visited, visitor);
+				break;
+			}
+			case BinaryContainer.TAG_METHOD_VAR: {
+				int lvtRowIndex = readSignedVarInt(in);
+				int lvIndex = readSignedVarInt(in);
+				int startOpIdx = readSignedVarInt(in);
+				int endOpIdx = readSignedVarInt(in);
+				String varSrcName = container.getOptionalString(readVarInt(in));
+				lastKind = MappedElementKind.METHOD_VAR;
+				boolean visited = methodOpen && visitor.visitMethodVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, varSrcName);
+				lastOpen = readElement(container, in, lastKind, dstNsCount, visited, visitor);
+				break;
+			}
+			case BinaryContainer.TAG_COMMENT: {
+				String comment = container.getString(readVarInt(in));
+				if (lastOpen) visitor.visitComment(lastKind, comment);
+				break;
+			}
+			default:
+				throw new IOException("invalid binary mapping file: unknown tag "+tag);
+			}
+		}
+	}
+
+	/**
+	 * Reads the element's destination names, forwarding them if the element is visited.
+	 *
+	 * @return Whether the element's content is to be visited.
+	 */
+	private static boolean readElement(BinaryContainer container, ByteBuffer in, MappedElementKind kind, int dstNsCount, boolean visited, MappingVisitor visitor) throws IOException {
+		for (int ns = 0; ns < dstNsCount; ns++) {
+			int ref = readVarInt(in);
+
+			if (visited && ref != 0) {
+				visitor.visitDstName(kind, ns, container.getString(ref - 1));
+			}
+		}
+
+		return visited && visitor.visitElementContent(kind);
+	}
+
+	private static byte[] readAllBytes(InputStream in) throws IOException {
+		ByteArrayOutputStream ret = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		int len;
+
+		while ((len = in.read(chunk)) >= 0) {
+			ret.write(chunk, 0, len);
+		}
+
+		return ret.toByteArray();
+	}
+}
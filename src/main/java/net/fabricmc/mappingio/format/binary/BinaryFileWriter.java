@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingFlag;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.format.MappingFormat;
+
+/**
+ * {@linkplain MappingFormat#BINARY_FILE Binary mapping file} writer.
+ *
+ * <p>The string table has to precede the class records, so all content is buffered in its encoded form until
+ * {@link #visitEnd()}, which writes the file and closes the stream.
+ */
+public final class BinaryFileWriter implements MappingWriter {
+	public BinaryFileWriter(OutputStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	@Override
+	public Set<MappingFlag> getFlags() {
+		return flags;
+	}
+
+	@Override
+	public void visitNamespaces(String srcNamespace, List<String> dstNamespaces) {
+		this.srcNamespace = srcNamespace;
+		this.dstNamespaces = new ArrayList<>(dstNamespaces);
+		dstNames = new String[dstNamespaces.size()];
+	}
+
+	@Override
+	public void visitMetadata(String key, @Nullable String value) {
+		metadata.add(new String[] { key, value });
+	}
+
+	@Override
+	public boolean visitClass(String srcName) {
+		if (classOpen) content.write(BinaryContainer.TAG_END);
+
+		classNames.add(intern(srcName));
+		classDstNames.add(new int[dstNames.length]);
+		classOffsets.add(content.size());
+		classOpen = true;
+		this.srcName = srcName;
+
+		return true;
+	}
+
+	@Override
+	public boolean visitField(String srcName, @Nullable String srcDesc) {
+		this.srcName = srcName;
+		this.srcDesc = srcDesc;
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethod(String srcName, @Nullable String srcDesc) {
+		this.srcName = srcName;
+		this.srcDesc = srcDesc;
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) {
+		this.argPosition = argPosition;
+		this.lvIndex = lvIndex;
+		this.srcName = srcName;
+
+		return true;
+	}
+
+	@Override
+	public boolean visitMethodVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) {
+		this.lvtRowIndex = lvtRowIndex;
+		this.lvIndex = lvIndex;
+		this.startOpIdx = startOpIdx;
+		this.endOpIdx = endOpIdx;
+		this.srcName = srcName;
+
+		return true;
+	}
+
+	@Override
+	public void visitDstName(MappedElementKind targetKind, int namespace, String name) {
+		dstNames[namespace] = name;
+	}
+
+	@Override
+	public boolean visitElementContent(MappedElementKind targetKind) {
+		switch (targetKind) {
+		case CLASS:
+			content.writeVarInt(intern(srcName));
+			int[] classDstRefs = classDstNames.get(classDstNames.size() - 1);
+
+			for (int i = 0; i < dstNames.length; i++) {
+				classDstRefs[i] = internOptional(dstNames[i]);
+			}
+
+			break;
+		case FIELD:
+		case METHOD:
+			content.write(targetKind == MappedElementKind.FIELD ? BinaryContainer.TAG_FIELD : BinaryContainer.TAG_METHOD);
+			content.writeVarInt(intern(srcName));
+			content.writeVarInt(internOptional(srcDesc));
+			break;
+		case METHOD_ARG:
+			content.write(BinaryContainer.TAG_METHOD_ARG);
+			content.writeSignedVarInt(argPosition);
+			content.writeSignedVarInt(lvIndex);
+			content.writeVarInt(internOptional(srcName));
+			break;
+		case METHOD_VAR:
+			content.write(BinaryContainer.TAG_METHOD_VAR);
+			content.writeSignedVarInt(lvtRowIndex);
+			content.writeSignedVarInt(lvIndex);
+			content.writeSignedVarInt(startOpIdx);
+			content.writeSignedVarInt(endOpIdx);
+			content.writeVarInt(internOptional(srcName));
+			break;
+		}
+
+		for (String dstName : dstNames) {
+			content.writeVarInt(internOptional(dstName));
+		}
+
+		srcName = srcDesc = null;
+		Arrays.fill(dstNames, null);
+
+		return true;
+	}
+
+	@Override
+	public void visitComment(MappedElementKind targetKind, String comment) {
+		content.write(BinaryContainer.TAG_COMMENT);
+		content.writeVarInt(intern(comment));
+	}
+
+	@Override
+	public boolean visitEnd() throws IOException {
+		if (classOpen) {
+			content.write(BinaryContainer.TAG_END);
+			classOpen = false;
+		}
+
+		// intern header strings before writing the table
+		int srcNsRef = intern(srcNamespace);
+		int[] dstNsRefs = new int[dstNamespaces.size()];
+
+		for (int i = 0; i < dstNsRefs.length; i++) {
+			dstNsRefs[i] = intern(dstNamespaces.get(i));
+		}
+
+		int[] metadataRefs = new int[metadata.size() * 2];
+
+		for (int i = 0; i < metadata.size(); i++) {
+			metadataRefs[i * 2] = intern(metadata.get(i)[0]);
+			metadataRefs[i * 2 + 1] = internOptional(metadata.get(i)[1]);
+		}
+
+		ByteSink header = new ByteSink();
+		header.write(BinaryContainer.MAGIC, 0, BinaryContainer.MAGIC.length);
+		header.write(BinaryContainer.VERSION);
+		header.writeInt(stringBytes.size());
+		int stringOffset = 0;
+
+		for (byte[] bytes : stringBytes) {
+			header.writeInt(stringOffset);
+			stringOffset += bytes.length;
+		}
+
+		header.writeInt(stringOffset);
+
+		for (byte[] bytes : stringBytes) {
+			header.write(bytes, 0, bytes.length);
+		}
+
+		header.writeVarInt(srcNsRef);
+		header.writeVarInt(dstNsRefs.length);
+
+		for (int ref : dstNsRefs) {
+			header.writeVarInt(ref);
+		}
+
+		header.writeVarInt(metadata.size());
+
+		for (int ref : metadataRefs) {
+			header.writeVarInt(ref);
+		}
+
+		header.writeVarInt(classNames.size());
+
+		for (int i = 0; i < classNames.size(); i++) {
+			header.writeInt(classNames.get(i));
+
+			for (int ref : classDstNames.get(i)) {
+				header.writeInt(ref);
+			}
+
+			header.writeInt(classOffsets.get(i));
+		}
+
+		for (int ns = -1; ns < dstNsRefs.length; ns++) {
+			writeClassIndex(header, ns);
+		}
+
+		CRC32 crc = new CRC32();
+
+		try (OutputStream os = new CheckedOutputStream(new BufferedOutputStream(out), crc)) {
+			header.writeTo(os);
+			content.writeTo(os);
+			os.flush();
+
+			int checksum = (int) crc.getValue();
+			out.write(new byte[] { (byte) (checksum >>> 24), (byte) (checksum >>> 16), (byte) (checksum >>> 8), (byte) checksum });
+		}
+
+		return true;
+	}
+
+	/**
+	 * Writes the class rows named in the namespace, sorted by their UTF-8 names.
+	 */
+	private void writeClassIndex(ByteSink out, int namespace) {
+		List<Integer> rows = new ArrayList<>(classNames.size());
+
+		for (int i = 0; i < classNames.size(); i++) {
+			if (getClassNameString(i, namespace) >= 0) rows.add(i);
+		}
+
+		rows.sort((a, b) -> compareUtf8(stringBytes.get(getClassNameString(a, namespace)), stringBytes.get(getClassNameString(b, namespace))));
+		out.writeInt(rows.size());
+
+		for (int row : rows) {
+			out.writeInt(row);
+		}
+	}
+
+	/**
+	 * @return The string index of the class' name in the namespace, or -1 if absent.
+	 */
+	private int getClassNameString(int classIdx, int namespace) {
+		return namespace < 0 ? classNames.get(classIdx) : classDstNames.get(classIdx)[namespace] - 1;
+	}
+
+	private static int compareUtf8(byte[] a, byte[] b) {
+		int common = Math.min(a.length, b.length);
+
+		for (int i = 0; i < common; i++) {
+			int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+			if (cmp != 0) return cmp;
+		}
+
+		return a.length - b.length;
+	}
+
+	private int intern(String str) {
+		Integer ret = stringIndices.get(str);
+
+		if (ret == null) {
+			ret = stringBytes.size();
+			stringBytes.add(str.getBytes(StandardCharsets.UTF_8));
+			stringIndices.put(str, ret);
+		}
+
+		return ret;
+	}
+
+	private int internOptional(@Nullable String str) {
+		return str == null ? 0 : intern(str) + 1;
+	}
+
+	/**
+	 * Growable byte array with varint support.
+	 */
+	private static final class ByteSink {
+		void write(int b) {
+			ensureCapacity(1);
+			data[size++] = (byte) b;
+		}
+
+		void write(byte[] b, int off, int len) {
+			ensureCapacity(len);
+			System.arraycopy(b, off, data, size, len);
+			size += len;
+		}
+
+		void writeInt(int v) {
+			ensureCapacity(4);
+			data[size++] = (byte) (v >>> 24);
+			data[size++] = (byte) (v >>> 16);
+			data[size++] = (byte) (v >>> 8);
+			data[size++] = (byte) v;
+		}
+
+		void writeVarInt(int v) {
+			ensureCapacity(5);
+
+			while ((v & ~0x7f) != 0) {
+				data[size++] = (byte) (v & 0x7f | 0x80);
+				v >>>= 7;
+			}
+
+			data[size++] = (byte) v;
+		}
+
+		void writeSignedVarInt(int v) {
+			writeVarInt(v << 1 ^ v >> 31);
+		}
+
+		int size() {
+			return size;
+		}
+
+		void writeTo(OutputStream os) throws IOException {
+			os.write(data, 0, size);
+		}
+
+		private void ensureCapacity(int extra) {
+			if (size + extra > data.length) {
+				data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+			}
+		}
+
+		private byte[] data = new byte[1024];
+		private int size;
+	}
+
+	private static final Set<MappingFlag> flags = EnumSet.of(
+			MappingFlag.NEEDS_ELEMENT_UNIQUENESS,
+			MappingFlag.NEEDS_SRC_FIELD_DESC,
+			MappingFlag.NEEDS_SRC_METHOD_DESC);
+
+	private final OutputStream out;
+	private final ByteSink content = new ByteSink();
+	private final List<byte[]> stringBytes = new ArrayList<>();
+	private final Map<String, Integer> stringIndices = new HashMap<>();
+	private final List<String[]> metadata = new ArrayList<>();
+	private final List<Integer> classNames = new ArrayList<>();
+	private final List<int[]> classDstNames = new ArrayList<>();
+	private final List<Integer> classOffsets = new ArrayList<>();
+	private String srcNamespace;
+	private List<String> dstNamespaces;
+	private boolean classOpen;
+	private String srcName;
+	private String srcDesc;
+	private int argPosition;
+	private int lvIndex;
+	private int lvtRowIndex;
+	private int startOpIdx;
+	private int endOpIdx;
+	private String[] dstNames;
+}
@@ -0,0 +1,837 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.binary;
+
+import static net.fabricmc.mappingio.format.binary.BinaryContainer.readSignedVarInt;
+import static net.fabricmc.mappingio.format.binary.BinaryContainer.readVarInt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingFlag;
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+/**
+ * Read-only {@link MappingTreeView} operating directly on a memory-mapped {@linkplain MappingFormat#BINARY_FILE
+ * binary mapping file}.
+ *
+ * <p>Opening the view only parses the file's header, no class or member data is materialized. Class lookups by name
+ * binary search the file's per-namespace indices on the raw UTF-8 bytes, a class' members are indexed on first access
+ * and names are decoded when requested. The mapping is shared with every other process mapping the same file and
+ * released once the view becomes unreachable.
+ *
+ * <p>The view is safe for concurrent use by multiple threads.
+ */
+public final class BinaryMappingTreeView implements MappingTreeView {
+	private BinaryMappingTreeView(BinaryContainer container) {
+		this.container = container;
+		this.dstNsCount = container.getDstNamespaces().size();
+		this.classes = new AtomicReferenceArray<>(container.getClassCount());
+
+		List<MetadataView> metadata = new ArrayList<>(container.getMetadataCount());
+
+		for (int i = 0; i < container.getMetadataCount(); i++) {
+			metadata.add(new MetadataView(container.getMetadataKey(i), container.getMetadataValue(i)));
+		}
+
+		this.metadata = Collections.unmodifiableList(metadata);
+	}
+
+	/**
+	 * Maps the file, verifies its checksum and caches decoded names.
+	 */
+	public static BinaryMappingTreeView open(Path file) throws IOException {
+		return open(file, true, true);
+	}
+
+	/**
+	 * @param verifyChecksum Whether to verify the file's checksum, which requires reading it in full.
+	 * @param cacheNames Whether to keep decoded names for repeated access, at the cost of a reference per string.
+	 */
+	public static BinaryMappingTreeView open(Path file, boolean verifyChecksum, boolean cacheNames) throws IOException {
+		ByteBuffer buf;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) throw new IOException("binary mapping file too large: "+file);
+
+			buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size); // stays valid after closing the channel
+		}
+
+		return new BinaryMappingTreeView(BinaryContainer.parse(buf, verifyChecksum, cacheNames));
+	}
+
+	@Override
+	public String getSrcNamespace() {
+		return container.getSrcNamespace();
+	}
+
+	@Override
+	public List<String> getDstNamespaces() {
+		return container.getDstNamespaces();
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata() {
+		return metadata;
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata(String key) {
+		List<MetadataView> ret = new ArrayList<>();
+
+		for (MetadataView entry : metadata) {
+			if (entry.key.equals(key)) ret.add(entry);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public List<? extends ClassMappingView> getClasses() {
+		return new AbstractList<ClassView>() {
+			@Override
+			public ClassView get(int index) {
+				return getClassView(index);
+			}
+
+			@Override
+			public int size() {
+				return classes.length();
+			}
+		};
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String srcName) {
+		return getClass(srcName, SRC_NAMESPACE_ID);
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String name, int namespace) {
+		if (namespace >= dstNsCount) throw new IndexOutOfBoundsException("invalid namespace: "+namespace);
+
+		int idx = container.findClass(name.getBytes(StandardCharsets.UTF_8), Math.max(namespace, SRC_NAMESPACE_ID));
+
+		return idx >= 0 ? getClassView(idx) : null;
+	}
+
+	private ClassView getClassView(int idx) {
+		ClassView ret = classes.get(idx);
+		if (ret != null) return ret;
+
+		classes.compareAndSet(idx, null, new ClassView(this, idx));
+
+		return classes.get(idx);
+	}
+
+	@Override
+	public void accept(MappingVisitor visitor, VisitOrder order) throws IOException {
+		do {
+			if (visitor.visitHeader()) {
+				visitor.visitNamespaces(getSrcNamespace(), getDstNamespaces());
+
+				Collection<MetadataView> metadataToVisit = metadata;
+
+				if (visitor.getFlags().contains(MappingFlag.NEEDS_METADATA_UNIQUENESS)) {
+					Deque<MetadataView> uniqueMetadata = new ArrayDeque<>();
+					Set<String> addedKeys = new HashSet<>();
+
+					// Iterate last-to-first to construct a list of each key's latest occurrence.
+					for (int i = metadata.size() - 1; i >= 0; i--) {
+						MetadataView entry = metadata.get(i);
+
+						if (addedKeys.add(entry.key)) uniqueMetadata.addFirst(entry);
+					}
+
+					metadataToVisit = uniqueMetadata;
+				}
+
+				for (MetadataView entry : metadataToVisit) {
+					visitor.visitMetadata(entry.key, entry.value);
+				}
+			}
+
+			if (visitor.visitContent()) {
+				Set<MappingFlag> flags = visitor.getFlags();
+				boolean supplyFieldDstDescs = flags.contains(MappingFlag.NEEDS_DST_FIELD_DESC);
+				boolean supplyMethodDstDescs = flags.contains(MappingFlag.NEEDS_DST_METHOD_DESC);
+
+				for (ClassMappingView cls : order.sortClasses(getClasses())) {
+					((ClassView) cls).accept(visitor, order, supplyFieldDstDescs, supplyMethodDstDescs);
+				}
+			}
+		} while (!visitor.visitEnd());
+	}
+
+	private static final class MetadataView implements MetadataEntryView {
+		MetadataView(String key, @Nullable String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public String getKey() {
+			return key;
+		}
+
+		@Override
+		@Nullable
+		public String getValue() {
+			return value;
+		}
+
+		final String key;
+		final String value;
+	}
+
+	private abstract static class ElementView implements ElementMappingView {
+		ElementView(BinaryMappingTreeView tree) {
+			this.tree = tree;
+		}
+
+		abstract MappedElementKind getKind();
+
+		/**
+		 * @return The destination name's string reference, see {@link BinaryContainer#getOptionalString}.
+		 */
+		abstract int getDstNameRef(int namespace);
+
+		@Override
+		public BinaryMappingTreeView getTree() {
+			return tree;
+		}
+
+		@Override
+		@Nullable
+		public String getDstName(int namespace) {
+			return tree.container.getOptionalString(getDstNameRef(namespace));
+		}
+
+		@Override
+		@Nullable
+		public String getComment() {
+			return tree.container.getOptionalString(commentRef);
+		}
+
+		final boolean acceptElement(MappingVisitor visitor, @Nullable String[] dstDescs, @Nullable String comment) throws IOException {
+			MappedElementKind kind = getKind();
+
+			for (int i = 0; i < tree.dstNsCount; i++) {
+				String dstName = getDstName(i);
+
+				if (dstName != null) visitor.visitDstName(kind, i, dstName);
+			}
+
+			if (dstDescs != null) {
+				for (int i = 0; i < dstDescs.length; i++) {
+					String dstDesc = dstDescs[i];
+
+					if (dstDesc != null) visitor.visitDstDesc(kind, i, dstDesc);
+				}
+			}
+
+			if (!visitor.visitElementContent(kind)) {
+				return false;
+			}
+
+			if (comment != null) visitor.visitComment(kind, comment);
+
+			return true;
+		}
+
+		protected final BinaryMappingTreeView tree;
+		int commentRef;
+	}
+
+	/**
+	 * Element whose names are stored in its owning class' record.
+	 */
+	private abstract static class RecordElementView extends ElementView {
+		RecordElementView(BinaryMappingTreeView tree, int srcNameRef, int[] dstNameRefs) {
+			super(tree);
+
+			this.srcNameRef = srcNameRef;
+			this.dstNameRefs = dstNameRefs;
+		}
+
+		@Override
+		@Nullable
+		public String getSrcName() {
+			return tree.container.getOptionalString(srcNameRef);
+		}
+
+		@Override
+		int getDstNameRef(int namespace) {
+			return dstNameRefs[namespace];
+		}
+
+		private final int srcNameRef;
+		private final int[] dstNameRefs;
+	}
+
+	private static final class ClassView extends ElementView implements ClassMappingView {
+		ClassView(BinaryMappingTreeView tree, int index) {
+			super(tree);
+
+			this.index = index;
+		}
+
+		@Override
+		MappedElementKind getKind() {
+			return MappedElementKind.CLASS;
+		}
+
+		@Override
+		public String getSrcName() {
+			return tree.container.getString(tree.container.getClassNameRef(index, SRC_NAMESPACE_ID));
+		}
+
+		@Override
+		int getDstNameRef(int namespace) {
+			return tree.container.getClassNameRef(index, namespace);
+		}
+
+		@Override
+		@Nullable
+		public String getComment() {
+			return tree.container.getOptionalString(getContent().commentRef);
+		}
+
+		@Override
+		public List<FieldView> getFields() {
+			return getContent().fields;
+		}
+
+		@Override
+		@Nullable
+		public FieldView getField(String srcName, @Nullable String srcDesc) {
+			return getMember(getFields(), srcName, srcDesc);
+		}
+
+		@Override
+		public List<MethodView> getMethods() {
+			return getContent().methods;
+		}
+
+		@Override
+		@Nullable
+		public MethodView getMethod(String srcName, @Nullable String srcDesc) {
+			return getMember(getMethods(), srcName, srcDesc);
+		}
+
+		/**
+		 * Finds a member by name and descriptor, preferring exact matches over ones lacking a descriptor on either
+		 * side or matching a parameter-only descriptor.
+		 */
+		@Nullable
+		private static <T extends MemberView> T getMember(List<T> members, String srcName, @Nullable String srcDesc) {
+			T missingDescMatch = null;
+			T partialMatch = null;
+
+			for (T member : members) {
+				if (!srcName.equals(member.getSrcName())) continue;
+
+				String desc = member.getSrcDesc();
+
+				if (Objects.equals(desc, srcDesc)) {
+					return member;
+				} else if (desc == null) {
+					if (missingDescMatch == null) missingDescMatch = member;
+				} else if (partialMatch == null && (srcDesc == null || srcDesc.endsWith(")") && desc.startsWith(srcDesc))) {
+					partialMatch = member;
+				}
+			}
+
+			return missingDescMatch != null ? missingDescMatch : partialMatch;
+		}
+
+		private ClassContent getContent() {
+			ClassContent ret = content;
+
+			if (ret == null) {
+				content = ret = parseContent();
+			}
+
+			return ret;
+		}
+
+		private ClassContent parseContent() {
+			BinaryContainer container = tree.container;
+			ByteBuffer in = container.newReader(container.getClassPosition(index));
+			ClassContent ret = new ClassContent();
+			List<FieldView> fields = new ArrayList<>();
+			List<MethodView> methods = new ArrayList<>();
+			MethodView method = null;
+			ElementView last = null;
+
+			try {
+				for (int i = 0; i <= tree.dstNsCount; i++) { // names, already present in the class table
+					readVarInt(in);
+				}
+
+				for (;;) {
+					int tag = in.get();
+
+					switch (tag) {
+					case BinaryContainer.TAG_END:
+						ret.fields = fields.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(fields);
+						ret.methods = methods.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(methods);
+
+						for (MethodView m : methods) {
+							m.args = m.args.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(m.args);
+							m.vars = m.vars.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(m.vars);
+						}
+
+						return ret;
+					case BinaryContainer.TAG_FIELD: {
+						int srcNameRef = readVarInt(in) + 1;
+						int srcDescRef = readVarInt(in);
+						FieldView field = new FieldView(this, srcNameRef, srcDescRef, readDstNameRefs(in));
+						fields.add(field);
+						last = field;
+						break;
+					}
+					case BinaryContainer.TAG_METHOD: {
+						int srcNameRef = readVarInt(in) + 1;
+						int srcDescRef = readVarInt(in);
+						method = new MethodView(this, srcNameRef, srcDescRef, readDstNameRefs(in));
+						methods.add(method);
+						last = method;
+						break;
+					}
+					case BinaryContainer.TAG_METHOD_ARG: {
+						if (method == null) throw new IOException("invalid binary mapping file: method arg outside of a method");
+
+						int argPosition = readSignedVarInt(in);
+						int lvIndex = readSignedVarInt(in);
+						int srcNameRef = readVarInt(in);
+						ArgView arg = new ArgView(method, argPosition, lvIndex, srcNameRef, readDstNameRefs(in));
+						method.args.add(arg);
+						last = arg;
+						break;
+					}
+					case BinaryContainer.TAG_METHOD_VAR: {
+						if (method == null) throw new IOException("invalid binary mapping file: method var outside of a method");
+
+						int lvtRowIndex = readSignedVarInt(in);
+						int lvIndex = readSignedVarInt(in);
+						int startOpIdx = readSignedVarInt(in);
+						int endOpIdx = readSignedVarInt(in);
+						int srcNameRef = readVarInt(in);
+						VarView var = new VarView(method, lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcNameRef, readDstNameRefs(in));
+						method.vars.add(var);
+						last = var;
+						break;
+					}
+					case BinaryContainer.TAG_COMMENT: {
+						int commentRef = readVarInt(in) + 1;
+
+						if (last != null) {
+							last.commentRef = commentRef;
+						} else {
+							ret.commentRef = commentRef;
+						}
+
+						break;
+					}
+					default:
+						throw new IOException("invalid binary mapping file: unknown tag "+tag);
+					}
+				}
+			} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+				throw new UncheckedIOException(new IOException("corrupted binary mapping file", e));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private int[] readDstNameRefs(ByteBuffer in) {
+			int[] ret = new int[tree.dstNsCount];
+
+			for (int i = 0; i < ret.length; i++) {
+				ret[i] = readVarInt(in);
+			}
+
+			return ret;
+		}
+
+		void accept(MappingVisitor visitor, VisitOrder order, boolean supplyFieldDstDescs, boolean supplyMethodDstDescs) throws IOException {
+			if (!visitor.visitClass(getSrcName())) return;
+
+			// avoid retaining the members of classes that were only visited
+			ClassContent content = this.content;
+			if (content == null) content = parseContent();
+
+			if (!acceptElement(visitor, null, tree.container.getOptionalString(content.commentRef))) return;
+
+			boolean methodsFirst = order.isMethodsFirst() && !content.fields.isEmpty() && !content.methods.isEmpty();
+
+			if (!methodsFirst) {
+				for (FieldView field : order.sortFields(content.fields)) {
+					field.accept(visitor, supplyFieldDstDescs);
+				}
+			}
+
+			for (MethodView method : order.sortMethods(content.methods)) {
+				method.accept(visitor, order, supplyMethodDstDescs);
+			}
+
+			if (methodsFirst) {
+				for (FieldView field : order.sortFields(content.fields)) {
+					field.accept(visitor, supplyFieldDstDescs);
+				}
+			}
+		}
+
+		private final int index;
+		private volatile ClassContent content;
+	}
+
+	private static final class ClassContent {
+		int commentRef;
+		List<FieldView> fields;
+		List<MethodView> methods;
+	}
+
+	private abstract static class MemberView extends RecordElementView implements MemberMappingView {
+		MemberView(ClassView owner, int srcNameRef, int srcDescRef, int[] dstNameRefs) {
+			super(owner.tree, srcNameRef, dstNameRefs);
+
+			this.owner = owner;
+			this.srcDescRef = srcDescRef;
+		}
+
+		@Override
+		public ClassView getOwner() {
+			return owner;
+		}
+
+		@Override
+		@Nullable
+		public String getSrcDesc() {
+			return tree.container.getOptionalString(srcDescRef);
+		}
+
+		final boolean acceptMember(MappingVisitor visitor, boolean supplyDstDescs) throws IOException {
+			String[] dstDescs = null;
+			String srcDesc;
+
+			if (supplyDstDescs && (srcDesc = getSrcDesc()) != null) {
+				dstDescs = new String[tree.dstNsCount];
+
+				for (int i = 0; i < dstDescs.length; i++) {
+					dstDescs[i] = tree.mapDesc(srcDesc, i);
+				}
+			}
+
+			return acceptElement(visitor, dstDescs, getComment());
+		}
+
+		private final ClassView owner;
+		private final int srcDescRef;
+	}
+
+	private static final class FieldView extends MemberView implements FieldMappingView {
+		FieldView(ClassView owner, int srcNameRef, int srcDescRef, int[] dstNameRefs) {
+			super(owner, srcNameRef, srcDescRef, dstNameRefs);
+		}
+
+		@Override
+		MappedElementKind getKind() {
+			return MappedElementKind.FIELD;
+		}
+
+		void accept(MappingVisitor visitor, boolean supplyDstDescs) throws IOException {
+			if (visitor.visitField(getSrcName(), getSrcDesc())) {
+				acceptMember(visitor, supplyDstDescs);
+			}
+		}
+	}
+
+	private static final class MethodView extends MemberView implements MethodMappingView {
+		MethodView(ClassView owner, int srcNameRef, int srcDescRef, int[] dstNameRefs) {
+			super(owner, srcNameRef, srcDescRef, dstNameRefs);
+		}
+
+		@Override
+		MappedElementKind getKind() {
+			return MappedElementKind.METHOD;
+		}
+
+		@Override
+		public List<ArgView> getArgs() {
+			return args;
+		}
+
+		@Override
+		@Nullable
+		public ArgView getArg(int argPosition, int lvIndex, @Nullable String srcName) {
+			if (argPosition >= 0 || lvIndex >= 0) {
+				for (ArgView entry : args) {
+					if (argPosition >= 0 && entry.argPosition == argPosition
+							|| lvIndex >= 0 && entry.lvIndex == lvIndex) {
+						String entrySrcName;
+						if (srcName != null && (entrySrcName = entry.getSrcName()) != null && !srcName.equals(entrySrcName)) continue; // both srcNames are present but not equal
+						return entry;
+					}
+				}
+			}
+
+			if (srcName != null) {
+				for (ArgView entry : args) {
+					if (srcName.equals(entry.getSrcName())
+							&& (argPosition < 0 || entry.argPosition < 0)
+							&& (lvIndex < 0 || entry.lvIndex < 0)) {
+						return entry;
+					}
+				}
+			}
+
+			return null;
+		}
+
+		@Override
+		public List<VarView> getVars() {
+			return vars;
+		}
+
+		@Override
+		@Nullable
+		public VarView getVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) {
+			if (lvtRowIndex >= 0) {
+				boolean hasMissing = false;
+
+				for (VarView entry : vars) {
+					if (entry.lvtRowIndex == lvtRowIndex) {
+						return entry;
+					} else if (entry.lvtRowIndex < 0) {
+						hasMissing = true;
+					}
+				}
+
+				if (!hasMissing) return null;
+			}
+
+			if (lvIndex >= 0) {
+				boolean hasMissing = false;
+				VarView bestMatch = null;
+
+				for (VarView entry : vars) {
+					String entrySrcName;
+
+					// skip otherwise mismatched candidates
+					if (lvtRowIndex >= 0 && entry.lvtRowIndex >= 0 && lvtRowIndex != entry.lvtRowIndex // different lvtRowIndex
+							|| srcName != null && (entrySrcName = entry.getSrcName()) != null && !srcName.equals(entrySrcName)) { // different srcName
+						continue;
+					}
+
+					if (entry.lvIndex != lvIndex) {
+						if (entry.lvIndex < 0) hasMissing = true;
+						continue;
+					}
+
+					if (startOpIdx >= 0 && endOpIdx >= 0 && entry.startOpIdx >= 0 && entry.endOpIdx >= 0) { // full ranges on both
+						if (startOpIdx >= entry.endOpIdx || endOpIdx <= entry.startOpIdx) { // non-overlapping op idx ranges
+							continue;
+						} else { // full match
+							return entry;
+						}
+					}
+
+					if (endOpIdx >= 0 && entry.startOpIdx >= 0 && endOpIdx <= entry.startOpIdx
+							|| entry.endOpIdx >= 0 && startOpIdx >= 0 && entry.endOpIdx <= startOpIdx) {
+						// incompatible full range on one side
+						continue;
+					}
+
+					if (startOpIdx < 0 || startOpIdx == entry.startOpIdx) {
+						return entry;
+					}
+
+					if (bestMatch == null
+							|| entry.startOpIdx >= 0 && Math.abs(entry.startOpIdx - startOpIdx) < Math.abs(bestMatch.startOpIdx - startOpIdx)) {
+						bestMatch = entry;
+					}
+				}
+
+				if (!hasMissing || bestMatch != null) return bestMatch;
+			}
+
+			if (srcName != null) {
+				for (VarView entry : vars) {
+					if (srcName.equals(entry.getSrcName())
+							&& (lvtRowIndex < 0 || entry.lvtRowIndex < 0)
+							&& (lvIndex < 0 || entry.lvIndex < 0)) {
+						return entry;
+					}
+				}
+			}
+
+			return null;
+		}
+
+		void accept(MappingVisitor visitor, VisitOrder order, boolean supplyDstDescs) throws IOException {
+			if (visitor.visitMethod(getSrcName(), getSrcDesc()) && acceptMember(visitor, supplyDstDescs)) {
+				boolean varsFirst = order.isMethodVarsFirst() && !args.isEmpty() && !vars.isEmpty();
+
+				if (!varsFirst) {
+					for (ArgView arg : order.sortMethodArgs(args)) {
+						arg.accept(visitor);
+					}
+				}
+
+				for (VarView var : order.sortMethodVars(vars)) {
+					var.accept(visitor);
+				}
+
+				if (varsFirst) {
+					for (ArgView arg : order.sortMethodArgs(args)) {
+						arg.accept(visitor);
+					}
+				}
+			}
+		}
+
+		List<ArgView> args = new ArrayList<>();
+		List<VarView> vars = new ArrayList<>();
+	}
+
+	private static final class ArgView extends RecordElementView implements MethodArgMappingView {
+		ArgView(MethodView method, int argPosition, int lvIndex, int srcNameRef, int[] dstNameRefs) {
+			super(method.tree, srcNameRef, dstNameRefs);
+
+			this.method = method;
+			this.argPosition = argPosition;
+			this.lvIndex = lvIndex;
+		}
+
+		@Override
+		MappedElementKind getKind() {
+			return MappedElementKind.METHOD_ARG;
+		}
+
+		@Override
+		public MethodView getMethod() {
+			return method;
+		}
+
+		@Override
+		public int getArgPosition() {
+			return argPosition;
+		}
+
+		@Override
+		public int getLvIndex() {
+			return lvIndex;
+		}
+
+		void accept(MappingVisitor visitor) throws IOException {
+			if (visitor.visitMethodArg(argPosition, lvIndex, getSrcName())) {
+				acceptElement(visitor, null, getComment());
+			}
+		}
+
+		private final MethodView method;
+		private final int argPosition;
+		private final int lvIndex;
+	}
+
+	private static final class VarView extends RecordElementView implements MethodVarMappingView {
+		VarView(MethodView method, int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, int srcNameRef, int[] dstNameRefs) {
+			super(method.tree, srcNameRef, dstNameRefs);
+
+			this.method = method;
+			this.lvtRowIndex = lvtRowIndex;
+			this.lvIndex = lvIndex;
+			this.startOpIdx = startOpIdx;
+			this.endOpIdx = endOpIdx;
+		}
+
+		@Override
+		MappedElementKind getKind() {
+			return MappedElementKind.METHOD_VAR;
+		}
+
+		@Override
+		public MethodView getMethod() {
+			return method;
+		}
+
+		@Override
+		public int getLvtRowIndex() {
+			return lvtRowIndex;
+		}
+
+		@Override
+		public int getLvIndex() {
+			return lvIndex;
+		}
+
+		@Override
+		public int getStartOpIdx() {
+			return startOpIdx;
+		}
+
+		@Override
+		public int getEndOpIdx() {
+			return endOpIdx;
+		}
+
+		void accept(MappingVisitor visitor) throws IOException {
+			if (visitor.visitMethodVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, getSrcName())) {
+				acceptElement(visitor, null, getComment());
+			}
+		}
+
+		private final MethodView method;
+		private final int lvtRowIndex;
+		private final int lvIndex;
+		private final int startOpIdx;
+		private final int endOpIdx;
+	}
+
+	private final BinaryContainer container;
+	private final int dstNsCount;
+	private final List<MetadataView> metadata;
+	private final AtomicReferenceArray<ClassView> classes;
+}
@@ -17,13 +17,24 @@
 package net.fabricmc.mappingio.format.enigma;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.mappingio.MappingFlag;
 import net.fabricmc.mappingio.MappingUtil;
@@ -104,4 +115,144 @@ public final class EnigmaDirReader {
 
 		((MappingTree) visitor).accept(parentVisitor);
 	}
+
+	public static void readParallel(Path dir, MappingVisitor visitor) throws IOException {
+		readParallel(dir, MappingUtil.NS_SOURCE_FALLBACK, MappingUtil.NS_TARGET_FALLBACK, visitor);
+	}
+
+	/**
+	 * Reads the directory's files concurrently on the common fork-join pool and replays them in sorted path order.
+	 *
+	 * <p>Each file is buffered in its own small tree. Since every file holds a single top-level class and its inner
+	 * classes, this already satisfies {@link MappingFlag#NEEDS_ELEMENT_UNIQUENESS} without merging into a global tree.
+	 * Only a bounded number of files is buffered at a time, unless {@link MappingFlag#NEEDS_MULTIPLE_PASSES} requires
+	 * retaining all of them.
+	 *
+	 * <p>Destination descriptors depend on the class mappings of all files, so visitors requiring them are supplied from
+	 * a global tree the files are merged into first.
+	 */
+	public static void readParallel(Path dir, String sourceNs, String targetNs, MappingVisitor visitor) throws IOException {
+		Set<MappingFlag> flags = visitor.getFlags();
+
+		if (flags.contains(MappingFlag.NEEDS_DST_FIELD_DESC) || flags.contains(MappingFlag.NEEDS_DST_METHOD_DESC)) {
+			MemoryMappingTree tree = new MemoryMappingTree();
+			readParallel(dir, sourceNs, targetNs, tree);
+			tree.accept(visitor);
+			return;
+		}
+
+		List<Path> files = new ArrayList<>();
+
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				if (file.getFileName().toString().endsWith("." + MappingFormat.ENIGMA_FILE.fileExt)) {
+					files.add(file);
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		files.sort(Comparator.comparing(file -> dir.relativize(file).toString().replace('\\', '/')));
+
+		boolean multiPass = flags.contains(MappingFlag.NEEDS_MULTIPLE_PASSES);
+		List<MemoryMappingTree> retainedTrees = null;
+
+		for (;;) {
+			if (visitor.visitHeader()) {
+				visitor.visitNamespaces(sourceNs, Collections.singletonList(targetNs));
+			}
+
+			if (visitor.visitContent()) {
+				MappingVisitor contentVisitor = new ContentForwarder(visitor);
+
+				if (retainedTrees != null) {
+					for (MemoryMappingTree tree : retainedTrees) {
+						tree.accept(contentVisitor);
+					}
+				} else {
+					List<MemoryMappingTree> trees = multiPass ? new ArrayList<>(files.size()) : null;
+					replayParallel(files, sourceNs, targetNs, contentVisitor, trees);
+					retainedTrees = trees;
+				}
+			}
+
+			if (visitor.visitEnd()) break;
+
+			if (!multiPass) {
+				throw new IllegalStateException("repeated visitation requested without NEEDS_MULTIPLE_PASSES");
+			}
+		}
+	}
+
+	private static void replayParallel(List<Path> files, String sourceNs, String targetNs, MappingVisitor visitor, @Nullable List<MemoryMappingTree> retainedTrees) throws IOException {
+		int window = Math.max(1, ForkJoinPool.getCommonPoolParallelism()) * 4;
+		Deque<ForkJoinTask<MemoryMappingTree>> pending = new ArrayDeque<>(window);
+		int next = 0;
+
+		try {
+			while (next < files.size() || !pending.isEmpty()) {
+				while (next < files.size() && pending.size() < window) {
+					Path file = files.get(next++);
+
+					pending.add(ForkJoinPool.commonPool().submit(() -> {
+						MemoryMappingTree tree = new MemoryMappingTree();
+
+						try (Reader reader = Files.newBufferedReader(file)) {
+							EnigmaFileReader.read(reader, sourceNs, targetNs, tree);
+						}
+
+						return tree;
+					}));
+				}
+
+				MemoryMappingTree tree;
+
+				try {
+					tree = pending.removeFirst().get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("interrupted", e);
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException) throw (IOException) cause;
+					if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+					if (cause instanceof Error) throw (Error) cause;
+					throw new IOException(cause);
+				}
+
+				if (retainedTrees != null) retainedTrees.add(tree);
+				tree.accept(visitor);
+			}
+		} finally {
+			for (ForkJoinTask<?> task : pending) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Forwards a file tree's content into the already started content visitation.
+	 */
+	private static final class ContentForwarder extends ForwardingMappingVisitor {
+		ContentForwarder(MappingVisitor next) {
+			super(next);
+		}
+
+		@Override
+		public boolean visitHeader() {
+			return false; // Namespaces have already been visited, and Enigma files don't have any metadata
+		}
+
+		@Override
+		public boolean visitContent() {
+			return true; // Already visited
+		}
+
+		@Override
+		public boolean visitEnd() {
+			return true; // Don't forward since we're not done yet, there are more files to come
+		}
+	}
 }
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.enigma;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappingUtil;
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+import net.fabricmc.mappingio.tree.ReparentedClassView;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+/**
+ * Read-only {@link MappingTreeView} over an {@linkplain MappingFormat#ENIGMA_DIR Enigma directory} that parses
+ * individual class files on demand.
+ *
+ * <p>Enigma directories store each top-level class and its inner classes in a file named after the outer class'
+ * destination name, or its source name if unmapped. Looking up a class derives that path from the outer class name,
+ * parses only the one file and keeps it in a small LRU cache. Evicted files are parsed again on their next access,
+ * so their classes aren't guaranteed to retain their identity.
+ *
+ * <p>Classes stored under their destination name can't be found from their source name alone. The first such lookup
+ * scans the top-level {@code CLASS} lines of every file once to index their files by source name, which is much
+ * cheaper than parsing them. Only {@link #getClasses()} and visitation need the full tree, which is loaded once and can
+ * be requested ahead of time with a background prefetch, after which all lookups are served from it.
+ *
+ * <p>The view is safe for concurrent use by multiple threads.
+ */
+public final class EnigmaDirTreeView implements MappingTreeView {
+	private EnigmaDirTreeView(Path dir, String sourceNs, String targetNs, int cacheSize) {
+		this.dir = dir.toAbsolutePath().normalize();
+		this.srcNamespace = sourceNs;
+		this.dstNamespaces = Collections.singletonList(targetNs);
+		this.cache = new LinkedHashMap<String, ClassFile>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ClassFile> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	public static EnigmaDirTreeView open(Path dir) throws IOException {
+		return open(dir, MappingUtil.NS_SOURCE_FALLBACK, MappingUtil.NS_TARGET_FALLBACK, DEFAULT_CACHE_SIZE, false);
+	}
+
+	/**
+	 * @param cacheSize The maximum number of parsed class files to retain.
+	 * @param prefetch Whether to start loading the full tree in the background right away.
+	 */
+	public static EnigmaDirTreeView open(Path dir, String sourceNs, String targetNs, int cacheSize, boolean prefetch) throws IOException {
+		if (cacheSize < 0) throw new IllegalArgumentException("negative cache size: "+cacheSize);
+		if (!Files.isDirectory(dir)) throw new IOException("not a directory: "+dir);
+
+		EnigmaDirTreeView ret = new EnigmaDirTreeView(dir, sourceNs, targetNs, cacheSize);
+		if (prefetch) ret.loadFullTree(true);
+
+		return ret;
+	}
+
+	@Override
+	public String getSrcNamespace() {
+		return srcNamespace;
+	}
+
+	@Override
+	public List<String> getDstNamespaces() {
+		return dstNamespaces;
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata() {
+		return Collections.emptyList(); // Enigma files don't have any metadata
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata(String key) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Collection<? extends ClassMappingView> getClasses() {
+		return getFullTree().getClasses();
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String srcName) {
+		return getClass(srcName, SRC_NAMESPACE_ID);
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String name, int namespace) {
+		if (namespace >= dstNamespaces.size()) throw new IndexOutOfBoundsException("invalid namespace: "+namespace);
+
+		MemoryMappingTree fullTree = getLoadedFullTree();
+		if (fullTree != null) return fullTree.getClass(name, namespace);
+
+		String outerName = getOuterName(name);
+		ClassFile file = getClassFile(outerName);
+		ClassMappingView ret = file != null ? file.getClass(name, namespace) : null;
+		if (ret != null || namespace >= 0) return ret;
+
+		// mapped classes are stored under their destination name, look up the file by source name
+		String fileName = getSrcIndex().get(outerName);
+		if (fileName == null || fileName.equals(outerName)) return null;
+
+		file = getClassFile(fileName);
+
+		return file != null ? file.getClass(name, namespace) : null;
+	}
+
+	@Override
+	public void accept(MappingVisitor visitor, VisitOrder order) throws IOException {
+		getFullTree().accept(visitor, order);
+	}
+
+	private static String getOuterName(String name) {
+		int pos = EnigmaWriterBase.getNextOuterEnd(name, 0);
+
+		return pos >= 0 ? name.substring(0, pos) : name;
+	}
+
+	/**
+	 * @return The parsed file named after the outer class name, or {@code null} if it doesn't exist.
+	 */
+	@Nullable
+	private ClassFile getClassFile(String outerName) {
+		ClassFile ret;
+
+		synchronized (cache) {
+			ret = cache.get(outerName);
+		}
+
+		if (ret == null) {
+			ret = parseClassFile(outerName);
+
+			synchronized (cache) {
+				ClassFile prev = cache.putIfAbsent(outerName, ret);
+				if (prev != null) ret = prev;
+			}
+		}
+
+		return ret != MISSING_FILE ? ret : null;
+	}
+
+	private ClassFile parseClassFile(String outerName) {
+		Path file = dir.resolve(outerName + "." + MappingFormat.ENIGMA_FILE.fileExt).normalize();
+		if (!file.startsWith(dir) || !Files.isRegularFile(file)) return MISSING_FILE;
+
+		MemoryMappingTree tree = new MemoryMappingTree();
+
+		try (Reader reader = Files.newBufferedReader(file)) {
+			EnigmaFileReader.read(reader, srcNamespace, dstNamespaces.get(0), tree);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return new ClassFile(this, tree);
+	}
+
+	/**
+	 * @return The file names of all top-level classes, keyed by their source name.
+	 */
+	private Map<String, String> getSrcIndex() {
+		Map<String, String> ret = srcIndex;
+		if (ret != null) return ret;
+
+		synchronized (this) {
+			if (srcIndex != null) return srcIndex;
+
+			try {
+				ret = buildSrcIndex();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			srcIndex = ret;
+		}
+
+		return ret;
+	}
+
+	private Map<String, String> buildSrcIndex() throws IOException {
+		Map<String, String> ret = new HashMap<>();
+		String ext = "." + MappingFormat.ENIGMA_FILE.fileExt;
+
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				String fileName = dir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+				if (!fileName.endsWith(ext)) return FileVisitResult.CONTINUE;
+
+				fileName = fileName.substring(0, fileName.length() - ext.length());
+
+				try (BufferedReader reader = Files.newBufferedReader(file)) {
+					String line;
+
+					while ((line = reader.readLine()) != null) {
+						// top-level class: CLASS <name-a> [<name-b>], nested classes and members are indented
+						if (!line.startsWith("CLASS ")) continue;
+
+						int end = line.indexOf(' ', 6);
+						String srcName = end >= 0 ? line.substring(6, end) : line.substring(6);
+						if (!srcName.isEmpty()) ret.putIfAbsent(srcName, fileName);
+					}
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		return ret;
+	}
+
+	@Nullable
+	private MemoryMappingTree getLoadedFullTree() {
+		return fullTree.isDone() && !fullTree.isCompletedExceptionally() ? fullTree.join() : null;
+	}
+
+	private MemoryMappingTree getFullTree() {
+		loadFullTree(false);
+
+		try {
+			return fullTree.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException) throw (UncheckedIOException) e.getCause();
+			throw e;
+		}
+	}
+
+	private void loadFullTree(boolean async) {
+		if (!fullTreeRequested.compareAndSet(false, true)) return;
+
+		Runnable task = () -> {
+			try {
+				MemoryMappingTree tree = new MemoryMappingTree();
+				EnigmaDirReader.read(dir, srcNamespace, dstNamespaces.get(0), tree);
+				fullTree.complete(tree);
+			} catch (IOException e) {
+				fullTree.completeExceptionally(new UncheckedIOException(e));
+			} catch (Throwable t) {
+				fullTree.completeExceptionally(t);
+			}
+		};
+
+		if (async) {
+			ForkJoinPool.commonPool().execute(task);
+		} else {
+			task.run();
+		}
+	}
+
+	/**
+	 * Classes parsed from a single Enigma file.
+	 */
+	private static final class ClassFile {
+		ClassFile(EnigmaDirTreeView view, MemoryMappingTree tree) {
+			this.tree = tree;
+
+			for (ClassMappingView cls : tree.getClasses()) {
+				classes.put(cls.getSrcName(), new ReparentedClassView(view, cls));
+			}
+		}
+
+		@Nullable
+		ClassMappingView getClass(String name, int namespace) {
+			ClassMappingView cls = tree.getClass(name, namespace);
+
+			return cls != null ? classes.get(cls.getSrcName()) : null;
+		}
+
+		private final MemoryMappingTree tree;
+		private final Map<String, ReparentedClassView> classes = new HashMap<>();
+	}
+
+	public static final int DEFAULT_CACHE_SIZE = 256;
+	private static final ClassFile MISSING_FILE = new ClassFile(null, new MemoryMappingTree());
+
+	private final Path dir;
+	private final String srcNamespace;
+	private final List<String> dstNamespaces;
+	private final Map<String, ClassFile> cache;
+	private volatile Map<String, String> srcIndex;
+	private final AtomicBoolean fullTreeRequested = new AtomicBoolean();
+	private final CompletableFuture<MemoryMappingTree> fullTree = new CompletableFuture<>();
+}
@@ -18,6 +18,9 @@ package net.fabricmc.mappingio.format.enigma;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -26,24 +29,58 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import net.fabricmc.mappingio.MappedElementKind;
 import net.fabricmc.mappingio.format.MappingFormat;
 
 /**
  * {@linkplain MappingFormat#ENIGMA_DIR Enigma directory} writer.
+ *
+ * <p>In incremental mode, each top-level class' file is rendered into memory and only written if its content differs
+ * from the existing file, leaving unchanged files and their modification times untouched. The comparisons and writes
+ * run on the common fork-join pool while visitation continues, and complete with {@link #visitEnd()}.
  */
 public final class EnigmaDirWriter extends EnigmaWriterBase {
 	public EnigmaDirWriter(Path dir, boolean deleteExistingFiles) throws IOException {
+		this(dir, deleteExistingFiles, false);
+	}
+
+	/**
+	 * @param deleteExistingFiles Whether to delete existing files, or in incremental mode only those not written to.
+	 * @param incremental Whether to only write changed files, replacing their content instead of appending to it.
+	 */
+	public EnigmaDirWriter(Path dir, boolean deleteExistingFiles, boolean incremental) throws IOException {
 		super(null);
 		this.dir = dir.toAbsolutePath().normalize();
 		this.deleteExistingFiles = deleteExistingFiles;
+		this.incremental = incremental;
 	}
 
 	@Override
 	public boolean visitHeader() throws IOException {
-		if (deleteExistingFiles && Files.exists(dir)) {
+		if (incremental) {
+			if (deleteExistingFiles && Files.exists(dir)) {
+				Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+						if (file.getFileName().toString().endsWith("." + MappingFormat.ENIGMA_FILE.fileExt)) {
+							orphans.add(file.toAbsolutePath().normalize());
+						}
+
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			}
+		} else if (deleteExistingFiles && Files.exists(dir)) {
 			Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
 				@Override
 				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
@@ -70,9 +107,62 @@ public final class EnigmaDirWriter extends EnigmaWriterBase {
 		return super.visitHeader();
 	}
 
+	@Override
+	public boolean visitEnd() throws IOException {
+		if (incremental) {
+			closeFile();
+			Set<Path> writtenFiles = new HashSet<>(pendingWrites.keySet());
+			awaitWrites();
+			Set<Path> writtenRealFiles = null;
+
+			for (Path file : orphans) {
+				if (!Files.exists(file)) continue;
+
+				// case-insensitive file systems write classes renamed only in case to their old file, keep it
+				if (writtenRealFiles == null) writtenRealFiles = toRealPaths(writtenFiles);
+				if (writtenRealFiles.contains(file.toRealPath())) continue;
+
+				Files.delete(file);
+
+				// remove directories left empty
+				for (Path parent = file.getParent(); parent != null && !parent.equals(dir) && parent.startsWith(dir); parent = parent.getParent()) {
+					try {
+						Files.deleteIfExists(parent);
+					} catch (DirectoryNotEmptyException e) {
+						break;
+					}
+				}
+			}
+
+			orphans.clear();
+		}
+
+		return super.visitEnd();
+	}
+
+	private static Set<Path> toRealPaths(Set<Path> files) throws IOException {
+		Set<Path> ret = new HashSet<>(files.size());
+
+		for (Path file : files) {
+			if (Files.exists(file)) ret.add(file.toRealPath());
+		}
+
+		return ret;
+	}
+
 	@Override
 	public void close() throws IOException {
+		closeFile();
+		if (incremental) awaitWrites();
+	}
+
+	private void closeFile() throws IOException {
 		if (writer != null) {
+			if (incremental) {
+				submitWrite(currentFile, writer.toString());
+				currentFile = null;
+			}
+
 			writer.close();
 			writer = null;
 			currentClass = null;
@@ -94,49 +184,24 @@ public final class EnigmaDirWriter extends EnigmaWriterBase {
 				Path file = dir.resolve(name + "." + MappingFormat.ENIGMA_FILE.fileExt).normalize();
 				if (!file.startsWith(dir)) throw new RuntimeException("invalid name: " + name);
 
-				if (writer != null) {
-					writer.close();
-				}
-
+				closeFile();
 				currentClass = name;
 
-				if (Files.exists(file)) {
+				if (incremental) {
+					openBufferedFile(file);
+				} else if (Files.exists(file)) {
 					// initialize writtenClass with last CLASS entry
-
-					List<String> writtenClassParts = new ArrayList<>();
-
 					try (BufferedReader reader = Files.newBufferedReader(file)) {
-						String line;
-
-						while ((line = reader.readLine()) != null) {
-							int offset = 0;
-
-							while (offset < line.length() && line.charAt(offset) == '\t') {
-								offset++;
-							}
-
-							if (line.startsWith("CLASS ", offset)) {
-								int start = offset + 6;
-								int end = line.indexOf(' ', start);
-								if (end < 0) end = line.length();
-								String part = line.substring(start, end);
-
-								while (writtenClassParts.size() > offset) {
-									writtenClassParts.remove(writtenClassParts.size() - 1);
-								}
-
-								writtenClassParts.add(part);
-							}
-						}
+						lastWrittenClass = readLastClass(reader);
 					}
-
-					lastWrittenClass = String.join("$", writtenClassParts);
 				} else {
 					lastWrittenClass = "";
 					Files.createDirectories(file.getParent());
 				}
 
-				writer = Files.newBufferedWriter(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+				if (!incremental) {
+					writer = Files.newBufferedWriter(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+				}
 			}
 
 			writeMismatchedOrMissingClasses();
@@ -151,6 +216,112 @@ public final class EnigmaDirWriter extends EnigmaWriterBase {
 		return true;
 	}
 
+	private void openBufferedFile(Path file) throws IOException {
+		StringWriter buffer = new StringWriter();
+		ForkJoinTask<?> prevWrite = pendingWrites.get(file);
+
+		if (prevWrite != null) { // file was already rendered before, continue with its now written content
+			await(prevWrite);
+			String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+			buffer.write(content);
+
+			try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+				lastWrittenClass = readLastClass(reader);
+			}
+		} else {
+			lastWrittenClass = "";
+		}
+
+		writer = buffer;
+		currentFile = file;
+	}
+
+	private void submitWrite(Path file, String content) {
+		orphans.remove(file);
+		pendingWrites.put(file, ForkJoinPool.commonPool().submit(() -> {
+			byte[] data = content.getBytes(StandardCharsets.UTF_8);
+
+			if (Files.isRegularFile(file)
+					&& Files.size(file) == data.length
+					&& Arrays.equals(Files.readAllBytes(file), data)) {
+				return null; // unchanged
+			}
+
+			Files.createDirectories(file.getParent());
+			Files.write(file, data);
+
+			return null;
+		}));
+	}
+
+	private void awaitWrites() throws IOException {
+		Throwable failure = null;
+
+		for (ForkJoinTask<?> task : pendingWrites.values()) { // wait for all writes, even if one failed
+			try {
+				await(task);
+			} catch (IOException | RuntimeException | Error e) {
+				if (failure == null) failure = e;
+			}
+		}
+
+		pendingWrites.clear();
+
+		if (failure instanceof IOException) throw (IOException) failure;
+		if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+		if (failure != null) throw (Error) failure;
+	}
+
+	private static void await(ForkJoinTask<?> task) throws IOException {
+		try {
+			task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Determines the full name of the last class entry in an Enigma file.
+	 */
+	private static String readLastClass(BufferedReader reader) throws IOException {
+		List<String> writtenClassParts = new ArrayList<>();
+		String line;
+
+		while ((line = reader.readLine()) != null) {
+			int offset = 0;
+
+			while (offset < line.length() && line.charAt(offset) == '\t') {
+				offset++;
+			}
+
+			if (line.startsWith("CLASS ", offset)) {
+				int start = offset + 6;
+				int end = line.indexOf(' ', start);
+				if (end < 0) end = line.length();
+				String part = line.substring(start, end);
+
+				while (writtenClassParts.size() > offset) {
+					writtenClassParts.remove(writtenClassParts.size() - 1);
+				}
+
+				writtenClassParts.add(part);
+			}
+		}
+
+		return String.join("$", writtenClassParts);
+	}
+
 	private final Path dir;
 	private final boolean deleteExistingFiles;
+	private final boolean incremental;
+	private final Set<Path> orphans = new HashSet<>();
+	private final Map<Path, ForkJoinTask<?>> pendingWrites = new HashMap<>();
+	private Path currentFile;
 }
@@ -111,10 +111,10 @@ public final class JobfFileWriter implements MappingWriter {
 		write(classSrcName);
 
 		if (!isClass) {
-			write(".");
+			write('.');
 			write(memberSrcName);
 
-			if (isField) write(":");
+			if (isField) write(':');
 			write(memberSrcDesc);
 		}
 
@@ -136,6 +136,10 @@ public final class JobfFileWriter implements MappingWriter {
 		writer.write(str);
 	}
 
+	private void write(char c) throws IOException {
+		writer.write(c);
+	}
+
 	private void writeLn() throws IOException {
 		writer.write('\n');
 	}
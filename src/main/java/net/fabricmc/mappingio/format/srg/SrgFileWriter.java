@@ -137,25 +137,25 @@ public final class SrgFileWriter implements MappingWriter {
 		write(classSrcName);
 
 		if (targetKind != MappedElementKind.CLASS) {
-			write("/");
+			write('/');
 			write(memberSrcName);
 
 			if (targetKind == MappedElementKind.METHOD || xsrg) {
-				write(" ");
+				writeSpace();
 				write(memberSrcDesc);
 			}
 		}
 
-		write(" ");
+		writeSpace();
 		if (classDstName == null) classDstName = classSrcName;
 		write(classDstName);
 
 		if (targetKind != MappedElementKind.CLASS) {
-			write("/");
+			write('/');
 			write(memberDstName);
 
 			if (targetKind == MappedElementKind.METHOD || xsrg) {
-				write(" ");
+				writeSpace();
 				write(memberDstDesc);
 			}
 		}
@@ -174,6 +174,14 @@ public final class SrgFileWriter implements MappingWriter {
 		writer.write(str);
 	}
 
+	private void write(char c) throws IOException {
+		writer.write(c);
+	}
+
+	private void writeSpace() throws IOException {
+		writer.write(' ');
+	}
+
 	private void writeLn() throws IOException {
 		writer.write('\n');
 	}
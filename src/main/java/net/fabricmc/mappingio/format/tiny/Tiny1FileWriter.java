@@ -85,7 +85,7 @@ public final class Tiny1FileWriter implements MappingWriter {
 				throw new IllegalStateException();
 			}
 
-			write(" ");
+			writeSpace();
 			write(value);
 			writeLn();
 		}
@@ -196,6 +196,10 @@ public final class Tiny1FileWriter implements MappingWriter {
 		writer.write('\t');
 	}
 
+	private void writeSpace() throws IOException {
+		writer.write(' ');
+	}
+
 	private static final Set<MappingFlag> flags = EnumSet.of(MappingFlag.NEEDS_SRC_FIELD_DESC, MappingFlag.NEEDS_SRC_METHOD_DESC);
 
 	private final Writer writer;
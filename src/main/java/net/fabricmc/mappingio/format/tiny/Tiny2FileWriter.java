@@ -85,7 +85,7 @@ public final class Tiny2FileWriter implements MappingWriter {
 	@Override
 	public boolean visitContent() throws IOException {
 		if (escapeNames && !wroteEscapedNamesProperty) {
-			write("\t");
+			writeTab();
 			write(Tiny2Util.escapedNamesProperty);
 			writeLn();
 		}
@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.tiny;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Sidecar index of a Tiny v2 file's class blocks.
+ *
+ * <h2>Layout</h2>
+ * Integers are big endian.
+ * <pre>
+ * "MIT2" version:u8 sourceSize:u64 sourceMtime:u64 sourceCrc:u32 dstNamespaceCount:u32
+ * classCount:u32 blockOffset:u32*
+ * (indexSize:u32 classIndex:u32*) for the source and every destination namespace
+ * </pre>
+ * Block offsets point to the start of the top-level {@code c} lines in file order, a block ends where the next one
+ * starts. Each namespace's index lists the classes named in it, sorted by the raw (possibly escaped) UTF-8 bytes of
+ * their name column. The names themselves aren't duplicated, lookups compare against the Tiny file's class lines.
+ *
+ * <p>The source's size, modification time in milliseconds and CRC-32 identify the indexed content, see
+ * {@link #checkSource}.
+ */
+final class Tiny2Index {
+	private Tiny2Index(long sourceSize, long sourceMtime, int sourceCrc, int dstNsCount, int[] blockOffsets, int[][] nameIndices) {
+		this.sourceSize = sourceSize;
+		this.sourceMtime = sourceMtime;
+		this.sourceCrc = sourceCrc;
+		this.dstNsCount = dstNsCount;
+		this.blockOffsets = blockOffsets;
+		this.nameIndices = nameIndices;
+	}
+
+	static ByteBuffer map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) throw new IOException("tiny file too large for indexing: "+file);
+
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size); // stays valid after closing the channel
+		}
+	}
+
+	/**
+	 * Scans the Tiny v2 file content for its class blocks.
+	 *
+	 * @param sourceMtime The file's modification time in milliseconds, read before mapping it.
+	 */
+	static Tiny2Index build(ByteBuffer data, long sourceMtime) throws IOException {
+		int size = data.limit();
+		if (!startsWith(data, 0, HEADER_PREFIX)) throw new IOException("invalid/unsupported tiny file: no tiny 2 header");
+
+		int headerEnd = nextLine(data, 0);
+		int columns = 1;
+
+		for (int pos = 0; pos < headerEnd; pos++) {
+			if (data.get(pos) == '\t') columns++;
+		}
+
+		int dstNsCount = columns - 4; // tiny, major, minor, src
+		if (dstNsCount <= 0) throw new IOException("no destination namespaces in Tiny v2 header");
+
+		List<Integer> offsets = new ArrayList<>();
+
+		for (int pos = headerEnd; pos < size; pos = nextLine(data, pos)) {
+			if (data.get(pos) == 'c' && pos + 1 < size && data.get(pos + 1) == '\t') {
+				offsets.add(pos);
+			}
+		}
+
+		int[] blockOffsets = new int[offsets.size()];
+
+		for (int i = 0; i < blockOffsets.length; i++) {
+			blockOffsets[i] = offsets.get(i);
+		}
+
+		int[][] nameIndices = new int[dstNsCount + 1][];
+
+		for (int column = 0; column <= dstNsCount; column++) {
+			List<Integer> classes = new ArrayList<>(blockOffsets.length);
+			byte[][] names = new byte[blockOffsets.length][];
+
+			for (int i = 0; i < blockOffsets.length; i++) {
+				names[i] = getColumn(data, blockOffsets[i], column);
+				if (names[i] != null) classes.add(i);
+			}
+
+			classes.sort((a, b) -> compare(names[a], names[b]));
+			nameIndices[column] = classes.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		return new Tiny2Index(size, sourceMtime, computeCrc(data), dstNsCount, blockOffsets, nameIndices);
+	}
+
+	private static int computeCrc(ByteBuffer data) {
+		CRC32 crc = new CRC32();
+		crc.update(data.duplicate());
+
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Checks whether the index still matches the Tiny file. Only if the size matches but the modification time doesn't,
+	 * e.g. after copying or touching the file, its content is hashed to tell apart edits keeping the length.
+	 *
+	 * @param sourceMtime The file's modification time in milliseconds, read before mapping it.
+	 * @return {@code null} if the index is valid, otherwise the reason why it's stale.
+	 */
+	@Nullable
+	String checkSource(ByteBuffer data, long sourceMtime) {
+		if (data.limit() != sourceSize) return "indexed "+sourceSize+" bytes, found "+data.limit();
+		if (sourceMtime != this.sourceMtime && computeCrc(data) != sourceCrc) return "content changed";
+
+		return null;
+	}
+
+	void write(Path file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.write(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(sourceSize);
+			out.writeLong(sourceMtime);
+			out.writeInt(sourceCrc);
+			out.writeInt(dstNsCount);
+			writeInts(out, blockOffsets);
+
+			for (int[] index : nameIndices) {
+				writeInts(out, index);
+			}
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		out.writeInt(values.length);
+
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	static Tiny2Index read(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			byte[] magic = new byte[MAGIC.length];
+			in.readFully(magic);
+			if (!Arrays.equals(magic, MAGIC)) throw new IOException("invalid tiny index: no MIT2 header");
+
+			int version = in.readUnsignedByte();
+			if (version != VERSION) throw new IOException("unsupported tiny index version: "+version);
+
+			long sourceSize = in.readLong();
+			long sourceMtime = in.readLong();
+			int sourceCrc = in.readInt();
+			int dstNsCount = in.readInt();
+			if (dstNsCount <= 0) throw new IOException("invalid tiny index: no destination namespaces");
+
+			int[] blockOffsets = readInts(in);
+			int[][] nameIndices = new int[dstNsCount + 1][];
+
+			for (int i = 0; i < nameIndices.length; i++) {
+				nameIndices[i] = readInts(in);
+			}
+
+			return new Tiny2Index(sourceSize, sourceMtime, sourceCrc, dstNsCount, blockOffsets, nameIndices);
+		} catch (EOFException e) {
+			throw new IOException("truncated tiny index", e);
+		}
+	}
+
+	private static int[] readInts(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) throw new IOException("invalid tiny index: negative count");
+
+		int[] ret = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			ret[i] = in.readInt();
+		}
+
+		return ret;
+	}
+
+	int getDstNsCount() {
+		return dstNsCount;
+	}
+
+	int getClassCount() {
+		return blockOffsets.length;
+	}
+
+	int getBlockStart(int classIdx) {
+		return blockOffsets[classIdx];
+	}
+
+	int getBlockEnd(int classIdx, int size) {
+		return classIdx + 1 < blockOffsets.length ? blockOffsets[classIdx + 1] : size;
+	}
+
+	/**
+	 * @return The start of the first class block, or the supplied size if there's none.
+	 */
+	int getHeaderEnd(int size) {
+		return blockOffsets.length > 0 ? blockOffsets[0] : size;
+	}
+
+	/**
+	 * Binary searches the namespace's index for the raw name bytes.
+	 *
+	 * @return The class index, or -1 if absent.
+	 */
+	int findClass(ByteBuffer data, byte[] rawName, int namespace) {
+		int[] index = nameIndices[namespace + 1];
+		int low = 0;
+		int high = index.length - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int classIdx = index[mid];
+			int cmp = compareColumn(data, blockOffsets[classIdx], namespace + 1, rawName);
+
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return classIdx;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return The raw bytes of the class line's name column, or {@code null} if missing or empty.
+	 */
+	static byte[] getColumn(ByteBuffer data, int lineStart, int column) {
+		int start = findColumn(data, lineStart, column);
+		if (start < 0) return null;
+
+		int end = findColumnEnd(data, start);
+		if (end == start) return null;
+
+		byte[] ret = new byte[end - start];
+
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = data.get(start + i);
+		}
+
+		return ret;
+	}
+
+	private static int compareColumn(ByteBuffer data, int lineStart, int column, byte[] name) {
+		int start = findColumn(data, lineStart, column);
+		int len = findColumnEnd(data, start) - start;
+		int common = Math.min(len, name.length);
+
+		for (int i = 0; i < common; i++) {
+			int cmp = (data.get(start + i) & 0xff) - (name[i] & 0xff);
+			if (cmp != 0) return cmp;
+		}
+
+		return len - name.length;
+	}
+
+	/**
+	 * @param column The name column, 0 for the source name.
+	 * @return The column's start position, or -1 if the line has less columns.
+	 */
+	private static int findColumn(ByteBuffer data, int lineStart, int column) {
+		int pos = lineStart + 2; // "c\t"
+
+		for (int i = 0; i < column; i++) {
+			pos = findColumnEnd(data, pos);
+			if (pos >= data.limit() || data.get(pos) != '\t') return -1;
+			pos++;
+		}
+
+		return pos;
+	}
+
+	private static int findColumnEnd(ByteBuffer data, int pos) {
+		int size = data.limit();
+
+		while (pos < size) {
+			byte b = data.get(pos);
+			if (b == '\t' || b == '\n' || b == '\r') break;
+			pos++;
+		}
+
+		return pos;
+	}
+
+	private static int nextLine(ByteBuffer data, int pos) {
+		int size = data.limit();
+
+		while (pos < size && data.get(pos++) != '\n') {
+			// skip
+		}
+
+		return pos;
+	}
+
+	private static boolean startsWith(ByteBuffer data, int pos, byte[] prefix) {
+		if (data.limit() - pos < prefix.length) return false;
+
+		for (int i = 0; i < prefix.length; i++) {
+			if (data.get(pos + i) != prefix[i]) return false;
+		}
+
+		return true;
+	}
+
+	private static int compare(byte[] a, byte[] b) {
+		int common = Math.min(a.length, b.length);
+
+		for (int i = 0; i < common; i++) {
+			int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+			if (cmp != 0) return cmp;
+		}
+
+		return a.length - b.length;
+	}
+
+	/**
+	 * Stream over a range of a buffer, without copying.
+	 */
+	static final class BufferInputStream extends InputStream {
+		BufferInputStream(ByteBuffer data, int start, int end) {
+			this.data = data;
+			this.pos = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() {
+			return pos < end ? data.get(pos++) & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) return 0;
+			if (pos >= end) return -1;
+
+			len = Math.min(len, end - pos);
+
+			for (int i = 0; i < len; i++) {
+				b[off + i] = data.get(pos++);
+			}
+
+			return len;
+		}
+
+		private final ByteBuffer data;
+		private int pos;
+		private final int end;
+	}
+
+	private static final byte[] MAGIC = { 'M', 'I', 'T', '2' };
+	private static final int VERSION = 2;
+	private static final byte[] HEADER_PREFIX = { 't', 'i', 'n', 'y', '\t', '2', '\t' };
+
+	private final long sourceSize;
+	private final long sourceMtime;
+	private final int sourceCrc;
+	private final int dstNsCount;
+	private final int[] blockOffsets;
+	private final int[][] nameIndices;
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.tiny;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import net.fabricmc.mappingio.format.MappingFormat;
+
+/**
+ * Writer for the sidecar index used by {@link Tiny2IndexedTreeView}.
+ *
+ * <p>The index records the byte offset of every top-level class block in a {@linkplain MappingFormat#TINY_2_FILE
+ * Tiny v2 file}, keyed by the class' name in every namespace. It only stays valid as long as the Tiny file is
+ * unchanged. Opening the view checks the file's size, and if its modification time changed, also a CRC-32 of its
+ * content. Edits keeping both the size and modification time go unnoticed.
+ */
+public final class Tiny2IndexWriter {
+	private Tiny2IndexWriter() {
+	}
+
+	public static void write(Path tinyFile, Path indexFile) throws IOException {
+		long mtime = Files.getLastModifiedTime(tinyFile).toMillis();
+		Tiny2Index.build(Tiny2Index.map(tinyFile), mtime).write(indexFile);
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format.tiny;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+import net.fabricmc.mappingio.tree.ReparentedClassView;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+/**
+ * Read-only {@link MappingTreeView} over a memory-mapped {@linkplain MappingFormat#TINY_2_FILE Tiny v2 file} that
+ * parses class blocks on demand, located through a sidecar index written by {@link Tiny2IndexWriter}.
+ *
+ * <p>Opening the view only parses the file's header. Looking up a class binary searches the index, parses the class'
+ * block and keeps it in a small LRU cache, evicted classes are parsed again on their next access and thus aren't
+ * guaranteed to retain their identity. Mapping class names (and thereby descriptors) reads the requested name
+ * straight from the class' line without parsing its block. Visiting the view parses the whole file.
+ *
+ * <p>The view is safe for concurrent use by multiple threads.
+ */
+public final class Tiny2IndexedTreeView implements MappingTreeView {
+	private Tiny2IndexedTreeView(ByteBuffer data, Tiny2Index index, MemoryMappingTree header, int cacheSize) {
+		this.data = data;
+		this.index = index;
+		this.header = header;
+		this.escapedNames = !header.getMetadata(Tiny2Util.escapedNamesProperty).isEmpty();
+		this.cache = new LinkedHashMap<Integer, ReparentedClassView>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, ReparentedClassView> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Opens the view with a cache of {@value #DEFAULT_CACHE_SIZE} classes.
+	 */
+	public static Tiny2IndexedTreeView open(Path tinyFile, Path indexFile) throws IOException {
+		return open(tinyFile, indexFile, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * @param cacheSize The maximum number of parsed classes to retain.
+	 */
+	public static Tiny2IndexedTreeView open(Path tinyFile, Path indexFile, int cacheSize) throws IOException {
+		if (cacheSize < 0) throw new IllegalArgumentException("negative cache size: "+cacheSize);
+
+		long mtime = Files.getLastModifiedTime(tinyFile).toMillis();
+		ByteBuffer data = Tiny2Index.map(tinyFile);
+		Tiny2Index index = Tiny2Index.read(indexFile);
+		String staleReason = index.checkSource(data, mtime);
+		if (staleReason != null) throw new IOException("stale tiny index "+indexFile+": "+staleReason);
+
+		MemoryMappingTree header = new MemoryMappingTree();
+		Tiny2FileReader.read(newReader(data, 0, index.getHeaderEnd(data.limit()), 0, 0), header);
+
+		if (header.getDstNamespaces().size() != index.getDstNsCount()) {
+			throw new IOException("stale tiny index "+indexFile+": namespace count mismatch");
+		}
+
+		return new Tiny2IndexedTreeView(data, index, header, cacheSize);
+	}
+
+	@Override
+	public String getSrcNamespace() {
+		return header.getSrcNamespace();
+	}
+
+	@Override
+	public List<String> getDstNamespaces() {
+		return header.getDstNamespaces();
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata() {
+		return header.getMetadata();
+	}
+
+	@Override
+	public List<? extends MetadataEntryView> getMetadata(String key) {
+		return header.getMetadata(key);
+	}
+
+	@Override
+	public List<? extends ClassMappingView> getClasses() {
+		return new AbstractList<ReparentedClassView>() {
+			@Override
+			public ReparentedClassView get(int idx) {
+				return getClassView(idx);
+			}
+
+			@Override
+			public int size() {
+				return index.getClassCount();
+			}
+		};
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String srcName) {
+		return getClass(srcName, SRC_NAMESPACE_ID);
+	}
+
+	@Override
+	@Nullable
+	public ClassMappingView getClass(String name, int namespace) {
+		int idx = findClass(name, namespace);
+
+		return idx >= 0 ? getClassView(idx) : null;
+	}
+
+	@Override
+	public String mapClassName(String name, int srcNamespace, int dstNamespace) {
+		if (srcNamespace == dstNamespace) return name;
+
+		int idx = findClass(name, srcNamespace);
+		if (idx < 0) return name;
+
+		byte[] ret = Tiny2Index.getColumn(data, index.getBlockStart(idx), Math.max(dstNamespace, SRC_NAMESPACE_ID) + 1);
+
+		return ret != null ? decode(ret) : name;
+	}
+
+	@Override
+	public void accept(MappingVisitor visitor, VisitOrder order) throws IOException {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		Tiny2FileReader.read(newReader(data, 0, data.limit(), 0, 0), tree);
+		tree.accept(visitor, order);
+	}
+
+	private int findClass(String name, int namespace) {
+		if (namespace >= index.getDstNsCount()) throw new IndexOutOfBoundsException("invalid namespace: "+namespace);
+
+		if (escapedNames && Tiny2Util.needEscape(name)) {
+			StringWriter escaped = new StringWriter(name.length() + 8);
+
+			try {
+				Tiny2Util.writeEscaped(name, escaped);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e); // can't happen with a StringWriter
+			}
+
+			name = escaped.toString();
+		}
+
+		return index.findClass(data, name.getBytes(StandardCharsets.UTF_8), Math.max(namespace, SRC_NAMESPACE_ID));
+	}
+
+	private String decode(byte[] rawName) {
+		String ret = new String(rawName, StandardCharsets.UTF_8);
+
+		return escapedNames ? Tiny2Util.unescape(ret) : ret;
+	}
+
+	private ReparentedClassView getClassView(int idx) {
+		synchronized (cache) {
+			ReparentedClassView ret = cache.get(idx);
+			if (ret != null) return ret;
+		}
+
+		ReparentedClassView ret = parseClass(idx);
+
+		synchronized (cache) {
+			ReparentedClassView prev = cache.putIfAbsent(idx, ret);
+
+			return prev != null ? prev : ret;
+		}
+	}
+
+	private ReparentedClassView parseClass(int idx) {
+		int size = data.limit();
+		MemoryMappingTree tree = new MemoryMappingTree();
+
+		try (Reader reader = newReader(data, 0, index.getHeaderEnd(size), index.getBlockStart(idx), index.getBlockEnd(idx, size))) {
+			Tiny2FileReader.read(reader, tree);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (tree.getClasses().size() != 1) throw new IllegalStateException("tiny index doesn't match the tiny file's class blocks");
+
+		return new ReparentedClassView(this, tree.getClasses().iterator().next());
+	}
+
+	private static Reader newReader(ByteBuffer data, int headerStart, int headerEnd, int blockStart, int blockEnd) {
+		return new InputStreamReader(new SequenceInputStream(new Tiny2Index.BufferInputStream(data, headerStart, headerEnd),
+				new Tiny2Index.BufferInputStream(data, blockStart, blockEnd)), StandardCharsets.UTF_8);
+	}
+
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	private final ByteBuffer data;
+	private final Tiny2Index index;
+	private final MemoryMappingTree header;
+	private final boolean escapedNames;
+	private final Map<Integer, ReparentedClassView> cache;
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+/**
+ * Bloom filter over class names, used for quickly rejecting lookups of classes that aren't present.
+ *
+ * <p>Uses the {@link String#hashCode()} algorithm as the base hash, so queries for a character range
+ * don't need to create a substring.
+ */
+final class ClassNameFilter {
+	ClassNameFilter(int capacity) {
+		this.capacity = Math.max(capacity, MIN_CAPACITY);
+
+		int bitCount = Integer.highestOneBit(this.capacity * BITS_PER_ENTRY - 1) << 1;
+		bits = new long[bitCount >>> 6];
+		mask = bitCount - 1;
+	}
+
+	void add(String name) {
+		int h1 = name.hashCode();
+		int h2 = mix(h1);
+
+		for (int i = 0; i < HASH_COUNT; i++) {
+			int idx = (h1 + i * h2) & mask;
+			bits[idx >>> 6] |= 1L << idx;
+		}
+
+		count++;
+	}
+
+	boolean mightContain(CharSequence name, int start, int end) {
+		int h1;
+
+		if (start == 0 && name instanceof String && end == name.length()) {
+			h1 = name.hashCode();
+		} else {
+			h1 = 0;
+
+			for (int i = start; i < end; i++) {
+				h1 = 31 * h1 + name.charAt(i);
+			}
+		}
+
+		int h2 = mix(h1);
+
+		for (int i = 0; i < HASH_COUNT; i++) {
+			int idx = (h1 + i * h2) & mask;
+			if ((bits[idx >>> 6] & 1L << idx) == 0) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Whether more names have been added than the filter was sized for, degrading its false positive rate.
+	 */
+	boolean isOverfilled() {
+		return count > capacity;
+	}
+
+	private static int mix(int hash) {
+		hash *= 0x9e3779b9;
+		hash ^= hash >>> 16;
+
+		return hash | 1; // odd, so all probe indices differ
+	}
+
+	private static final int MIN_CAPACITY = 64;
+	private static final int BITS_PER_ENTRY = 10;
+	private static final int HASH_COUNT = 4;
+
+	private final int capacity;
+	private final long[] bits;
+	private final int mask;
+	private int count;
+}
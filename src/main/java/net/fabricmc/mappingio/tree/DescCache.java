@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bounded, thread-safe cache of remapped descriptors, keyed by descriptor and namespace pair.
+ *
+ * <p>Entries are tagged with the owning tree's class name modification count at the time of their creation
+ * and treated as missing once it changed.
+ */
+final class DescCache {
+	DescCache(int maxSizePerNsPair) {
+		this.maxSizePerNsPair = maxSizePerNsPair;
+	}
+
+	@Nullable
+	String get(String desc, int srcNamespace, int dstNamespace, int namespaceCount, int modCount) {
+		Map<String, Entry> map = getMap(srcNamespace, dstNamespace, namespaceCount);
+		Entry entry = map.get(desc);
+
+		return entry != null && entry.modCount == modCount ? entry.mappedDesc : null;
+	}
+
+	void put(String desc, int srcNamespace, int dstNamespace, int namespaceCount, int modCount, String mappedDesc) {
+		Map<String, Entry> map = getMap(srcNamespace, dstNamespace, namespaceCount);
+		if (map.size() >= maxSizePerNsPair) map.clear();
+
+		map.put(desc, new Entry(modCount, desc.equals(mappedDesc) ? desc : mappedDesc));
+	}
+
+	private Map<String, Entry> getMap(int srcNamespace, int dstNamespace, int namespaceCount) {
+		AtomicReferenceArray<Map<String, Entry>> maps = this.maps;
+		int stride = namespaceCount + 1;
+
+		if (maps == null || maps.length() != stride * stride) {
+			this.maps = maps = new AtomicReferenceArray<>(stride * stride);
+		}
+
+		int idx = (srcNamespace + 1) * stride + dstNamespace + 1;
+		Map<String, Entry> ret = maps.get(idx);
+
+		if (ret == null) {
+			ret = new ConcurrentHashMap<>();
+			if (!maps.compareAndSet(idx, null, ret)) ret = maps.get(idx);
+		}
+
+		return ret;
+	}
+
+	private static final class Entry {
+		Entry(int modCount, String mappedDesc) {
+			this.modCount = modCount;
+			this.mappedDesc = mappedDesc;
+		}
+
+		final int modCount;
+		final String mappedDesc;
+	}
+
+	private final int maxSizePerNsPair;
+	private volatile AtomicReferenceArray<Map<String, Entry>> maps;
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Descriptor scanner shared by the {@code mapDesc} variants of {@link MappingTreeView}.
+ */
+final class DescMapper {
+	private DescMapper() {
+	}
+
+	/**
+	 * Remaps the descriptor's class names, appending the result to {@code out}.
+	 *
+	 * <p>Without {@code out}, a {@link StringBuilder} is only created once the first class name actually changes.
+	 *
+	 * @return {@code out}, the created {@link StringBuilder}, or {@code null} if {@code out} was {@code null} and
+	 * nothing changed.
+	 */
+	@Nullable
+	static Appendable mapDesc(MappingTreeView tree, CharSequence desc, int start, int end, int srcNamespace, int dstNamespace, @Nullable Appendable out) throws IOException {
+		int copyOffset = start;
+		int offset = start;
+
+		while (offset < end) {
+			char c = desc.charAt(offset++);
+
+			if (c == 'L') {
+				int idEnd = offset; // current identifier end, exclusive
+
+				while (idEnd < end) {
+					c = desc.charAt(idEnd);
+					if (c == ';') break;
+					idEnd++;
+				}
+
+				if (idEnd >= end) throw new IllegalArgumentException("invalid descriptor: "+desc.subSequence(start, end));
+
+				if (tree.mayContainClass(desc, offset, idEnd, srcNamespace)) {
+					String cls = desc.subSequence(offset, idEnd).toString();
+					String mappedCls = tree.mapClassName(cls, srcNamespace, dstNamespace);
+
+					if (mappedCls != null && !mappedCls.equals(cls)) {
+						if (out == null) out = new StringBuilder(end - start + 16);
+						out.append(desc, copyOffset, offset);
+						out.append(mappedCls);
+						copyOffset = idEnd;
+					}
+				}
+
+				offset = idEnd + 1;
+			}
+		}
+
+		if (out != null) out.append(desc, copyOffset, end);
+
+		return out;
+	}
+}
@@ -17,8 +17,11 @@
 package net.fabricmc.mappingio.tree;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.IntFunction;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -87,6 +90,22 @@ public interface MappingTreeView {
 		return null;
 	}
 
+	/**
+	 * Quickly checks whether a class may be present, without doing a full lookup.
+	 *
+	 * @return {@code false} if the class is definitely absent from the given namespace, {@code true} if it may be present.
+	 */
+	default boolean mayContainClass(String name, int namespace) {
+		return mayContainClass(name, 0, name.length(), namespace);
+	}
+
+	/**
+	 * @see MappingTreeView#mayContainClass(String, int)
+	 */
+	default boolean mayContainClass(CharSequence name, int start, int end, int namespace) {
+		return true;
+	}
+
 	/**
 	 * @see MappingTreeView#getField(String, String, String, int)
 	 */
@@ -126,6 +145,29 @@ public interface MappingTreeView {
 
 	void accept(MappingVisitor visitor, VisitOrder order) throws IOException;
 
+	/**
+	 * Visits the tree in multiple independent shards, each covering a contiguous range of the (sorted) classes.
+	 *
+	 * <p>Every shard is a complete visitation (header, metadata and content) of its own visitor, which may run on a
+	 * different thread than the other shards. Concatenating the shards' outputs in the returned order yields the same
+	 * class order as {@link #accept(MappingVisitor, VisitOrder)}.
+	 *
+	 * <p>The default implementation doesn't support concurrent visitation and uses a single shard.
+	 *
+	 * @param shardVisitorFactory Supplies the visitor for the shard with the passed index.
+	 * @param order The visitation order.
+	 * @param shards The maximum amount of shards to use.
+	 * @return The visitors of all used shards, in shard order.
+	 */
+	default <V extends MappingVisitor> List<V> parallelAccept(IntFunction<V> shardVisitorFactory, VisitOrder order, int shards) throws IOException {
+		if (shards < 1) throw new IllegalArgumentException("invalid shard count: "+shards);
+
+		V visitor = shardVisitorFactory.apply(0);
+		accept(visitor, order);
+
+		return Collections.singletonList(visitor);
+	}
+
 	default String mapClassName(String name, int namespace) {
 		return mapClassName(name, SRC_NAMESPACE_ID, namespace);
 	}
@@ -133,7 +175,7 @@ public interface MappingTreeView {
 	default String mapClassName(String name, int srcNamespace, int dstNamespace) {
 		assert name.indexOf('.') < 0;
 
-		if (srcNamespace == dstNamespace) return name;
+		if (srcNamespace == dstNamespace || !mayContainClass(name, srcNamespace)) return name;
 
 		ClassMappingView cls = getClass(name, srcNamespace);
 		if (cls == null) return name;
@@ -158,44 +200,29 @@ public interface MappingTreeView {
 	default String mapDesc(CharSequence desc, int start, int end, int srcNamespace, int dstNamespace) {
 		if (srcNamespace == dstNamespace) return desc.subSequence(start, end).toString();
 
-		StringBuilder ret = null;
-		int copyOffset = start;
-		int offset = start;
-
-		while (offset < end) {
-			char c = desc.charAt(offset++);
-
-			if (c == 'L') {
-				int idEnd = offset; // current identifier end, exclusive
-
-				while (idEnd < end) {
-					c = desc.charAt(idEnd);
-					if (c == ';') break;
-					idEnd++;
-				}
-
-				if (idEnd >= end) throw new IllegalArgumentException("invalid descriptor: "+desc.subSequence(start, end));
-
-				String cls = desc.subSequence(offset, idEnd).toString();
-				String mappedCls = mapClassName(cls, srcNamespace, dstNamespace);
-
-				if (mappedCls != null && !mappedCls.equals(cls)) {
-					if (ret == null) ret = new StringBuilder(end - start);
+		Appendable ret;
 
-					ret.append(desc, copyOffset, offset);
-					ret.append(mappedCls);
-					copyOffset = idEnd;
-				}
-
-				offset = idEnd + 1;
-			}
+		try {
+			ret = DescMapper.mapDesc(this, desc, start, end, srcNamespace, dstNamespace, null);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); // can't happen with a StringBuilder
 		}
 
-		if (ret == null) return desc.subSequence(start, end).toString();
+		// return the unchanged input as is, which avoids copying complete Strings
+		return ret != null ? ret.toString() : desc.subSequence(start, end).toString();
+	}
 
-		ret.append(desc, copyOffset, end);
+	/**
+	 * Remaps the given descriptor and appends the result to {@code out}, without allocating intermediate objects
+	 * for class names that don't need remapping.
+	 */
+	default void mapDesc(CharSequence desc, int start, int end, int srcNamespace, int dstNamespace, Appendable out) throws IOException {
+		if (srcNamespace == dstNamespace) {
+			out.append(desc, start, end);
+			return;
+		}
 
-		return ret.toString();
+		DescMapper.mapDesc(this, desc, start, end, srcNamespace, dstNamespace, out);
 	}
 
 	interface MetadataEntryView {
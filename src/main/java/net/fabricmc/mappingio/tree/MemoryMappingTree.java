@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,6 +32,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 import org.jetbrains.annotations.ApiStatus;
@@ -38,7 +42,9 @@ import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.mappingio.MappedElementKind;
 import net.fabricmc.mappingio.MappingFlag;
+import net.fabricmc.mappingio.MappingUtil;
 import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.cache.NameInterner;
 
 /**
  * {@link VisitableMappingTree} implementation that stores all data in memory.
@@ -97,6 +103,63 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		}
 	}
 
+	/**
+	 * Sets package prefixes (like {@code java/}) of classes that are assumed to be absent from the tree,
+	 * letting {@link #mayContainClass} reject them without any lookup.
+	 *
+	 * @param prefixes The package prefixes, or {@code null} to clear them.
+	 */
+	public void setExcludedPackagePrefixes(@Nullable Collection<String> prefixes) {
+		excludedPackagePrefixes = prefixes == null || prefixes.isEmpty() ? null : prefixes.toArray(new String[0]);
+	}
+
+	/**
+	 * Computes the destination descriptors of all members up front, using multiple threads.
+	 *
+	 * <p>Destination descriptors are otherwise computed lazily and cached until the next class name change.
+	 */
+	public void precomputeDstDescs() {
+		prepareConcurrentReads();
+
+		classesBySrcName.values().parallelStream().forEach(cls -> {
+			for (FieldEntry field : cls.getFields()) {
+				field.getDstDescs();
+			}
+
+			for (MethodEntry method : cls.getMethods()) {
+				method.getDstDescs();
+			}
+		});
+	}
+
+	/**
+	 * Eagerly initializes lazily built lookup structures, sparing concurrent readers from building them redundantly.
+	 *
+	 * <p>Concurrent read-only access is safe without calling this.
+	 */
+	public void prepareConcurrentReads() {
+		for (int i = SRC_NAMESPACE_ID; i < dstNamespaces.size(); i++) {
+			getClassFilter(i);
+		}
+	}
+
+	/**
+	 * Sets an interner to share equal names and descriptors with other trees, reducing the memory use of many
+	 * similar trees kept in memory at once.
+	 *
+	 * <p>Only affects names stored afterwards.
+	 *
+	 * @param interner The interner, or {@code null} to store names as passed.
+	 */
+	public void setNameInterner(@Nullable NameInterner interner) {
+		nameInterner = interner;
+	}
+
+	@Nullable
+	String intern(@Nullable String name) {
+		return nameInterner != null ? nameInterner.intern(name) : name;
+	}
+
 	@ApiStatus.Experimental
 	public void setHierarchyInfoProvider(@Nullable HierarchyInfoProvider<?> provider) {
 		hierarchyInfo = provider;
@@ -163,6 +226,8 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 
 		List<String> ret = dstNamespaces;
 		dstNamespaces = namespaces;
+		classFilters = null;
+		classNameModCount++;
 
 		if (indexByDstNames) {
 			initClassesByDstNames();
@@ -258,14 +323,109 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		}
 	}
 
+	@Override
+	public boolean mayContainClass(CharSequence name, int start, int end, int namespace) {
+		if (excludedPackagePrefixes != null) {
+			for (String prefix : excludedPackagePrefixes) {
+				if (startsWith(name, start, end, prefix)) return false;
+			}
+		}
+
+		return getClassFilter(namespace).mightContain(name, start, end);
+	}
+
+	@Override
+	public String mapDesc(CharSequence desc, int start, int end, int srcNamespace, int dstNamespace) {
+		if (srcNamespace == dstNamespace || start != 0 || !(desc instanceof String) || end != desc.length()) {
+			return VisitableMappingTree.super.mapDesc(desc, start, end, srcNamespace, dstNamespace);
+		}
+
+		String key = (String) desc;
+		int modCount = classNameModCount;
+		int nsCount = dstNamespaces.size();
+		String ret = descCache.get(key, srcNamespace, dstNamespace, nsCount, modCount);
+
+		if (ret == null) {
+			ret = VisitableMappingTree.super.mapDesc(desc, start, end, srcNamespace, dstNamespace);
+			descCache.put(key, srcNamespace, dstNamespace, nsCount, modCount, ret);
+		}
+
+		return ret;
+	}
+
+	private static boolean startsWith(CharSequence name, int start, int end, String prefix) {
+		if (end - start < prefix.length()) return false;
+
+		for (int i = 0; i < prefix.length(); i++) {
+			if (name.charAt(start + i) != prefix.charAt(i)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the class name filter for the namespace, building it if it's missing or overfilled.
+	 *
+	 * <p>Filters may be built by concurrent readers, so they're only published through {@link #classFilters} once
+	 * complete.
+	 */
+	private ClassNameFilter getClassFilter(int namespace) {
+		AtomicReferenceArray<ClassNameFilter> filters = classFilters;
+
+		if (filters == null) {
+			classFilters = filters = new AtomicReferenceArray<>(dstNamespaces.size() + 1);
+		}
+
+		int idx = Math.max(namespace, SRC_NAMESPACE_ID) + 1;
+		ClassNameFilter ret = filters.get(idx);
+
+		if (ret == null || ret.isOverfilled()) {
+			ret = new ClassNameFilter(classesBySrcName.size() * 2);
+
+			for (ClassEntry cls : classesBySrcName.values()) {
+				String name = namespace < 0 ? cls.srcName : cls.dstNames[namespace];
+				if (name != null) ret.add(name);
+			}
+
+			filters.set(idx, ret);
+		}
+
+		return ret;
+	}
+
+	private void addToClassFilter(String name, int namespace) {
+		AtomicReferenceArray<ClassNameFilter> filters = classFilters;
+		if (filters == null) return;
+
+		ClassNameFilter filter = filters.get(namespace + 1);
+		if (filter != null) filter.add(name);
+	}
+
+	private void invalidateClassFilter(int namespace) {
+		AtomicReferenceArray<ClassNameFilter> filters = classFilters;
+		if (filters != null) filters.set(namespace + 1, null);
+	}
+
 	@Override
 	public ClassMapping addClass(ClassMapping cls) {
 		ClassEntry entry = cls instanceof ClassEntry && cls.getTree() == this ? (ClassEntry) cls : new ClassEntry(this, cls, getSrcNsEquivalent(cls));
-		ClassEntry ret = classesBySrcName.putIfAbsent(cls.getSrcName(), entry);
+		ClassEntry ret = classesBySrcName.putIfAbsent(entry.srcName, entry);
 
 		if (ret != null) {
 			ret.copyFrom(entry, false);
 			entry = ret;
+		} else {
+			addToClassFilter(entry.srcName, SRC_NAMESPACE_ID);
+			classOrderModCount++;
+		}
+
+		for (int i = 0; i < entry.dstNames.length; i++) {
+			String dstName = entry.dstNames[i];
+
+			if (dstName != null) {
+				addToClassFilter(dstName, i);
+				classNameModCount++; // the class now maps to something, so cached misses may resolve
+			}
 		}
 
 		if (indexByDstNames) {
@@ -289,8 +449,12 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 	@Nullable
 	public ClassMapping removeClass(String srcName) {
 		ClassEntry ret = classesBySrcName.remove(srcName);
+		if (ret == null) return null;
 
-		if (ret != null && indexByDstNames) {
+		classFilters = null;
+		classNameModCount++;
+
+		if (indexByDstNames) {
 			for (int i = 0; i < ret.dstNames.length; i++) {
 				String dstName = ret.dstNames[i];
 				if (dstName != null) classesByDstNames[i].remove(dstName);
@@ -302,6 +466,72 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 
 	@Override
 	public void accept(MappingVisitor visitor, VisitOrder order) throws IOException {
+		acceptClasses(visitor, sortClasses(order), order);
+	}
+
+	/**
+	 * Performs a complete visitation (header, metadata and content) that only covers the supplied classes.
+	 *
+	 * <p>The classes are visited in the supplied order, their members according to {@code order}.
+	 *
+	 * @param classes The classes to visit, all of which have to be part of this tree.
+	 */
+	public void accept(MappingVisitor visitor, Collection<? extends ClassMappingView> classes, VisitOrder order) throws IOException {
+		List<ClassEntry> entries = new ArrayList<>(classes.size());
+
+		for (ClassMappingView cls : classes) {
+			if (!(cls instanceof ClassEntry) || ((ClassEntry) cls).tree != this) throw new IllegalArgumentException("class "+cls.getSrcName()+" isn't part of this tree");
+
+			entries.add((ClassEntry) cls);
+		}
+
+		acceptClasses(visitor, entries, order);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The shards are visited on the common fork-join pool, with each shard covering a similarly sized range of
+	 * classes. Modifying the tree while this method runs is not supported.
+	 */
+	@Override
+	public <V extends MappingVisitor> List<V> parallelAccept(IntFunction<V> shardVisitorFactory, VisitOrder order, int shards) throws IOException {
+		if (shards < 1) throw new IllegalArgumentException("invalid shard count: "+shards);
+
+		List<ClassEntry> classes = new ArrayList<>(sortClasses(order));
+		shards = Math.max(1, Math.min(shards, classes.size()));
+		List<V> ret = new ArrayList<>(shards);
+
+		for (int i = 0; i < shards; i++) {
+			ret.add(shardVisitorFactory.apply(i));
+		}
+
+		if (shards == 1) {
+			acceptClasses(ret.get(0), classes, order);
+
+			return ret;
+		}
+
+		prepareConcurrentReads();
+		List<Callable<Void>> tasks = new ArrayList<>(shards);
+
+		for (int i = 0; i < shards; i++) {
+			V visitor = ret.get(i);
+			List<ClassEntry> shardClasses = classes.subList((int) ((long) classes.size() * i / shards), (int) ((long) classes.size() * (i + 1) / shards));
+
+			tasks.add(() -> {
+				acceptClasses(visitor, shardClasses, order);
+
+				return null;
+			});
+		}
+
+		MappingUtil.invokeAll(tasks);
+
+		return ret;
+	}
+
+	private void acceptClasses(MappingVisitor visitor, Collection<ClassEntry> classes, VisitOrder order) throws IOException {
 		do {
 			if (visitor.visitHeader()) {
 				visitor.visitNamespaces(srcNamespace, dstNamespaces);
@@ -334,13 +564,41 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 				boolean supplyFieldDstDescs = flags.contains(MappingFlag.NEEDS_DST_FIELD_DESC);
 				boolean supplyMethodDstDescs = flags.contains(MappingFlag.NEEDS_DST_METHOD_DESC);
 
-				for (ClassEntry cls : order.sortClasses(classesBySrcName.values())) {
+				for (ClassEntry cls : classes) {
 					cls.accept(visitor, order, supplyFieldDstDescs, supplyMethodDstDescs);
 				}
 			}
 		} while (!visitor.visitEnd());
 	}
 
+	private Collection<ClassEntry> sortClasses(VisitOrder order) {
+		SortedElements<ClassEntry> sorted = sortCached(sortedClasses, classesBySrcName.values(), order.getClassComparator(), classOrderModCount + classNameModCount);
+		if (sorted == null) return order.sortClasses(classesBySrcName.values());
+
+		sortedClasses = sorted;
+
+		return sorted.elements;
+	}
+
+	/**
+	 * Sort the supplied elements, reusing the previous result if it was created for the same comparator and stamp.
+	 *
+	 * <p>Only the built-in comparators are eligible since they solely depend on source side keys, whose changes are
+	 * tracked by the stamp. Custom comparators may depend on arbitrary state and are always re-evaluated.
+	 *
+	 * @return the cached or freshly sorted elements, or {@code null} if the order isn't cacheable.
+	 */
+	@Nullable
+	private static <T> SortedElements<T> sortCached(@Nullable SortedElements<T> cached, Collection<T> values, @Nullable Comparator<? super T> comparator, int stamp) {
+		if (comparator == null || values.size() < 2 || !VisitOrder.isSrcKeyComparator(comparator)) return null;
+		if (cached != null && cached.comparator == comparator && cached.stamp == stamp) return cached;
+
+		List<T> ret = new ArrayList<>(values);
+		ret.sort(comparator);
+
+		return new SortedElements<>(comparator, stamp, Collections.unmodifiableList(ret));
+	}
+
 	@Override
 	public void reset() {
 		currentEntry = null;
@@ -352,6 +610,8 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 	public void visitNamespaces(String srcNamespace, List<String> dstNamespaces) {
 		srcNsMap = SRC_NAMESPACE_ID;
 		dstNameMap = new int[dstNamespaces.size()];
+		classFilters = null;
+		classNameModCount++;
 
 		if (this.srcNamespace != null) { // ns already set, try to merge
 			if (!srcNamespace.equals(this.srcNamespace)) {
@@ -427,7 +687,9 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 				cls.setDstName(srcName, srcNsMap);
 			} else {
 				cls = new ClassEntry(this, srcName);
-				classesBySrcName.put(srcName, cls);
+				classesBySrcName.put(cls.srcName, cls);
+				addToClassFilter(srcName, SRC_NAMESPACE_ID);
+				classOrderModCount++; // no dst names yet, so cached mappings stay valid
 			}
 		}
 
@@ -519,6 +781,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			if (field == null) {
 				member.srcName = name;
 				member.setSrcDesc(desc);
+				memberOrderModCount++;
 			} else { // copy remaining data
 				field.copyFrom((FieldEntry) member, false);
 			}
@@ -528,6 +791,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			if (method == null) {
 				member.srcName = name;
 				member.setSrcDesc(desc);
+				memberOrderModCount++;
 			} else { // copy remaining data
 				method.copyFrom((MethodEntry) member, false);
 			}
@@ -666,7 +930,8 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 				assert currentClass == currentEntry;
 
 				if (currentClass.srcName == null) {
-					currentClass.srcName = name;
+					currentClass.srcName = intern(name);
+					classNameModCount++;
 				} else {
 					throw new UnsupportedOperationException("can't change src name for "+currentEntry.getKind());
 				}
@@ -713,7 +978,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 	abstract static class Entry<T extends Entry<T>> implements ElementMapping {
 		protected Entry(MemoryMappingTree tree, String srcName) {
 			this.tree = tree;
-			this.srcName = srcName;
+			this.srcName = tree.intern(srcName);
 			this.dstNames = new String[tree.dstNamespaces.size()];
 		}
 
@@ -746,7 +1011,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 
 		@Override
 		public void setDstName(String name, int namespace) {
-			dstNames[namespace] = name;
+			dstNames[namespace] = tree.intern(name);
 		}
 
 		void resizeDstNames(int newSize) {
@@ -853,10 +1118,11 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 
 		@Override
 		public void setDstName(String name, int namespace) {
-			if (tree.indexByDstNames) {
-				String oldName = dstNames[namespace];
+			name = tree.intern(name);
+			String oldName = dstNames[namespace];
 
-				if (!Objects.equals(name, oldName)) {
+			if (!Objects.equals(name, oldName)) {
+				if (tree.indexByDstNames) {
 					Map<String, ClassEntry> map = tree.classesByDstNames[namespace];
 					if (oldName != null) map.remove(oldName);
 
@@ -866,6 +1132,10 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 						map.remove(oldName);
 					}
 				}
+
+				if (oldName != null) tree.invalidateClassFilter(namespace);
+				if (name != null) tree.addToClassFilter(name, namespace);
+				tree.classNameModCount++;
 			}
 
 			super.setDstName(name, namespace);
@@ -903,7 +1173,10 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Nullable
 		public FieldEntry removeField(String srcName, @Nullable String srcDesc) {
 			FieldEntry ret = getField(srcName, srcDesc);
-			if (ret != null) fields.remove(ret.key);
+			if (ret == null) return null;
+
+			fields.remove(ret.key);
+			tree.memberOrderModCount++;
 
 			return ret;
 		}
@@ -940,7 +1213,10 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Nullable
 		public MethodEntry removeMethod(String srcName, @Nullable String srcDesc) {
 			MethodEntry ret = getMethod(srcName, srcDesc);
-			if (ret != null) methods.remove(ret.key);
+			if (ret == null) return null;
+
+			methods.remove(ret.key);
+			tree.memberOrderModCount++;
 
 			return ret;
 		}
@@ -1005,6 +1281,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		}
 
 		private <T extends MemberEntry<T>> T addMember(T entry, Map<MemberKey, T> map, int flagHasAny, int flagMissesAny) {
+			tree.memberOrderModCount++;
 			T ret = map.putIfAbsent(entry.key, entry);
 
 			if (ret != null) { // same desc
@@ -1050,25 +1327,43 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 				boolean methodsFirst = order.isMethodsFirst() && fields != null && methods != null;
 
 				if (!methodsFirst && fields != null) {
-					for (FieldEntry field : order.sortFields(fields.values())) {
+					for (FieldEntry field : sortFields(order)) {
 						field.accept(visitor, supplyFieldDstDescs);
 					}
 				}
 
 				if (methods != null) {
-					for (MethodEntry method : order.sortMethods(methods.values())) {
+					for (MethodEntry method : sortMethods(order)) {
 						method.accept(visitor, order, supplyMethodDstDescs);
 					}
 				}
 
 				if (methodsFirst) {
-					for (FieldEntry field : order.sortFields(fields.values())) {
+					for (FieldEntry field : sortFields(order)) {
 						field.accept(visitor, supplyFieldDstDescs);
 					}
 				}
 			}
 		}
 
+		private Collection<FieldEntry> sortFields(VisitOrder order) {
+			SortedElements<FieldEntry> sorted = sortCached(sortedFields, fields.values(), order.getFieldComparator(), tree.memberOrderModCount);
+			if (sorted == null) return order.sortFields(fields.values());
+
+			sortedFields = sorted;
+
+			return sorted.elements;
+		}
+
+		private Collection<MethodEntry> sortMethods(VisitOrder order) {
+			SortedElements<MethodEntry> sorted = sortCached(sortedMethods, methods.values(), order.getMethodComparator(), tree.memberOrderModCount);
+			if (sorted == null) return order.sortMethods(methods.values());
+
+			sortedMethods = sorted;
+
+			return sorted.elements;
+		}
+
 		@Override
 		protected void copyFrom(ClassEntry o, boolean replace) {
 			super.copyFrom(o, replace);
@@ -1085,6 +1380,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 							field.key = oField.key;
 							field.srcDesc = oField.srcDesc;
 							fields.put(field.key, field);
+							tree.memberOrderModCount++;
 
 							flags |= FLAG_HAS_ANY_FIELD_DESC;
 						}
@@ -1106,6 +1402,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 							method.key = oMethod.key;
 							method.srcDesc = oMethod.srcDesc;
 							methods.put(method.key, method);
+							tree.memberOrderModCount++;
 
 							flags |= FLAG_HAS_ANY_METHOD_DESC;
 						}
@@ -1129,6 +1426,8 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		private Map<MemberKey, FieldEntry> fields = null;
 		private Map<MemberKey, MethodEntry> methods = null;
 		private byte flags;
+		private SortedElements<FieldEntry> sortedFields;
+		private SortedElements<MethodEntry> sortedMethods;
 	}
 
 	abstract static class MemberEntry<T extends MemberEntry<T>> extends Entry<T> implements MemberMapping {
@@ -1136,15 +1435,15 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			super(owner.tree, srcName);
 
 			this.owner = owner;
-			this.srcDesc = srcDesc;
-			this.key = new MemberKey(srcName, srcDesc);
+			this.srcDesc = tree.intern(srcDesc);
+			this.key = new MemberKey(this.srcName, this.srcDesc);
 		}
 
 		protected MemberEntry(ClassEntry owner, MemberMapping src, int srcNsEquivalent) {
 			super(owner.tree, src, srcNsEquivalent);
 
 			this.owner = owner;
-			this.srcDesc = src.getDesc(srcNsEquivalent);
+			this.srcDesc = tree.intern(src.getDesc(srcNsEquivalent));
 			this.key = new MemberKey(srcName, srcDesc);
 		}
 
@@ -1164,26 +1463,70 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			return srcDesc;
 		}
 
-		protected final boolean acceptMember(MappingVisitor visitor, boolean supplyDstDescs) throws IOException {
-			String[] dstDescs;
+		@Override
+		@Nullable
+		public String getDstDesc(int namespace) {
+			String[] dstDescs = getDstDescs();
 
-			if (!supplyDstDescs || srcDesc == null) {
-				dstDescs = null;
-			} else {
-				MappingTree tree = owner.tree;
-				dstDescs = new String[tree.getDstNamespaces().size()];
+			return dstDescs != null ? dstDescs[namespace] : null;
+		}
+
+		@Override
+		@Nullable
+		public String getDesc(int namespace) {
+			return namespace < 0 ? srcDesc : getDstDesc(namespace);
+		}
+
+		/**
+		 * @return The cached destination descriptors for all namespaces, or {@code null} if there's no source descriptor.
+		 * The returned array must not be modified.
+		 */
+		@Nullable
+		final String[] getDstDescs() {
+			String srcDesc = this.srcDesc;
+			if (srcDesc == null) return null;
+
+			MemoryMappingTree tree = owner.tree;
+			int modCount = tree.classNameModCount;
+			DstDescCache cache = dstDescCache;
+
+			if (cache == null || cache.modCount != modCount || cache.srcDesc != srcDesc) {
+				String[] dstDescs = new String[tree.dstNamespaces.size()];
 
 				for (int i = 0; i < dstDescs.length; i++) {
 					dstDescs[i] = tree.mapDesc(srcDesc, i);
 				}
+
+				dstDescCache = cache = new DstDescCache(modCount, srcDesc, dstDescs);
 			}
 
-			return acceptElement(visitor, dstDescs);
+			return cache.dstDescs;
+		}
+
+		protected final boolean acceptMember(MappingVisitor visitor, boolean supplyDstDescs) throws IOException {
+			return acceptElement(visitor, supplyDstDescs ? getDstDescs() : null);
 		}
 
 		protected final ClassEntry owner;
 		protected String srcDesc;
 		MemberKey key;
+		private DstDescCache dstDescCache;
+	}
+
+	/**
+	 * Immutable snapshot of a member's destination descriptors, valid as long as the tree's class names and the
+	 * member's source descriptor stay the same.
+	 */
+	private static final class DstDescCache {
+		DstDescCache(int modCount, String srcDesc, String[] dstDescs) {
+			this.modCount = modCount;
+			this.srcDesc = srcDesc;
+			this.dstDescs = dstDescs;
+		}
+
+		final int modCount;
+		final String srcDesc;
+		final String[] dstDescs;
 	}
 
 	static final class FieldEntry extends MemberEntry<FieldEntry> implements FieldMapping {
@@ -1203,6 +1546,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Override
 		public void setSrcDesc(@Nullable String desc) {
 			if (Objects.equals(desc, srcDesc)) return;
+			desc = tree.intern(desc);
 
 			MemberKey newKey = new MemberKey(srcName, desc);
 			if (owner.fields.containsKey(newKey)) throw new IllegalArgumentException("conflicting name+desc after changing desc to "+desc+" for "+this);
@@ -1211,6 +1555,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			srcDesc = desc;
 			key = newKey;
 			owner.fields.put(newKey, this);
+			tree.memberOrderModCount++;
 
 			if (desc != null) {
 				owner.flags |= ClassEntry.FLAG_HAS_ANY_FIELD_DESC;
@@ -1256,6 +1601,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Override
 		public void setSrcDesc(@Nullable String desc) {
 			if (Objects.equals(desc, srcDesc)) return;
+			desc = tree.intern(desc);
 
 			MemberKey newKey = new MemberKey(srcName, desc);
 			if (owner.methods.containsKey(newKey)) throw new IllegalArgumentException("conflicting name+desc after changing desc to "+desc+" for "+this);
@@ -1264,6 +1610,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			srcDesc = desc;
 			key = newKey;
 			owner.methods.put(newKey, this);
+			tree.memberOrderModCount++;
 
 			if (desc != null && !desc.endsWith(")")) {
 				owner.flags |= ClassEntry.FLAG_HAS_ANY_METHOD_DESC;
@@ -1315,6 +1662,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			if (prev == null) {
 				if (args == null) args = new ArrayList<>();
 				args.add(entry);
+				tree.memberOrderModCount++;
 			} else {
 				updateArg(prev, entry, false);
 			}
@@ -1333,7 +1681,10 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Nullable
 		public MethodArgEntry removeArg(int argPosition, int lvIndex, @Nullable String srcName) {
 			MethodArgEntry ret = getArg(argPosition, lvIndex, srcName);
-			if (ret != null) args.remove(ret);
+			if (ret == null) return null;
+
+			args.remove(ret);
+			tree.memberOrderModCount++;
 
 			return ret;
 		}
@@ -1428,6 +1779,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			if (prev == null) {
 				if (vars == null) vars = new ArrayList<>();
 				vars.add(entry);
+				tree.memberOrderModCount++;
 			} else {
 				updateVar(prev, entry, false);
 			}
@@ -1449,7 +1801,10 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Nullable
 		public MethodVarEntry removeVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) {
 			MethodVarEntry ret = getVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcName);
-			if (ret != null) vars.remove(ret);
+			if (ret == null) return null;
+
+			vars.remove(ret);
+			tree.memberOrderModCount++;
 
 			return ret;
 		}
@@ -1459,25 +1814,43 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 				boolean varsFirst = order.isMethodVarsFirst() && args != null && vars != null;
 
 				if (!varsFirst && args != null) {
-					for (MethodArgEntry arg : order.sortMethodArgs(args)) {
+					for (MethodArgEntry arg : sortArgs(order)) {
 						arg.accept(visitor);
 					}
 				}
 
 				if (vars != null) {
-					for (MethodVarEntry var : order.sortMethodVars(vars)) {
+					for (MethodVarEntry var : sortVars(order)) {
 						var.accept(visitor);
 					}
 				}
 
 				if (varsFirst) {
-					for (MethodArgEntry arg : order.sortMethodArgs(args)) {
+					for (MethodArgEntry arg : sortArgs(order)) {
 						arg.accept(visitor);
 					}
 				}
 			}
 		}
 
+		private Collection<MethodArgEntry> sortArgs(VisitOrder order) {
+			SortedElements<MethodArgEntry> sorted = sortCached(sortedArgs, args, order.getMethodArgComparator(), tree.memberOrderModCount);
+			if (sorted == null) return order.sortMethodArgs(args);
+
+			sortedArgs = sorted;
+
+			return sorted.elements;
+		}
+
+		private Collection<MethodVarEntry> sortVars(VisitOrder order) {
+			SortedElements<MethodVarEntry> sorted = sortCached(sortedVars, vars, order.getMethodVarComparator(), tree.memberOrderModCount);
+			if (sorted == null) return order.sortMethodVars(vars);
+
+			sortedVars = sorted;
+
+			return sorted.elements;
+		}
+
 		@Override
 		protected void copyFrom(MethodEntry o, boolean replace) {
 			super.copyFrom(o, replace);
@@ -1514,6 +1887,8 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 
 		private List<MethodArgEntry> args = null;
 		private List<MethodVarEntry> vars = null;
+		private SortedElements<MethodArgEntry> sortedArgs;
+		private SortedElements<MethodVarEntry> sortedVars;
 	}
 
 	static final class MethodArgEntry extends Entry<MethodArgEntry> implements MethodArgMapping {
@@ -1556,6 +1931,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Override
 		public void setArgPosition(int position) {
 			this.argPosition = position;
+			tree.memberOrderModCount++;
 		}
 
 		@Override
@@ -1566,10 +1942,11 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Override
 		public void setLvIndex(int index) {
 			this.lvIndex = index;
+			tree.memberOrderModCount++;
 		}
 
 		public void setSrcName(@Nullable String name) {
-			this.srcName = name;
+			this.srcName = tree.intern(name);
 		}
 
 		void accept(MappingVisitor visitor) throws IOException {
@@ -1641,6 +2018,7 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		@Override
 		public void setLvtRowIndex(int index) {
 			this.lvtRowIndex = index;
+			tree.memberOrderModCount++;
 		}
 
 		@Override
@@ -1663,10 +2041,11 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 			this.lvIndex = lvIndex;
 			this.startOpIdx = startOpIdx;
 			this.endOpIdx = endOpIdx;
+			tree.memberOrderModCount++;
 		}
 
 		public void setSrcName(@Nullable String name) {
-			this.srcName = name;
+			this.srcName = tree.intern(name);
 		}
 
 		void accept(MappingVisitor visitor) throws IOException {
@@ -1696,6 +2075,22 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		private int endOpIdx;
 	}
 
+	/**
+	 * Immutable snapshot of elements sorted by a built-in {@link VisitOrder} comparator, valid as long as the stamp
+	 * it was created with matches the owning tree's.
+	 */
+	private static final class SortedElements<T> {
+		SortedElements(Comparator<?> comparator, int stamp, List<T> elements) {
+			this.comparator = comparator;
+			this.stamp = stamp;
+			this.elements = elements;
+		}
+
+		final Comparator<?> comparator;
+		final int stamp;
+		final List<T> elements;
+	}
+
 	static final class MemberKey {
 		MemberKey(String name, @Nullable String desc) {
 			this.name = name;
@@ -1812,14 +2207,35 @@ public final class MemoryMappingTree implements VisitableMappingTree {
 		private final boolean isField;
 	}
 
+	private static final int DESC_CACHE_SIZE = 1 << 14;
+
 	private boolean indexByDstNames;
 	private String srcNamespace;
 	private List<String> dstNamespaces = Collections.emptyList();
 	private final List<MetadataEntry> metadata = new ArrayList<>();
 	private final Map<String, ClassEntry> classesBySrcName = new LinkedHashMap<>();
 	private Map<String, ClassEntry>[] classesByDstNames;
+	private volatile AtomicReferenceArray<ClassNameFilter> classFilters;
+	/**
+	 * Incremented whenever class names may have changed, invalidating cached destination descriptors.
+	 */
+	private int classNameModCount;
+	/**
+	 * Incremented whenever classes are added or removed without changing any class name mapping, invalidating the
+	 * cached class sort order together with {@link #classNameModCount}.
+	 */
+	private int classOrderModCount;
+	/**
+	 * Incremented whenever members, method args or method vars are added, removed or change their source side keys,
+	 * invalidating cached sort orders.
+	 */
+	private int memberOrderModCount;
+	private final DescCache descCache = new DescCache(DESC_CACHE_SIZE);
+	private String[] excludedPackagePrefixes;
+	private SortedElements<ClassEntry> sortedClasses;
 
 	private HierarchyInfoProvider<?> hierarchyInfo;
+	private NameInterner nameInterner;
 
 	private int srcNsMap;
 	private int[] dstNameMap;
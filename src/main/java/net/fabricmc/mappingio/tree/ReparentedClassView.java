@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ElementMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.FieldMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MemberMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodArgMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodVarMappingView;
+
+/**
+ * Class view delegating to a class of another tree, typically a small one holding a single parsed class, while
+ * reporting the supplied tree as its and its members' tree.
+ *
+ * <p>This allows lazily loaded tree views to expose partially parsed content that still maps descriptors and resolves
+ * owners through the complete view.
+ */
+@ApiStatus.Internal
+public final class ReparentedClassView implements ClassMappingView {
+	public ReparentedClassView(MappingTreeView tree, ClassMappingView delegate) {
+		this.tree = tree;
+		this.delegate = delegate;
+
+		List<FieldWrapper> fields = new ArrayList<>(delegate.getFields().size());
+
+		for (FieldMappingView field : delegate.getFields()) {
+			FieldWrapper wrapper = new FieldWrapper(this, field);
+			fields.add(wrapper);
+			wrappers.put(field, wrapper);
+		}
+
+		List<MethodWrapper> methods = new ArrayList<>(delegate.getMethods().size());
+
+		for (MethodMappingView method : delegate.getMethods()) {
+			MethodWrapper wrapper = new MethodWrapper(this, method);
+			methods.add(wrapper);
+			wrappers.put(method, wrapper);
+		}
+
+		this.fields = Collections.unmodifiableList(fields);
+		this.methods = Collections.unmodifiableList(methods);
+	}
+
+	@Override
+	public MappingTreeView getTree() {
+		return tree;
+	}
+
+	@Override
+	public String getSrcName() {
+		return delegate.getSrcName();
+	}
+
+	@Override
+	@Nullable
+	public String getDstName(int namespace) {
+		return delegate.getDstName(namespace);
+	}
+
+	@Override
+	@Nullable
+	public String getComment() {
+		return delegate.getComment();
+	}
+
+	@Override
+	public List<? extends FieldMappingView> getFields() {
+		return fields;
+	}
+
+	@Override
+	@Nullable
+	public FieldMappingView getField(String srcName, @Nullable String srcDesc) {
+		return (FieldMappingView) wrappers.get(delegate.getField(srcName, srcDesc));
+	}
+
+	@Override
+	public List<? extends MethodMappingView> getMethods() {
+		return methods;
+	}
+
+	@Override
+	@Nullable
+	public MethodMappingView getMethod(String srcName, @Nullable String srcDesc) {
+		return (MethodMappingView) wrappers.get(delegate.getMethod(srcName, srcDesc));
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	private static class ElementWrapper<T extends ElementMappingView> implements ElementMappingView {
+		ElementWrapper(MappingTreeView tree, T delegate) {
+			this.tree = tree;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public MappingTreeView getTree() {
+			return tree;
+		}
+
+		@Override
+		public String getSrcName() {
+			return delegate.getSrcName();
+		}
+
+		@Override
+		@Nullable
+		public String getDstName(int namespace) {
+			return delegate.getDstName(namespace);
+		}
+
+		@Override
+		@Nullable
+		public String getComment() {
+			return delegate.getComment();
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+
+		protected final MappingTreeView tree;
+		protected final T delegate;
+	}
+
+	private abstract static class MemberWrapper<T extends MemberMappingView> extends ElementWrapper<T> implements MemberMappingView {
+		MemberWrapper(ReparentedClassView owner, T delegate) {
+			super(owner.tree, delegate);
+
+			this.owner = owner;
+		}
+
+		@Override
+		public ReparentedClassView getOwner() {
+			return owner;
+		}
+
+		@Override
+		@Nullable
+		public String getSrcDesc() {
+			return delegate.getSrcDesc();
+		}
+
+		private final ReparentedClassView owner;
+	}
+
+	private static final class FieldWrapper extends MemberWrapper<FieldMappingView> implements FieldMappingView {
+		FieldWrapper(ReparentedClassView owner, FieldMappingView delegate) {
+			super(owner, delegate);
+		}
+	}
+
+	private static final class MethodWrapper extends MemberWrapper<MethodMappingView> implements MethodMappingView {
+		MethodWrapper(ReparentedClassView owner, MethodMappingView delegate) {
+			super(owner, delegate);
+
+			List<ArgWrapper> args = new ArrayList<>(delegate.getArgs().size());
+
+			for (MethodArgMappingView arg : delegate.getArgs()) {
+				ArgWrapper wrapper = new ArgWrapper(this, arg);
+				args.add(wrapper);
+				owner.wrappers.put(arg, wrapper);
+			}
+
+			List<VarWrapper> vars = new ArrayList<>(delegate.getVars().size());
+
+			for (MethodVarMappingView var : delegate.getVars()) {
+				VarWrapper wrapper = new VarWrapper(this, var);
+				vars.add(wrapper);
+				owner.wrappers.put(var, wrapper);
+			}
+
+			this.args = Collections.unmodifiableList(args);
+			this.vars = Collections.unmodifiableList(vars);
+		}
+
+		@Override
+		public List<ArgWrapper> getArgs() {
+			return args;
+		}
+
+		@Override
+		@Nullable
+		public ArgWrapper getArg(int argPosition, int lvIndex, @Nullable String srcName) {
+			return (ArgWrapper) getOwner().wrappers.get(delegate.getArg(argPosition, lvIndex, srcName));
+		}
+
+		@Override
+		public List<VarWrapper> getVars() {
+			return vars;
+		}
+
+		@Override
+		@Nullable
+		public VarWrapper getVar(int lvtRowIndex, int lvIndex, int startOpIdx, int endOpIdx, @Nullable String srcName) {
+			return (VarWrapper) getOwner().wrappers.get(delegate.getVar(lvtRowIndex, lvIndex, startOpIdx, endOpIdx, srcName));
+		}
+
+		private final List<ArgWrapper> args;
+		private final List<VarWrapper> vars;
+	}
+
+	private static final class ArgWrapper extends ElementWrapper<MethodArgMappingView> implements MethodArgMappingView {
+		ArgWrapper(MethodWrapper method, MethodArgMappingView delegate) {
+			super(method.tree, delegate);
+
+			this.method = method;
+		}
+
+		@Override
+		public MethodWrapper getMethod() {
+			return method;
+		}
+
+		@Override
+		public int getArgPosition() {
+			return delegate.getArgPosition();
+		}
+
+		@Override
+		public int getLvIndex() {
+			return delegate.getLvIndex();
+		}
+
+		private final MethodWrapper method;
+	}
+
+	private static final class VarWrapper extends ElementWrapper<MethodVarMappingView> implements MethodVarMappingView {
+		VarWrapper(MethodWrapper method, MethodVarMappingView delegate) {
+			super(method.tree, delegate);
+
+			this.method = method;
+		}
+
+		@Override
+		public MethodWrapper getMethod() {
+			return method;
+		}
+
+		@Override
+		public int getLvtRowIndex() {
+			return delegate.getLvtRowIndex();
+		}
+
+		@Override
+		public int getLvIndex() {
+			return delegate.getLvIndex();
+		}
+
+		@Override
+		public int getStartOpIdx() {
+			return delegate.getStartOpIdx();
+		}
+
+		@Override
+		public int getEndOpIdx() {
+			return delegate.getEndOpIdx();
+		}
+
+		private final MethodWrapper method;
+	}
+
+	private final MappingTreeView tree;
+	private final ClassMappingView delegate;
+	private final List<FieldWrapper> fields;
+	private final List<MethodWrapper> methods;
+	private final Map<ElementMappingView, ElementWrapper<?>> wrappers = new IdentityHashMap<>();
+}
@@ -92,11 +92,11 @@ public final class VisitOrder {
 	}
 
 	public VisitOrder methodArgsByPosition() {
-		return methodArgComparator(Comparator.comparingInt(MethodArgMappingView::getArgPosition));
+		return methodArgComparator(ARGS_BY_POSITION);
 	}
 
 	public VisitOrder methodArgsByLvIndex() {
-		return methodArgComparator(Comparator.comparingInt(MethodArgMappingView::getLvIndex));
+		return methodArgComparator(ARGS_BY_LV_INDEX);
 	}
 
 	public VisitOrder methodVarComparator(Comparator<MethodVarMappingView> comparator) {
@@ -106,11 +106,11 @@ public final class VisitOrder {
 	}
 
 	public VisitOrder methodVarsByLvtRowIndex() {
-		return methodVarComparator(Comparator.comparingInt(MethodVarMappingView::getLvIndex).thenComparingInt(MethodVarMappingView::getLvtRowIndex));
+		return methodVarComparator(VARS_BY_LVT_ROW_INDEX);
 	}
 
 	public VisitOrder methodVarsByLvIndex() {
-		return methodVarComparator(Comparator.comparingInt(MethodVarMappingView::getLvIndex).thenComparingInt(MethodVarMappingView::getStartOpIdx));
+		return methodVarComparator(VARS_BY_LV_INDEX);
 	}
 
 	public VisitOrder methodsFirst(boolean methodsFirst) {
@@ -143,20 +143,19 @@ public final class VisitOrder {
 
 	// customization helpers
 
+	@SuppressWarnings("unchecked")
 	public static <T extends ElementMappingView> Comparator<T> compareBySrcName() {
-		return (a, b) -> compare(a.getSrcName(), b.getSrcName());
+		return (Comparator<T>) BY_SRC_NAME;
 	}
 
+	@SuppressWarnings("unchecked")
 	public static <T extends MemberMappingView> Comparator<T> compareBySrcNameDesc() {
-		return (a, b) -> {
-			int cmp = compare(a.getSrcName(), b.getSrcName());
-
-			return cmp != 0 ? cmp : compare(a.getSrcDesc(), b.getSrcDesc());
-		};
+		return (Comparator<T>) BY_SRC_NAME_DESC;
 	}
 
+	@SuppressWarnings("unchecked")
 	public static <T extends ElementMappingView> Comparator<T> compareBySrcNameShortFirst() {
-		return (a, b) -> compareShortFirst(a.getSrcName(), b.getSrcName());
+		return (Comparator<T>) BY_SRC_NAME_SHORT_FIRST;
 	}
 
 	public static int compare(@Nullable String a, @Nullable String b) {
@@ -261,6 +260,45 @@ public final class VisitOrder {
 		return ret;
 	}
 
+	@Nullable
+	Comparator<ClassMappingView> getClassComparator() {
+		return classComparator;
+	}
+
+	@Nullable
+	Comparator<FieldMappingView> getFieldComparator() {
+		return fieldComparator;
+	}
+
+	@Nullable
+	Comparator<MethodMappingView> getMethodComparator() {
+		return methodComparator;
+	}
+
+	@Nullable
+	Comparator<MethodArgMappingView> getMethodArgComparator() {
+		return methodArgComparator;
+	}
+
+	@Nullable
+	Comparator<MethodVarMappingView> getMethodVarComparator() {
+		return methodVarComparator;
+	}
+
+	/**
+	 * Whether the comparator is one of the built-in ones, which only depend on source side keys (names, descriptors,
+	 * indices) and thus yield a stable order as long as the tree's structure doesn't change.
+	 */
+	static boolean isSrcKeyComparator(Comparator<?> comparator) {
+		return comparator == BY_SRC_NAME
+				|| comparator == BY_SRC_NAME_DESC
+				|| comparator == BY_SRC_NAME_SHORT_FIRST
+				|| comparator == ARGS_BY_POSITION
+				|| comparator == ARGS_BY_LV_INDEX
+				|| comparator == VARS_BY_LVT_ROW_INDEX
+				|| comparator == VARS_BY_LV_INDEX;
+	}
+
 	public boolean isMethodsFirst() {
 		return methodsFirst;
 	}
@@ -269,6 +307,18 @@ public final class VisitOrder {
 		return methodVarsFirst;
 	}
 
+	private static final Comparator<ElementMappingView> BY_SRC_NAME = (a, b) -> compare(a.getSrcName(), b.getSrcName());
+	private static final Comparator<MemberMappingView> BY_SRC_NAME_DESC = (a, b) -> {
+		int cmp = compare(a.getSrcName(), b.getSrcName());
+
+		return cmp != 0 ? cmp : compare(a.getSrcDesc(), b.getSrcDesc());
+	};
+	private static final Comparator<ElementMappingView> BY_SRC_NAME_SHORT_FIRST = (a, b) -> compareShortFirst(a.getSrcName(), b.getSrcName());
+	private static final Comparator<MethodArgMappingView> ARGS_BY_POSITION = Comparator.comparingInt(MethodArgMappingView::getArgPosition);
+	private static final Comparator<MethodArgMappingView> ARGS_BY_LV_INDEX = Comparator.comparingInt(MethodArgMappingView::getLvIndex);
+	private static final Comparator<MethodVarMappingView> VARS_BY_LVT_ROW_INDEX = Comparator.comparingInt(MethodVarMappingView::getLvIndex).thenComparingInt(MethodVarMappingView::getLvtRowIndex);
+	private static final Comparator<MethodVarMappingView> VARS_BY_LV_INDEX = Comparator.comparingInt(MethodVarMappingView::getLvIndex).thenComparingInt(MethodVarMappingView::getStartOpIdx);
+
 	private Comparator<ClassMappingView> classComparator;
 	private Comparator<FieldMappingView> fieldComparator;
 	private Comparator<MethodMappingView> methodComparator;
@@ -17,6 +17,7 @@
 package net.fabricmc.mappingio;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -30,6 +31,7 @@ import org.jetbrains.annotations.Nullable;
 import net.fabricmc.mappingio.format.MappingFormat;
 import net.fabricmc.mappingio.tree.MappingTreeView;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
+import net.fabricmc.mappingio.tree.VisitOrder;
 
 public final class TestHelper {
 	public static Path getResource(String slashPrefixedResourcePath) {
@@ -73,6 +75,8 @@ public final class TestHelper {
 			return "jobf.jobf";
 		case RGS_FILE:
 			return "rgs.rgs";
+		case BINARY_FILE:
+			return "binary.miob";
 		default:
 			return null;
 		}
@@ -102,6 +106,7 @@ public final class TestHelper {
 		case RECAF_SIMPLE_FILE:
 		case JOBF_FILE:
 		case RGS_FILE:
+		case BINARY_FILE:
 			return null;
 		default:
 			throw new IllegalArgumentException("Unknown format: " + format);
@@ -134,6 +139,7 @@ public final class TestHelper {
 		case RECAF_SIMPLE_FILE:
 		case JOBF_FILE:
 		case RGS_FILE:
+		case BINARY_FILE:
 			return null;
 		default:
 			throw new IllegalArgumentException("Unknown format: " + format);
@@ -146,6 +152,19 @@ public final class TestHelper {
 		return path;
 	}
 
+	/**
+	 * Writes the tree as Tiny v2 sorted by name, for comparing trees regardless of their input order.
+	 */
+	public static String writeToString(MappingTreeView tree) throws IOException {
+		return writeToString(tree, MappingFormat.TINY_2_FILE, VisitOrder.createByName());
+	}
+
+	public static String writeToString(MappingTreeView tree, MappingFormat format, VisitOrder order) throws IOException {
+		StringWriter ret = new StringWriter();
+		tree.accept(MappingWriter.create(ret, format), order);
+		return ret.toString();
+	}
+
 	// Has to be kept in sync with /resources/read/valid/* test mappings!
 	public static MemoryMappingTree createTestTree() {
 		MemoryMappingTree tree = new MemoryMappingTree();
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.format;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class Utf8FileWriterTest {
+	@TempDir
+	private static Path dir;
+
+	@Test
+	public void encoding() throws IOException {
+		Path file = dir.resolve("encoding.txt");
+		String text = "plain\tascii\n\u00e4\u00df\u20ac \ud83d\ude00 mixed";
+		StringBuilder expected = new StringBuilder();
+
+		try (Utf8FileWriter writer = new Utf8FileWriter(file)) {
+			for (int i = 0; i < 10000; i++) { // exceed the buffer size a few times
+				writer.write(text);
+				writer.write(text, 5, 13);
+				writer.write('x');
+				writer.write(text.toCharArray(), 16, 1); // split surrogate pair
+				writer.write(text.toCharArray(), 17, 2);
+				expected.append(text).append(text, 5, 18).append('x').append(text, 16, 19);
+			}
+		}
+
+		assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), Files.readAllBytes(file));
+
+		// existing content gets truncated
+		try (Utf8FileWriter writer = new Utf8FileWriter(file)) {
+			writer.write("short");
+		}
+
+		assertArrayEquals("short".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(file));
+	}
+
+	@Test
+	public void malformed() throws IOException {
+		Utf8FileWriter writer = new Utf8FileWriter(dir.resolve("malformed.txt"));
+		assertThrows(CharacterCodingException.class, () -> writer.write("\ude00"));
+		writer.close();
+
+		Utf8FileWriter writer2 = new Utf8FileWriter(dir.resolve("malformed2.txt"));
+		writer2.write('\ud83d');
+		assertThrows(CharacterCodingException.class, writer2::close);
+	}
+}
@@ -17,8 +17,11 @@
 package net.fabricmc.mappingio.read;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
@@ -126,11 +129,29 @@ public class DetectionTest {
 		check(format);
 	}
 
+	@Test
+	public void binaryFile() throws Exception {
+		MappingFormat format = MappingFormat.BINARY_FILE;
+		Path path = dir.resolve(TestHelper.getFileName(format));
+		assertEquals(format, MappingReader.detectFormat(path));
+
+		// Binary content is only readable through the Path based API.
+		assertFalse(format.supportsCharStreams());
+
+		try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+			assertNull(MappingReader.detectFormat(reader));
+		}
+
+		try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+			assertThrows(IOException.class, () -> MappingReader.read(reader, new NopMappingVisitor(true)));
+		}
+	}
+
 	private void check(MappingFormat format) throws Exception {
 		Path path = dir.resolve(TestHelper.getFileName(format));
 		assertEquals(format, MappingReader.detectFormat(path));
 
-		if (!format.hasSingleFile()) return;
+		if (!format.supportsCharStreams()) return;
 		if (format == MappingFormat.CSRG_FILE) return;
 
 		try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
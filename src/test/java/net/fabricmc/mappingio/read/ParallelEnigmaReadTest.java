@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.read;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingFlag;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.adapter.ForwardingMappingVisitor;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.enigma.EnigmaDirReader;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+public class ParallelEnigmaReadTest {
+	@TempDir
+	public static Path tempDir;
+
+	@Test
+	public void matchesSequentialRead() throws IOException {
+		Path[] dirs = { TestHelper.MappingDirs.DETECTION, TestHelper.MappingDirs.VALID, TestHelper.MappingDirs.VALID_WITH_HOLES };
+
+		for (Path dir : dirs) {
+			Path enigmaDir = dir.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_DIR));
+			MemoryMappingTree expected = new MemoryMappingTree();
+			EnigmaDirReader.read(enigmaDir, expected);
+
+			MemoryMappingTree actual = new MemoryMappingTree();
+			EnigmaDirReader.readParallel(enigmaDir, actual);
+			assertEquals(TestHelper.writeToString(expected), TestHelper.writeToString(actual), dir.toString());
+
+			// the second pass replays the retained file trees
+			MemoryMappingTree twoPass = new MemoryMappingTree();
+			EnigmaDirReader.readParallel(enigmaDir, new ForwardingMappingVisitor(twoPass) {
+				@Override
+				public Set<MappingFlag> getFlags() {
+					return EnumSet.of(MappingFlag.NEEDS_MULTIPLE_PASSES);
+				}
+
+				@Override
+				public boolean visitEnd() throws IOException {
+					super.visitEnd();
+
+					return ++passes == 2;
+				}
+
+				private int passes;
+			});
+			assertEquals(TestHelper.writeToString(expected), TestHelper.writeToString(twoPass), dir.toString());
+		}
+	}
+
+	@Test
+	public void suppliesGlobalDstDescs() throws IOException {
+		// member descriptors referencing a class mapped in another file
+		Path dir = tempDir.resolve("enigma");
+		Files.createDirectories(dir.resolve("com"));
+		Files.write(dir.resolve("com/Foo.mapping"), "CLASS a com/Foo\n\tFIELD f value Lb;\n\tMETHOD m run (Lb;)V\n".getBytes(StandardCharsets.UTF_8));
+		Files.write(dir.resolve("com/Bar.mapping"), "CLASS b com/Bar\n".getBytes(StandardCharsets.UTF_8));
+
+		MemoryMappingTree tree = new MemoryMappingTree();
+		EnigmaDirReader.read(dir, tree);
+
+		for (MappingFormat format : new MappingFormat[] { MappingFormat.SRG_FILE, MappingFormat.XSRG_FILE }) {
+			StringWriter expected = new StringWriter();
+			tree.accept(MappingWriter.create(expected, format));
+
+			StringWriter actual = new StringWriter();
+			EnigmaDirReader.readParallel(dir, MappingWriter.create(actual, format));
+
+			assertEquals(sortedLines(expected.toString()), sortedLines(actual.toString()), format.name());
+			assertTrue(actual.toString().contains("com/Foo/run (Lcom/Bar;)V"), format.name());
+		}
+	}
+
+	private static List<String> sortedLines(String str) {
+		List<String> ret = new ArrayList<>(Arrays.asList(str.split("\n")));
+		Collections.sort(ret);
+
+		return ret;
+	}
+}
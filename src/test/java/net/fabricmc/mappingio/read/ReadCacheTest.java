@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.read;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.cache.MappingReadCache;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+public class ReadCacheTest {
+	@TempDir
+	public static Path tmpDir;
+
+	@Test
+	public void hitMatchesDirectRead() throws IOException {
+		Path cacheDir = tmpDir.resolve("hit");
+
+		for (MappingFormat format : new MappingFormat[] { MappingFormat.TINY_2_FILE, MappingFormat.ENIGMA_FILE, MappingFormat.PROGUARD_FILE }) {
+			Path file = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(format));
+			MemoryMappingTree expected = new MemoryMappingTree();
+			MappingReader.read(file, format, expected);
+
+			for (boolean hashContent : new boolean[] { false, true }) {
+				MappingReadCache cache = new MappingReadCache(cacheDir, MappingReadCache.DEFAULT_MAX_SIZE, hashContent);
+				cache.clear();
+
+				MemoryMappingTree miss = new MemoryMappingTree();
+				cache.read(file, miss);
+				assertEquals(1, listEntries(cacheDir).size());
+
+				MemoryMappingTree hit = new MemoryMappingTree();
+				cache.read(file, format, hit);
+				assertEquals(1, listEntries(cacheDir).size());
+
+				assertEquals(TestHelper.writeToString(expected), TestHelper.writeToString(miss), format.name());
+				assertEquals(TestHelper.writeToString(expected), TestHelper.writeToString(hit), format.name());
+			}
+		}
+	}
+
+	@Test
+	public void hitSuppliesDstDescs() throws IOException {
+		Path cacheDir = tmpDir.resolve("dstDescs");
+		Path file = tmpDir.resolve("dstDescs.tiny");
+		// member descriptors referencing a mapped class
+		Files.write(file, "tiny\t2\t0\tsource\ttarget\nc\ta\tcom/Foo\n\tf\tLb;\tf\tvalue\n\tm\t(Lb;)V\tm\trun\nc\tb\tcom/Bar\n".getBytes(StandardCharsets.UTF_8));
+
+		for (MappingFormat format : new MappingFormat[] { MappingFormat.SRG_FILE, MappingFormat.XSRG_FILE }) {
+			MappingReadCache cache = new MappingReadCache(cacheDir);
+			cache.clear();
+
+			StringWriter miss = new StringWriter();
+			cache.read(file, MappingWriter.create(miss, format));
+			assertEquals(1, listEntries(cacheDir).size());
+
+			StringWriter hit = new StringWriter();
+			cache.read(file, MappingWriter.create(hit, format));
+
+			assertTrue(miss.toString().contains("com/Foo/run (Lcom/Bar;)V"), format.name());
+			assertEquals(miss.toString(), hit.toString(), format.name());
+		}
+	}
+
+	@Test
+	public void modifiedFileMisses() throws IOException {
+		Path cacheDir = tmpDir.resolve("modified");
+		Path file = tmpDir.resolve("modified.tiny");
+		Files.copy(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), file);
+
+		MappingReadCache cache = new MappingReadCache(cacheDir);
+		cache.read(file, new MemoryMappingTree());
+
+		Files.copy(TestHelper.MappingDirs.VALID_WITH_HOLES.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), file, StandardCopyOption.REPLACE_EXISTING);
+		MemoryMappingTree expected = new MemoryMappingTree();
+		MappingReader.read(file, expected);
+
+		MemoryMappingTree actual = new MemoryMappingTree();
+		cache.read(file, actual);
+		assertEquals(2, listEntries(cacheDir).size());
+		assertEquals(TestHelper.writeToString(expected), TestHelper.writeToString(actual));
+	}
+
+	@Test
+	public void evictsOverMaxSize() throws IOException {
+		Path cacheDir = tmpDir.resolve("evict");
+		MappingReadCache cache = new MappingReadCache(cacheDir, 1, false);
+
+		cache.read(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), new MemoryMappingTree());
+		cache.read(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_FILE)), new MemoryMappingTree());
+		assertTrue(listEntries(cacheDir).isEmpty());
+	}
+
+	@Test
+	public void corruptedEntryFallsBack() throws IOException {
+		Path cacheDir = tmpDir.resolve("corrupted");
+		Path file = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE));
+		MappingReadCache cache = new MappingReadCache(cacheDir);
+		MemoryMappingTree expected = new MemoryMappingTree();
+		cache.read(file, expected);
+
+		Path entry = listEntries(cacheDir).get(0);
+		Files.write(entry, new byte[] { 1, 2, 3 });
+
+		MemoryMappingTree actual = new MemoryMappingTree();
+		cache.read(file, actual);
+		assertEquals(TestHelper.writeToString(expected), TestHelper.writeToString(actual));
+		assertTrue(Files.size(entry) > 3);
+	}
+
+	private static List<Path> listEntries(Path dir) throws IOException {
+		List<Path> ret = new ArrayList<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+			for (Path file : stream) {
+				ret.add(file);
+			}
+		}
+
+		return ret;
+	}
+}
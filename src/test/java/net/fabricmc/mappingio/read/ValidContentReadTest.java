@@ -165,6 +165,14 @@ public class ValidContentReadTest {
 		checkRepeated(format, true);
 	}
 
+	@Test
+	public void binaryFile() throws Exception {
+		MappingFormat format = MappingFormat.BINARY_FILE;
+		checkDefault(format);
+		checkHoles(format);
+		checkRepeated(format, true);
+	}
+
 	private void checkDefault(MappingFormat format) throws Exception {
 		Path path = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(format));
 
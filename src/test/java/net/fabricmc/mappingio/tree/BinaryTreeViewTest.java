@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.binary.BinaryMappingTreeView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.FieldMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodArgMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodVarMappingView;
+
+public class BinaryTreeViewTest {
+	@TempDir
+	public static Path tempDir;
+
+	@Test
+	public void matchesMemoryTree() throws IOException {
+		Path[] dirs = { TestHelper.MappingDirs.VALID, TestHelper.MappingDirs.VALID_WITH_HOLES };
+
+		for (int i = 0; i < dirs.length; i++) {
+			MemoryMappingTree tree = new MemoryMappingTree();
+			MappingReader.read(dirs[i].resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), MappingFormat.TINY_2_FILE, tree);
+
+			Path file = tempDir.resolve("view"+i+".miob");
+			tree.accept(MappingWriter.create(file, MappingFormat.BINARY_FILE));
+
+			for (boolean cacheNames : new boolean[] { false, true }) {
+				BinaryMappingTreeView view = BinaryMappingTreeView.open(file, true, cacheNames);
+
+				assertEquals(tree.getSrcNamespace(), view.getSrcNamespace());
+				assertEquals(tree.getDstNamespaces(), view.getDstNamespaces());
+				assertEquals(tree.getClasses().size(), view.getClasses().size());
+				assertNull(view.getClass("does/not/Exist"));
+
+				for (VisitOrder order : new VisitOrder[] { VisitOrder.createByInputOrder(), VisitOrder.createByName().methodsFirst().methodVarsFirst() }) {
+					assertEquals(TestHelper.writeToString(tree, MappingFormat.TINY_2_FILE, order), TestHelper.writeToString(view, MappingFormat.TINY_2_FILE, order));
+					assertEquals(TestHelper.writeToString(tree, MappingFormat.ENIGMA_FILE, order), TestHelper.writeToString(view, MappingFormat.ENIGMA_FILE, order));
+				}
+
+				for (ClassMappingView cls : tree.getClasses()) {
+					checkClass(cls, view);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rejectsOldVersions() throws IOException {
+		byte[] data = Files.readAllBytes(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.BINARY_FILE)));
+		data[4] = 1; // version byte following the magic
+		Path file = tempDir.resolve("v1.miob");
+		Files.write(file, data);
+
+		IOException e = assertThrows(IOException.class, () -> BinaryMappingTreeView.open(file, false, false));
+		assertTrue(e.getMessage().contains("version"), e.getMessage());
+	}
+
+	private static void checkClass(ClassMappingView expected, BinaryMappingTreeView view) {
+		ClassMappingView cls = view.getClass(expected.getSrcName());
+		assertNotNull(cls, expected.getSrcName());
+		assertEquals(expected.getComment(), cls.getComment());
+
+		for (int ns = 0; ns < view.getDstNamespaces().size(); ns++) {
+			String dstName = expected.getDstName(ns);
+			assertEquals(dstName, cls.getDstName(ns));
+			if (dstName != null) assertEquals(expected.getSrcName(), view.getClass(dstName, ns).getSrcName());
+		}
+
+		for (FieldMappingView field : expected.getFields()) {
+			FieldMappingView actual = cls.getField(field.getSrcName(), field.getSrcDesc());
+			assertNotNull(actual, field.getSrcName());
+			assertEquals(field.getDstName(0), actual.getDstName(0));
+			assertEquals(field.getComment(), actual.getComment());
+			assertEquals(field.getDesc(0), actual.getDesc(0));
+		}
+
+		for (MethodMappingView method : expected.getMethods()) {
+			MethodMappingView actual = cls.getMethod(method.getSrcName(), method.getSrcDesc());
+			assertNotNull(actual, method.getSrcName());
+			assertEquals(method.getDstName(0), actual.getDstName(0));
+
+			for (MethodArgMappingView arg : method.getArgs()) {
+				MethodArgMappingView actualArg = actual.getArg(arg.getArgPosition(), arg.getLvIndex(), arg.getSrcName());
+				assertNotNull(actualArg);
+				assertEquals(arg.getDstName(0), actualArg.getDstName(0));
+			}
+
+			for (MethodVarMappingView var : method.getVars()) {
+				MethodVarMappingView actualVar = actual.getVar(var.getLvtRowIndex(), var.getLvIndex(), var.getStartOpIdx(), var.getEndOpIdx(), var.getSrcName());
+				assertNotNull(actualVar);
+				assertEquals(var.getDstName(0), actualVar.getDstName(0));
+			}
+		}
+	}
+}
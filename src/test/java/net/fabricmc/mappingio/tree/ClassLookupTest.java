@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.tree.MappingTree.ClassMapping;
+
+public class ClassLookupTest {
+	@Test
+	public void negativeLookups() {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("src", Arrays.asList("dst0", "dst1"));
+
+		for (int i = 0; i < 1000; i++) {
+			tree.visitClass("cls" + i);
+			tree.visitDstName(MappedElementKind.CLASS, 0, "dst0Cls" + i);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(tree.mayContainClass("cls" + i, MappingTreeView.SRC_NAMESPACE_ID));
+			assertTrue(tree.mayContainClass("dst0Cls" + i, 0));
+			assertFalse(tree.mayContainClass("cls" + i, 1));
+			assertEquals("dst0Cls" + i, tree.mapClassName("cls" + i, 0));
+			assertEquals("cls" + i, tree.mapClassName("dst0Cls" + i, 0, MappingTreeView.SRC_NAMESPACE_ID));
+		}
+
+		assertEquals("(Ldst0Cls1;ILjava/lang/Object;)[Ldst0Cls2;", tree.mapDesc("(Lcls1;ILjava/lang/Object;)[Lcls2;", 0));
+
+		// filters have to follow modifications
+		tree.getClass("cls1").setDstName("renamed", 0);
+		tree.removeClass("cls2");
+		tree.visitClass("added");
+		tree.visitDstName(MappedElementKind.CLASS, 1, "dst1Added");
+
+		assertEquals("renamed", tree.mapClassName("cls1", 0));
+		assertEquals("dst0Cls1", tree.mapClassName("dst0Cls1", 0, MappingTreeView.SRC_NAMESPACE_ID));
+		assertEquals("cls2", tree.mapClassName("cls2", 0));
+		assertEquals("dst1Added", tree.mapClassName("added", 1));
+		assertEquals("added", tree.mapClassName("dst1Added", 1, MappingTreeView.SRC_NAMESPACE_ID));
+	}
+
+	@Test
+	public void concurrentLookups() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			for (int round = 0; round < 20; round++) {
+				MemoryMappingTree tree = new MemoryMappingTree();
+				tree.visitNamespaces("src", Arrays.asList("dst"));
+
+				for (int i = 0; i < 500; i++) {
+					tree.visitClass("cls" + i);
+					tree.visitDstName(MappedElementKind.CLASS, 0, "dstCls" + i);
+				}
+
+				tree.removeClass("cls0"); // drops the filters, so the lookups below race on rebuilding them
+				List<Future<?>> futures = new ArrayList<>();
+
+				for (int t = 0; t < 4; t++) {
+					futures.add(executor.submit(() -> {
+						for (int i = 1; i < 500; i++) {
+							assertEquals("dstCls" + i, tree.mapClassName("cls" + i, 0));
+							assertEquals("cls" + i, tree.mapClassName("dstCls" + i, 0, MappingTreeView.SRC_NAMESPACE_ID));
+						}
+					}));
+				}
+
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void excludedPackages() {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("src", Arrays.asList("dst"));
+		tree.visitClass("java/lang/Object");
+		tree.visitDstName(MappedElementKind.CLASS, 0, "renamedObject");
+		tree.visitClass("a");
+		tree.visitDstName(MappedElementKind.CLASS, 0, "b");
+
+		assertEquals("renamedObject", tree.mapClassName("java/lang/Object", 0));
+
+		tree.setExcludedPackagePrefixes(Arrays.asList("java/", "com/google/"));
+		assertFalse(tree.mayContainClass("java/lang/Object", MappingTreeView.SRC_NAMESPACE_ID));
+		assertEquals("java/lang/Object", tree.mapClassName("java/lang/Object", 0));
+		assertEquals("(Ljava/lang/Object;)Lb;", tree.mapDesc("(Ljava/lang/Object;)La;", 0));
+
+		tree.setExcludedPackagePrefixes(null);
+		assertEquals("renamedObject", tree.mapClassName("java/lang/Object", 0));
+	}
+
+	@Test
+	public void addClassFromOtherNamespaces() {
+		MemoryMappingTree other = new MemoryMappingTree();
+		other.visitNamespaces("obf", Arrays.asList("src"));
+		other.visitClass("b");
+		other.visitDstName(MappedElementKind.CLASS, 0, "a");
+
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("src", Arrays.asList("dst"));
+		ClassMapping cls = tree.addClass(other.getClass("b"));
+
+		// keyed by the name in this tree's source namespace
+		assertEquals("a", cls.getSrcName());
+		assertSame(cls, tree.getClass("a"));
+		assertNull(tree.getClass("b"));
+	}
+
+	@Test
+	public void cachedDstDescs() {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("src", Arrays.asList("dst"));
+		tree.visitClass("a");
+		tree.visitDstName(MappedElementKind.CLASS, 0, "b");
+		tree.visitField("field", "La;");
+		tree.visitMethod("method", "(La;)Lc;");
+
+		tree.precomputeDstDescs();
+		MappingTree.FieldMapping field = tree.getField("a", "field", "La;");
+		MappingTree.MethodMapping method = tree.getMethod("a", "method", "(La;)Lc;");
+		assertEquals("Lb;", field.getDstDesc(0));
+		assertEquals("(Lb;)Lc;", method.getDesc(0));
+
+		tree.getClass("a").setDstName("renamed", 0);
+		tree.visitClass("c");
+		tree.visitDstName(MappedElementKind.CLASS, 0, "d");
+		assertEquals("Lrenamed;", field.getDstDesc(0));
+		assertEquals("(Lrenamed;)Ld;", method.getDesc(0));
+
+		method.setSrcDesc("()V");
+		assertEquals("()V", method.getDstDesc(0));
+
+		// adding classes without any mapping keeps cached descriptors, mapping them invalidates
+		MemoryMappingTree.FieldEntry fieldEntry = (MemoryMappingTree.FieldEntry) field;
+		String[] dstDescs = fieldEntry.getDstDescs();
+		tree.visitClass("e");
+		assertSame(dstDescs, fieldEntry.getDstDescs());
+		tree.visitDstName(MappedElementKind.CLASS, 0, "f");
+		assertNotSame(dstDescs, fieldEntry.getDstDescs());
+	}
+
+	@Test
+	public void appendMappedDesc() throws Exception {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("src", Arrays.asList("dst"));
+		tree.visitClass("a");
+		tree.visitDstName(MappedElementKind.CLASS, 0, "b");
+
+		StringBuilder sb = new StringBuilder("prefix ");
+		String desc = "(ILa;[[Ljava/lang/String;)La;";
+		tree.mapDesc(desc, 0, desc.length(), MappingTreeView.SRC_NAMESPACE_ID, 0, sb);
+		assertEquals("prefix (ILb;[[Ljava/lang/String;)Lb;", sb.toString());
+
+		sb.setLength(0);
+		tree.mapDesc(desc, 2, 5, MappingTreeView.SRC_NAMESPACE_ID, 0, sb);
+		assertEquals("Lb;", sb.toString());
+
+		String unmapped = "(Ljava/lang/String;)V";
+		assertSame(unmapped, tree.mapDesc(unmapped, 0));
+		assertSame(tree.mapDesc(desc, 0), tree.mapDesc(desc, 0));
+	}
+}
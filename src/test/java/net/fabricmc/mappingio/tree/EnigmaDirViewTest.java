@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.MappingUtil;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.enigma.EnigmaDirTreeView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.FieldMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodMappingView;
+
+public class EnigmaDirViewTest {
+	@TempDir
+	public static Path tempDir;
+
+	@Test
+	public void matchesMemoryTree() throws IOException {
+		Path[] dirs = { TestHelper.MappingDirs.VALID, TestHelper.MappingDirs.VALID_WITH_HOLES };
+
+		for (Path dir : dirs) {
+			Path enigmaDir = dir.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_DIR));
+			MemoryMappingTree tree = new MemoryMappingTree();
+			MappingReader.read(enigmaDir, MappingFormat.ENIGMA_DIR, tree);
+
+			for (boolean prefetch : new boolean[] { false, true }) {
+				// a single cached file forces repeated parsing
+				EnigmaDirTreeView view = EnigmaDirTreeView.open(enigmaDir, MappingUtil.NS_SOURCE_FALLBACK, MappingUtil.NS_TARGET_FALLBACK, 1, prefetch);
+
+				// destination name lookups only need the class' file
+				for (ClassMappingView cls : tree.getClasses()) {
+					String dstName = cls.getDstName(0);
+					if (dstName == null) continue;
+
+					ClassMappingView actual = view.getClass(dstName, 0);
+					assertNotNull(actual, dstName);
+					checkClass(cls, actual);
+				}
+
+				assertNull(view.getClass("does/not/Exist", 0));
+
+				for (ClassMappingView cls : tree.getClasses()) {
+					ClassMappingView actual = view.getClass(cls.getSrcName());
+					assertNotNull(actual, cls.getSrcName());
+					checkClass(cls, actual);
+				}
+
+				assertNull(view.getClass("does/not/Exist"));
+				assertEquals(tree.getClasses().size(), view.getClasses().size());
+				assertEquals(TestHelper.writeToString(tree), TestHelper.writeToString(view));
+			}
+		}
+	}
+
+	@Test
+	public void srcLookupsStayLazy() throws IOException {
+		Path srcDir = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_DIR));
+		MemoryMappingTree tree = new MemoryMappingTree();
+		MappingReader.read(srcDir, MappingFormat.ENIGMA_DIR, tree);
+
+		try (Stream<Path> files = Files.list(srcDir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.copy(file, tempDir.resolve(file.getFileName().toString()));
+			}
+		}
+
+		// unparseable, so any lookup loading the full tree fails
+		Files.write(tempDir.resolve("broken." + MappingFormat.ENIGMA_FILE.fileExt), "CLASS\n".getBytes(StandardCharsets.UTF_8));
+
+		EnigmaDirTreeView view = EnigmaDirTreeView.open(tempDir);
+
+		for (ClassMappingView cls : tree.getClasses()) {
+			ClassMappingView actual = view.getClass(cls.getSrcName());
+			assertNotNull(actual, cls.getSrcName());
+			checkClass(cls, actual);
+		}
+
+		assertNull(view.getClass("does/not/Exist"));
+		assertNull(view.getClass("does/not/Exist$Inner"));
+		assertThrows(UncheckedIOException.class, view::getClasses);
+	}
+
+	private static void checkClass(ClassMappingView expected, ClassMappingView actual) {
+		assertEquals(expected.getSrcName(), actual.getSrcName());
+		assertEquals(expected.getDstName(0), actual.getDstName(0));
+		assertEquals(expected.getComment(), actual.getComment());
+
+		for (FieldMappingView field : expected.getFields()) {
+			FieldMappingView actualField = actual.getField(field.getSrcName(), field.getSrcDesc());
+			assertNotNull(actualField, field.getSrcName());
+			assertEquals(field.getDstName(0), actualField.getDstName(0));
+			assertEquals(field.getDesc(0), actualField.getDesc(0));
+		}
+
+		for (MethodMappingView method : expected.getMethods()) {
+			MethodMappingView actualMethod = actual.getMethod(method.getSrcName(), method.getSrcDesc());
+			assertNotNull(actualMethod, method.getSrcName());
+			assertEquals(method.getDstName(0), actualMethod.getDstName(0));
+			assertEquals(method.getDesc(0), actualMethod.getDesc(0));
+			assertEquals(method.getArgs().size(), actualMethod.getArgs().size());
+		}
+	}
+}
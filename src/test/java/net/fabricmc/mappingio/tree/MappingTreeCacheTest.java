@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.cache.MappingTreeCache;
+import net.fabricmc.mappingio.format.MappingFormat;
+
+public class MappingTreeCacheTest {
+	@TempDir
+	public static Path tmpDir;
+
+	@Test
+	public void reusesTrees() throws Exception {
+		MappingTreeCache cache = new MappingTreeCache();
+		Path file = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE));
+		MappingTreeView tree = cache.get(file);
+
+		assertSame(tree, cache.get(file));
+		assertSame(tree, cache.get(file, MappingFormat.TINY_2_FILE));
+
+		MemoryMappingTree expected = new MemoryMappingTree();
+		MappingReader.read(file, expected);
+		assertEquals(expected.getClasses().size(), tree.getClasses().size());
+		assertEquals(TestHelper.writeToString(expected), TestHelper.writeToString(tree));
+
+		// shared trees can't be modified through the returned view
+		assertFalse(tree instanceof MemoryMappingTree);
+		assertThrows(UnsupportedOperationException.class, () -> tree.getClasses().clear());
+
+		MappingTreeCache.Stats stats = cache.getStats();
+		assertEquals(2, stats.getHits());
+		assertEquals(1, stats.getMisses());
+		assertEquals(1, stats.getEntries());
+		assertTrue(stats.getRetainedSize() > 0);
+
+		Path dir = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_DIR));
+		assertSame(cache.get(dir), cache.get(dir));
+		assertEquals(2, cache.getStats().getEntries());
+	}
+
+	@Test
+	public void reloadsModifiedFiles() throws Exception {
+		MappingTreeCache cache = new MappingTreeCache();
+		Path file = tmpDir.resolve("modified.tiny");
+		Files.copy(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), file, StandardCopyOption.REPLACE_EXISTING);
+		MappingTreeView tree = cache.get(file);
+
+		Files.copy(TestHelper.MappingDirs.VALID_WITH_HOLES.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), file, StandardCopyOption.REPLACE_EXISTING);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000));
+		MappingTreeView reloaded = cache.get(file);
+
+		assertNotSame(tree, reloaded);
+		assertEquals(2, cache.getStats().getMisses());
+		assertEquals(1, cache.getStats().getEntries());
+	}
+
+	@Test
+	public void collapsesConcurrentLoads() throws Exception {
+		MappingTreeCache cache = new MappingTreeCache();
+		Path file = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_FILE));
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<MappingTreeView>> results = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit((Callable<MappingTreeView>) () -> {
+					start.await();
+
+					return cache.get(file);
+				}));
+			}
+
+			start.countDown();
+			MappingTreeView tree = results.get(0).get();
+
+			for (Future<MappingTreeView> result : results) {
+				assertSame(tree, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(1, cache.getStats().getMisses());
+		assertEquals(threads - 1, cache.getStats().getHits());
+	}
+
+	@Test
+	public void evictsOverBudget() throws Exception {
+		MappingTreeCache cache = new MappingTreeCache(1, false);
+		Path tinyFile = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE));
+		Path enigmaFile = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_FILE));
+
+		MappingTreeView tree = cache.get(tinyFile);
+		assertSame(tree, cache.get(tinyFile)); // the most recent tree is kept even over budget
+		cache.get(enigmaFile);
+
+		assertEquals(1, cache.getStats().getEntries());
+		assertNotSame(tree, cache.get(tinyFile));
+		assertEquals(3, cache.getStats().getMisses());
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingWatcher;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.enigma.EnigmaDirReader;
+
+public class MappingWatcherTest {
+	@TempDir
+	public static Path tempDir;
+
+	@Test
+	public void reloadsChangedFiles() throws Exception {
+		Path dir = tempDir.resolve("enigma");
+		Path srcDir = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.ENIGMA_DIR));
+		Files.createDirectories(dir);
+
+		try (Stream<Path> files = Files.list(srcDir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.copy(file, dir.resolve(file.getFileName().toString()));
+			}
+		}
+
+		MemoryMappingTree tree = new MemoryMappingTree();
+		Set<String> changed = new HashSet<>();
+
+		try (MappingWatcher watcher = new MappingWatcher(tree)) {
+			watcher.addEnigmaDir(dir);
+			watcher.addListener(changed::addAll);
+			assertEquals(read(dir), TestHelper.writeToString(tree));
+
+			// edit a file
+			Files.write(dir.resolve("class1Ns0Rename.mapping"), "CLASS class_1 class1Edited\n".getBytes());
+			awaitChange(watcher, () -> tree.getClass("class_1") != null && "class1Edited".equals(tree.getClass("class_1").getDstName(0)));
+			assertTrue(changed.contains("class_1"));
+			assertTrue(changed.contains("class_1$class_2"));
+			assertEquals("class1Edited", tree.getClass("class_1").getDstName(0));
+			assertNull(tree.getClass("class_1$class_2"));
+			assertEquals(read(dir), TestHelper.writeToString(tree));
+
+			// add a file in a new directory
+			changed.clear();
+			Path newFile = dir.resolve("pkg/New.mapping");
+			Files.createDirectories(newFile.getParent());
+			Files.write(newFile, "CLASS pkg/class_9 pkg/New\n".getBytes());
+			awaitChange(watcher, () -> tree.getClass("pkg/class_9") != null);
+			assertEquals("pkg/New", tree.getClass("pkg/class_9").getDstName(0));
+
+			// delete it again
+			changed.clear();
+			Files.delete(newFile);
+			awaitChange(watcher, () -> tree.getClass("pkg/class_9") == null);
+			assertTrue(changed.contains("pkg/class_9"));
+			assertNull(tree.getClass("pkg/class_9"));
+		}
+	}
+
+	@Test
+	public void keepsOtherContributions() throws Exception {
+		Path dir = tempDir.resolve("shared");
+		Files.createDirectories(dir);
+		Files.write(dir.resolve("First.mapping"), "CLASS a First\n\tFIELD f field1 I\n".getBytes());
+		Files.write(dir.resolve("Second.mapping"), "CLASS a\n\tMETHOD m method1 ()V\n".getBytes());
+
+		MemoryMappingTree tree = new MemoryMappingTree();
+
+		try (MappingWatcher watcher = new MappingWatcher(tree)) {
+			watcher.addEnigmaDir(dir);
+			assertEquals("field1", tree.getClass("a").getField("f", "I").getDstName(0));
+			assertEquals("method1", tree.getClass("a").getMethod("m", "()V").getDstName(0));
+
+			// editing one contributor keeps the other's members
+			Files.write(dir.resolve("Second.mapping"), "CLASS a\n\tMETHOD m method2 ()V\n".getBytes());
+			awaitChange(watcher, () -> tree.getClass("a") != null && tree.getClass("a").getMethod("m", "()V") != null
+					&& "method2".equals(tree.getClass("a").getMethod("m", "()V").getDstName(0)));
+			assertEquals("First", tree.getClass("a").getDstName(0));
+			assertEquals("field1", tree.getClass("a").getField("f", "I").getDstName(0));
+			assertEquals(read(dir), TestHelper.writeToString(tree));
+		}
+	}
+
+	private static void awaitChange(MappingWatcher watcher, BooleanSupplier condition) throws IOException, InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			watcher.processEvents(100, TimeUnit.MILLISECONDS);
+		}
+
+		assertTrue(condition.getAsBoolean(), "change not applied");
+	}
+
+	private static String read(Path dir) throws IOException {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		EnigmaDirReader.read(dir, tree);
+
+		return TestHelper.writeToString(tree);
+	}
+}
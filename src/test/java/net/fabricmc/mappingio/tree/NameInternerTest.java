@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.cache.NameInterner;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MappingTree.ClassMapping;
+import net.fabricmc.mappingio.tree.MappingTree.MethodMapping;
+
+public class NameInternerTest {
+	@Test
+	public void intern() {
+		NameInterner interner = new NameInterner();
+		String a = new String("net/minecraft/Foo");
+		String b = new String("net/minecraft/Foo");
+
+		assertNull(interner.intern(null));
+		assertSame(a, interner.intern(a));
+		assertSame(a, interner.intern(b));
+		assertEquals(1, interner.size());
+		assertEquals(1, interner.getDeduplicatedStrings());
+		assertTrue(interner.getDeduplicatedBytes() >= 2 * b.length());
+	}
+
+	@Test
+	public void sharesNamesAcrossTrees() throws IOException {
+		NameInterner interner = new NameInterner();
+		Path file = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE));
+
+		MemoryMappingTree plain = new MemoryMappingTree();
+		MappingReader.read(file, plain);
+		MemoryMappingTree first = read(file, interner);
+		MemoryMappingTree second = read(file, interner);
+
+		assertEquals(TestHelper.writeToString(plain), TestHelper.writeToString(first));
+		assertEquals(TestHelper.writeToString(plain), TestHelper.writeToString(second));
+		assertTrue(interner.getDeduplicatedBytes() > 0);
+
+		Iterator<? extends ClassMapping> firstClasses = first.getClasses().iterator();
+		Iterator<? extends ClassMapping> plainClasses = plain.getClasses().iterator();
+
+		for (ClassMapping cls : second.getClasses()) {
+			ClassMapping firstCls = firstClasses.next();
+			assertSame(firstCls.getSrcName(), cls.getSrcName());
+			assertNotSame(plainClasses.next().getSrcName(), cls.getSrcName());
+
+			for (int ns = 0; ns < second.getMaxNamespaceId(); ns++) {
+				assertSame(firstCls.getDstName(ns), cls.getDstName(ns));
+			}
+
+			for (MethodMapping method : cls.getMethods()) {
+				MethodMapping firstMethod = firstCls.getMethod(method.getSrcName(), method.getSrcDesc());
+				assertSame(firstMethod.getSrcName(), method.getSrcName());
+				assertSame(firstMethod.getSrcDesc(), method.getSrcDesc());
+			}
+		}
+	}
+
+	private static MemoryMappingTree read(Path file, NameInterner interner) throws IOException {
+		MemoryMappingTree ret = new MemoryMappingTree();
+		ret.setNameInterner(interner);
+		MappingReader.read(file, ret);
+
+		return ret;
+	}
+}
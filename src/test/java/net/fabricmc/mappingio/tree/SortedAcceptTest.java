@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.NopMappingVisitor;
+
+public class SortedAcceptTest {
+	@Test
+	public void repeatedAccept() throws IOException {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("src", Arrays.asList("dst"));
+		tree.visitClass("c");
+		tree.visitMethod("m2", "()V");
+		tree.visitMethod("m1", "(II)V");
+		tree.visitMethodArg(1, 2, "b");
+		tree.visitMethodArg(0, 1, "a");
+		tree.visitClass("a");
+		tree.visitField("f2", "I");
+		tree.visitField("f1", "I");
+		tree.visitClass("b");
+
+		List<String> expected = Arrays.asList("a", "a.f1", "a.f2", "b", "c", "c.m1", "c.m1:1", "c.m1:2", "c.m2");
+		VisitOrder order = VisitOrder.createByName();
+		assertEquals(expected, record(tree, order));
+		assertEquals(expected, record(tree, order));
+		assertEquals(expected, record(tree, VisitOrder.createByName()));
+
+		// cached orders have to follow modifications
+		tree.removeClass("b");
+		tree.visitClass("a");
+		tree.visitField("f0", "I");
+		tree.getMethod("c", "m1", "(II)V").getArg(-1, 1, null).setLvIndex(3);
+		tree.getClass("a").getField("f2", "I").setSrcDesc("J");
+		tree.visitClass("0");
+		tree.visitDstName(MappedElementKind.CLASS, 0, "z");
+
+		assertEquals(Arrays.asList("0", "a", "a.f0", "a.f1", "a.f2", "c", "c.m1", "c.m1:2", "c.m1:3", "c.m2"), record(tree, order));
+
+		// custom comparators bypass the cache
+		VisitOrder reversed = VisitOrder.createByName().classComparator((a, b) -> b.getSrcName().compareTo(a.getSrcName()));
+		assertEquals(Arrays.asList("c", "c.m1", "c.m1:2", "c.m1:3", "c.m2", "a", "a.f0", "a.f1", "a.f2", "0"), record(tree, reversed));
+	}
+
+	@Test
+	public void parallelAccept() throws IOException {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("src", Arrays.asList("dst"));
+
+		for (int i = 0; i < 1000; i++) {
+			tree.visitClass("cls"+i);
+			tree.visitDstName(MappedElementKind.CLASS, 0, "dst"+i);
+			tree.visitMethod("m", "(Lcls"+(i + 1)+";)V");
+			tree.visitMethodArg(0, 1, "arg");
+		}
+
+		VisitOrder order = VisitOrder.createByName();
+		List<String> expected = record(tree, order);
+		List<RecordingVisitor> shards = tree.parallelAccept(i -> new RecordingVisitor(), order, 7);
+		assertEquals(7, shards.size());
+
+		List<String> actual = new ArrayList<>();
+
+		for (RecordingVisitor shard : shards) {
+			assertEquals(1, shard.headers);
+			actual.addAll(shard.entries);
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(1, tree.parallelAccept(i -> new RecordingVisitor(), order, 1).size());
+
+		MemoryMappingTree small = new MemoryMappingTree();
+		small.visitNamespaces("src", Arrays.asList("dst"));
+		small.visitClass("a");
+		assertEquals(1, small.parallelAccept(i -> new RecordingVisitor(), order, 4).size());
+	}
+
+	private static List<String> record(MappingTreeView tree, VisitOrder order) throws IOException {
+		RecordingVisitor visitor = new RecordingVisitor();
+		tree.accept(visitor, order);
+
+		return visitor.entries;
+	}
+
+	private static final class RecordingVisitor extends NopMappingVisitor {
+		RecordingVisitor() {
+			super(true);
+		}
+
+		@Override
+		public boolean visitHeader() {
+			headers++;
+
+			return true;
+		}
+
+		@Override
+		public boolean visitClass(String srcName) {
+			cls = srcName;
+			entries.add(srcName);
+
+			return true;
+		}
+
+		@Override
+		public boolean visitField(String srcName, @Nullable String srcDesc) {
+			entries.add(cls+"."+srcName);
+
+			return true;
+		}
+
+		@Override
+		public boolean visitMethod(String srcName, @Nullable String srcDesc) {
+			method = cls+"."+srcName;
+			entries.add(method);
+
+			return true;
+		}
+
+		@Override
+		public boolean visitMethodArg(int argPosition, int lvIndex, @Nullable String srcName) {
+			entries.add(method+":"+lvIndex);
+
+			return true;
+		}
+
+		final List<String> entries = new ArrayList<>();
+		int headers;
+		private String cls;
+		private String method;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.tiny.Tiny2IndexWriter;
+import net.fabricmc.mappingio.format.tiny.Tiny2IndexedTreeView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.FieldMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodArgMappingView;
+import net.fabricmc.mappingio.tree.MappingTreeView.MethodMappingView;
+
+public class Tiny2IndexedViewTest {
+	@TempDir
+	public static Path tempDir;
+
+	@Test
+	public void matchesMemoryTree() throws IOException {
+		Path[] dirs = { TestHelper.MappingDirs.VALID, TestHelper.MappingDirs.VALID_WITH_HOLES };
+
+		for (int i = 0; i < dirs.length; i++) {
+			Path tinyFile = dirs[i].resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE));
+			Path indexFile = tempDir.resolve("tiny"+i+".idx");
+			Tiny2IndexWriter.write(tinyFile, indexFile);
+
+			MemoryMappingTree tree = new MemoryMappingTree();
+			MappingReader.read(tinyFile, MappingFormat.TINY_2_FILE, tree);
+
+			// a single cached class forces repeated parsing
+			for (int cacheSize : new int[] { 1, Tiny2IndexedTreeView.DEFAULT_CACHE_SIZE }) {
+				Tiny2IndexedTreeView view = Tiny2IndexedTreeView.open(tinyFile, indexFile, cacheSize);
+
+				assertEquals(tree.getSrcNamespace(), view.getSrcNamespace());
+				assertEquals(tree.getDstNamespaces(), view.getDstNamespaces());
+				assertEquals(tree.getMetadata().size(), view.getMetadata().size());
+				assertEquals(tree.getClasses().size(), view.getClasses().size());
+				assertNull(view.getClass("does/not/Exist"));
+				assertEquals(TestHelper.writeToString(tree), TestHelper.writeToString(view));
+
+				for (ClassMappingView cls : tree.getClasses()) {
+					checkClass(cls, view);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rejectsStaleIndex() throws IOException {
+		Path tinyFile = tempDir.resolve("stale.tiny");
+		Path indexFile = tempDir.resolve("stale.idx");
+		Files.copy(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), tinyFile);
+		Tiny2IndexWriter.write(tinyFile, indexFile);
+		Files.write(tinyFile, "c\tnew\tnew2\tnew3\n".getBytes(), StandardOpenOption.APPEND);
+
+		assertThrows(IOException.class, () -> Tiny2IndexedTreeView.open(tinyFile, indexFile));
+	}
+
+	@Test
+	public void rejectsSameLengthEdit() throws IOException {
+		Path tinyFile = tempDir.resolve("edited.tiny");
+		Path indexFile = tempDir.resolve("edited.idx");
+		Files.copy(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), tinyFile);
+		Tiny2IndexWriter.write(tinyFile, indexFile);
+		FileTime mtime = Files.getLastModifiedTime(tinyFile);
+
+		// touching the file keeps the index valid
+		Files.setLastModifiedTime(tinyFile, FileTime.fromMillis(mtime.toMillis() + 10_000));
+		assertNotNull(Tiny2IndexedTreeView.open(tinyFile, indexFile).getClass("class_1"));
+
+		// renaming a class without changing the file's length doesn't
+		String content = new String(Files.readAllBytes(tinyFile), StandardCharsets.UTF_8);
+		Files.write(tinyFile, content.replace("\tclass_1\t", "\tclass_X\t").getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(tinyFile, FileTime.fromMillis(mtime.toMillis() + 20_000));
+		assertThrows(IOException.class, () -> Tiny2IndexedTreeView.open(tinyFile, indexFile));
+	}
+
+	private static void checkClass(ClassMappingView expected, Tiny2IndexedTreeView view) {
+		ClassMappingView cls = view.getClass(expected.getSrcName());
+		assertNotNull(cls, expected.getSrcName());
+		assertEquals(expected.getComment(), cls.getComment());
+
+		for (int ns = 0; ns < view.getDstNamespaces().size(); ns++) {
+			String dstName = expected.getDstName(ns);
+			assertEquals(dstName, cls.getDstName(ns));
+			assertEquals(expected.getTree().mapClassName(expected.getSrcName(), ns), view.mapClassName(expected.getSrcName(), ns));
+			if (dstName != null) assertEquals(expected.getSrcName(), view.getClass(dstName, ns).getSrcName());
+		}
+
+		for (FieldMappingView field : expected.getFields()) {
+			FieldMappingView actual = cls.getField(field.getSrcName(), field.getSrcDesc());
+			assertNotNull(actual, field.getSrcName());
+			assertEquals(field.getDstName(0), actual.getDstName(0));
+			assertEquals(field.getDesc(0), actual.getDesc(0));
+		}
+
+		for (MethodMappingView method : expected.getMethods()) {
+			MethodMappingView actual = cls.getMethod(method.getSrcName(), method.getSrcDesc());
+			assertNotNull(actual, method.getSrcName());
+			assertEquals(method.getDstName(0), actual.getDstName(0));
+			assertEquals(method.getDesc(0), actual.getDesc(0));
+
+			for (MethodArgMappingView arg : method.getArgs()) {
+				MethodArgMappingView actualArg = actual.getArg(arg.getArgPosition(), arg.getLvIndex(), arg.getSrcName());
+				assertNotNull(actualArg);
+				assertEquals(arg.getDstName(0), actualArg.getDstName(0));
+			}
+		}
+	}
+}
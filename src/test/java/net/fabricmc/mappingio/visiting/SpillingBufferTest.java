@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.visiting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.SpillingMappingBuffer;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+public class SpillingBufferTest {
+	@TempDir
+	public static Path tempDir;
+
+	@Test
+	public void sortedOutput() throws IOException {
+		MappingFormat[] inputs = { MappingFormat.TINY_FILE, MappingFormat.TINY_2_FILE, MappingFormat.SRG_FILE, MappingFormat.XSRG_FILE,
+				MappingFormat.ENIGMA_FILE, MappingFormat.TSRG_2_FILE, MappingFormat.CSRG_FILE };
+		MappingFormat[] outputs = { MappingFormat.TINY_2_FILE, MappingFormat.ENIGMA_FILE, MappingFormat.TSRG_2_FILE };
+
+		for (MappingFormat inputFormat : inputs) {
+			Path input = TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(inputFormat));
+
+			for (MappingFormat outputFormat : outputs) {
+				MemoryMappingTree tree = new MemoryMappingTree();
+				MappingReader.read(input, inputFormat, tree);
+				StringWriter expected = new StringWriter();
+				tree.accept(MappingWriter.create(expected, outputFormat), VisitOrder.createByName());
+
+				// 0 spills every class record to its own run, the largest budget never spills
+				for (long heapBudget : new long[] { 0, 512, Long.MAX_VALUE }) {
+					StringWriter actual = new StringWriter();
+
+					try (SpillingMappingBuffer buffer = new SpillingMappingBuffer(MappingWriter.create(actual, outputFormat), heapBudget, tempDir)) {
+						MappingReader.read(input, inputFormat, buffer);
+					}
+
+					assertEquals(expected.toString(), actual.toString(), inputFormat+" -> "+outputFormat+" with budget "+heapBudget);
+
+					try (Stream<Path> files = Files.list(tempDir)) {
+						assertEquals(0L, files.count(), "leftover runs");
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rejectsDstDescVisitors() throws IOException {
+		for (MappingFormat format : new MappingFormat[] { MappingFormat.SRG_FILE, MappingFormat.XSRG_FILE }) {
+			MappingWriter writer = MappingWriter.create(new StringWriter(), format);
+			assertThrows(IllegalArgumentException.class, () -> new SpillingMappingBuffer(writer), format.name());
+		}
+	}
+}
@@ -131,6 +131,12 @@ public class VisitEndTest {
 		check(format);
 	}
 
+	@Test
+	public void binaryFile() throws Exception {
+		MappingFormat format = MappingFormat.BINARY_FILE;
+		check(format);
+	}
+
 	private void check(MappingFormat format) throws Exception {
 		checkDir(TestHelper.MappingDirs.DETECTION, format);
 		checkDir(TestHelper.MappingDirs.VALID, format);
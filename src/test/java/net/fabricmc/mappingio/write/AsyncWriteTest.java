@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+
+public class AsyncWriteTest {
+	@Test
+	public void identicalOutput() throws IOException {
+		for (MappingFormat format : MappingFormat.values()) {
+			if (!format.supportsCharStreams() || !format.hasWriter) continue;
+
+			for (int capacity : new int[] { 1, 3, 1024 }) {
+				check(TestHelper.createTestTree(), format, capacity);
+				check(TestHelper.createTestTreeWithHoles(), format, capacity);
+			}
+		}
+	}
+
+	private static void check(MappingTreeView tree, MappingFormat format, int capacity) throws IOException {
+		StringWriter expected = new StringWriter();
+		tree.accept(MappingWriter.create(expected, format));
+
+		StringWriter actual = new StringWriter();
+		tree.accept(MappingWriter.async(MappingWriter.create(actual, format), capacity));
+
+		assertEquals(expected.toString(), actual.toString(), format.name);
+	}
+
+	@Test
+	public void tee() throws IOException {
+		MappingFormat[] formats = { MappingFormat.TINY_FILE, MappingFormat.TINY_2_FILE, MappingFormat.TSRG_2_FILE, MappingFormat.PROGUARD_FILE,
+				MappingFormat.ENIGMA_FILE, MappingFormat.JAM_FILE, MappingFormat.XSRG_FILE };
+
+		for (MappingTreeView tree : new MappingTreeView[] { TestHelper.createTestTree(), TestHelper.createTestTreeWithHoles() }) {
+			List<MappingWriter> writers = new ArrayList<>();
+			List<StringWriter> outputs = new ArrayList<>();
+
+			for (MappingFormat format : formats) {
+				StringWriter output = new StringWriter();
+				outputs.add(output);
+				writers.add(MappingWriter.create(output, format));
+			}
+
+			try (MappingWriter tee = MappingWriter.tee(writers, 16)) {
+				tree.accept(tee);
+			}
+
+			for (int i = 0; i < formats.length; i++) {
+				StringWriter expected = new StringWriter();
+				tree.accept(MappingWriter.create(expected, formats[i]));
+
+				assertEquals(expected.toString(), outputs.get(i).toString(), formats[i].name);
+			}
+		}
+	}
+
+	@Test
+	public void failure() throws IOException {
+		Writer failing = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				throw new IOException("expected");
+			}
+
+			@Override
+			public void flush() { }
+
+			@Override
+			public void close() { }
+		};
+
+		MappingWriter writer = MappingWriter.async(MappingWriter.create(failing, MappingFormat.TINY_2_FILE), 4);
+		IOException e = assertThrows(IOException.class, () -> TestHelper.createTestTree().accept(writer));
+		assertEquals("expected", e.getMessage());
+		assertThrows(IOException.class, writer::close);
+	}
+
+	@Test
+	public void closeWithoutVisitEnd() throws IOException {
+		int threads = countWriterThreads();
+
+		for (boolean visit : new boolean[] { false, true }) {
+			ClosingWriter output = new ClosingWriter();
+			MappingWriter writer = MappingWriter.async(MappingWriter.create(output, MappingFormat.TINY_2_FILE), 4);
+
+			if (visit) {
+				writer.visitHeader();
+				writer.visitNamespaces("src", Collections.singletonList("dst"));
+				writer.visitContent();
+				writer.visitClass("a");
+			} else { // no thread until the first visit
+				assertEquals(threads, countWriterThreads());
+			}
+
+			writer.close();
+
+			assertTrue(output.closed, "visit="+visit);
+			assertEquals(threads, countWriterThreads(), "visit="+visit);
+			assertThrows(IOException.class, () -> writer.visitClass("b"));
+		}
+	}
+
+	private static int countWriterThreads() {
+		int ret = 0;
+
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("mapping-io async writer")) ret++;
+		}
+
+		return ret;
+	}
+
+	private static final class ClosingWriter extends StringWriter {
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+		boolean closed;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.MappingConverter;
+import net.fabricmc.mappingio.MappingConverter.Strategy;
+import net.fabricmc.mappingio.MappingFlag;
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.FeatureSet.FeaturePresence;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+public class ConvertTest {
+	@Test
+	public void strategySelection() {
+		assertEquals(Strategy.DIRECT, MappingConverter.selectStrategy(MappingFormat.TINY_2_FILE, MappingFormat.TSRG_2_FILE, EnumSet.noneOf(MappingFlag.class)));
+		assertEquals(Strategy.CLASS_GROUPED, MappingConverter.selectStrategy(MappingFormat.TINY_2_FILE, MappingFormat.TSRG_2_FILE, EnumSet.of(MappingFlag.NEEDS_ELEMENT_UNIQUENESS)));
+		assertEquals(Strategy.CLASS_GROUPED, MappingConverter.selectStrategy(MappingFormat.SRG_FILE, MappingFormat.TINY_2_FILE, EnumSet.of(MappingFlag.NEEDS_ELEMENT_UNIQUENESS)));
+		assertEquals(Strategy.TREE, MappingConverter.selectStrategy(MappingFormat.TINY_2_FILE, MappingFormat.SRG_FILE, EnumSet.of(MappingFlag.NEEDS_DST_METHOD_DESC)));
+		assertEquals(Strategy.DIRECT, MappingConverter.selectStrategy(MappingFormat.XSRG_FILE, MappingFormat.SRG_FILE, EnumSet.of(MappingFlag.NEEDS_DST_METHOD_DESC)));
+		assertEquals(Strategy.TREE, MappingConverter.selectStrategy(MappingFormat.XSRG_FILE, MappingFormat.SRG_FILE, EnumSet.of(MappingFlag.NEEDS_ELEMENT_UNIQUENESS, MappingFlag.NEEDS_DST_METHOD_DESC)));
+	}
+
+	@Test
+	public void identicalOutput() throws IOException {
+		checkIdenticalOutput(TestHelper.MappingDirs.VALID);
+	}
+
+	@Test
+	public void identicalOutputWithRepeatedElements() throws IOException {
+		checkIdenticalOutput(TestHelper.MappingDirs.REPEATED_ELEMENTS);
+	}
+
+	private static void checkIdenticalOutput(Path dir) throws IOException {
+		MappingFormat[] inputs = { MappingFormat.TINY_FILE, MappingFormat.TINY_2_FILE, MappingFormat.SRG_FILE, MappingFormat.XSRG_FILE,
+				MappingFormat.ENIGMA_FILE, MappingFormat.ENIGMA_DIR, MappingFormat.TSRG_2_FILE, MappingFormat.CSRG_FILE };
+		MappingFormat[] outputs = { MappingFormat.TINY_2_FILE, MappingFormat.ENIGMA_FILE, MappingFormat.SRG_FILE, MappingFormat.TSRG_2_FILE,
+				MappingFormat.JAM_FILE, MappingFormat.PROGUARD_FILE };
+
+		for (MappingFormat inputFormat : inputs) {
+			Path input = dir.resolve(TestHelper.getFileName(inputFormat));
+			if (!Files.exists(input)) continue;
+
+			for (MappingFormat outputFormat : outputs) {
+				// ProGuard can't express fields without descriptors, not even via a tree
+				if (outputFormat == MappingFormat.PROGUARD_FILE
+						&& inputFormat.features().fields().srcDescs() != FeaturePresence.REQUIRED) {
+					continue;
+				}
+
+				StringWriter actual = new StringWriter();
+				MappingWriter writer = MappingWriter.create(actual, outputFormat);
+				Strategy strategy = MappingConverter.convert(input, inputFormat, writer, outputFormat);
+				assertEquals(MappingConverter.selectStrategy(inputFormat, outputFormat, writer.getFlags()), strategy);
+
+				// has to match reading straight into the writer, except for unique elements and dst descs as a tree supplies them
+				StringWriter expected = new StringWriter();
+
+				if (strategy == Strategy.TREE || writer.getFlags().contains(MappingFlag.NEEDS_ELEMENT_UNIQUENESS)) {
+					MemoryMappingTree tree = new MemoryMappingTree();
+					MappingReader.read(input, inputFormat, tree);
+					tree.accept(MappingWriter.create(expected, outputFormat));
+				} else {
+					MappingReader.read(input, inputFormat, MappingWriter.create(expected, outputFormat));
+				}
+
+				assertEquals(expected.toString(), actual.toString(), inputFormat+" -> "+outputFormat+" via "+strategy);
+			}
+		}
+	}
+}
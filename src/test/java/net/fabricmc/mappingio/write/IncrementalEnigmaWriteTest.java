@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.enigma.EnigmaDirWriter;
+import net.fabricmc.mappingio.tree.MappingTree.ClassMapping;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+public class IncrementalEnigmaWriteTest {
+	@TempDir
+	public static Path tempDir;
+
+	@Test
+	public void writesOnlyChangedFiles() throws IOException {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		MappingReader.read(TestHelper.MappingDirs.VALID.resolve(TestHelper.getFileName(MappingFormat.TINY_2_FILE)), MappingFormat.TINY_2_FILE, tree);
+
+		Path expectedDir = tempDir.resolve("expected");
+		Path dir = tempDir.resolve("incremental");
+		tree.accept(new EnigmaDirWriter(expectedDir, true));
+		tree.accept(new EnigmaDirWriter(dir, true, true));
+		assertEquals(readFiles(expectedDir), readFiles(dir));
+
+		// age all files and add an orphan
+		FileTime old = FileTime.fromMillis(0);
+		Map<String, String> initialFiles = readFiles(dir);
+
+		for (String file : initialFiles.keySet()) {
+			Files.setLastModifiedTime(dir.resolve(file), old);
+		}
+
+		Path orphan = dir.resolve("orphan/Orphan.mapping");
+		Files.createDirectories(orphan.getParent());
+		Files.write(orphan, "CLASS orphan/Orphan\n".getBytes());
+
+		ClassMapping changed = tree.getClasses().iterator().next();
+		changed.setDstName(changed.getSrcName()+"Changed", 0);
+
+		Path changedExpectedDir = tempDir.resolve("expected2");
+		tree.accept(new EnigmaDirWriter(changedExpectedDir, true));
+		tree.accept(new EnigmaDirWriter(dir, true, true));
+
+		Map<String, String> files = readFiles(dir);
+		assertEquals(readFiles(changedExpectedDir), files);
+		assertFalse(Files.exists(orphan.getParent()));
+
+		for (String file : files.keySet()) {
+			FileTime time = Files.getLastModifiedTime(dir.resolve(file));
+
+			if (files.get(file).equals(initialFiles.get(file))) {
+				assertEquals(old, time, file);
+			} else {
+				assertTrue(time.compareTo(old) > 0, file);
+			}
+		}
+	}
+
+	@Test
+	public void renamesOnlyCase() throws IOException {
+		MemoryMappingTree tree = new MemoryMappingTree();
+		tree.visitNamespaces("source", Collections.singletonList("target"));
+		tree.visitClass("x");
+		tree.visitDstName(MappedElementKind.CLASS, 0, "a/Foo");
+
+		Path dir = tempDir.resolve("case");
+		tree.accept(new EnigmaDirWriter(dir, true, true));
+
+		// case-insensitive file systems write the renamed class to the existing file
+		tree.getClass("x").setDstName("a/foo", 0);
+		tree.accept(new EnigmaDirWriter(dir, true, true));
+
+		Map<String, String> files = readFiles(dir);
+		assertEquals(1, files.size());
+		assertEquals("CLASS x a/foo\n", files.values().iterator().next());
+	}
+
+	private static Map<String, String> readFiles(Path dir) throws IOException {
+		Map<String, String> ret = new TreeMap<>();
+
+		try (Stream<Path> stream = Files.walk(dir)) {
+			for (Path file : (Iterable<Path>) stream.filter(Files::isRegularFile)::iterator) {
+				ret.put(dir.relativize(file).toString(), new String(Files.readAllBytes(file), "UTF-8"));
+			}
+		}
+
+		return ret;
+	}
+}
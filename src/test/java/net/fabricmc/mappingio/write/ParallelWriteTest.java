@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.ParallelTreeWriter;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+import net.fabricmc.mappingio.tree.VisitOrder;
+
+public class ParallelWriteTest {
+	@Test
+	public void identicalOutput() throws IOException {
+		MemoryMappingTree largeTree = new MemoryMappingTree();
+		largeTree.visitNamespaces("source", Arrays.asList("target", "target2"));
+		largeTree.visitMetadata("key", "value");
+
+		for (int i = 0; i < 200; i++) {
+			String name = i % 3 == 0 ? "pkg/Outer"+(i / 3) : "pkg/Outer"+(i / 3)+"$Inner"+(i % 3);
+			largeTree.visitClass(name);
+			largeTree.visitDstName(MappedElementKind.CLASS, 0, name.replace("pkg/", "dst/"));
+			largeTree.visitComment(MappedElementKind.CLASS, "class "+i);
+			largeTree.visitField("field", "Lpkg/Outer"+i+";");
+			largeTree.visitDstName(MappedElementKind.FIELD, 0, "dstField"+i);
+			largeTree.visitMethod("method", "(I)Lpkg/Outer"+(i + 1)+";");
+			largeTree.visitDstName(MappedElementKind.METHOD, 0, "dstMethod"+i);
+			largeTree.visitMethodArg(0, 1, "arg");
+			largeTree.visitDstName(MappedElementKind.METHOD_ARG, 0, "dstArg");
+		}
+
+		for (MappingFormat format : MappingFormat.values()) {
+			if (!ParallelTreeWriter.isSupported(format)) continue;
+
+			check(TestHelper.createTestTree(), format, VisitOrder.createByInputOrder(), 2);
+			check(TestHelper.createTestTreeWithHoles(), format, VisitOrder.createByName(), 5);
+			check(largeTree, format, VisitOrder.createByInputOrder(), 7);
+			check(largeTree, format, VisitOrder.createByName(), 200);
+		}
+
+		// unsupported formats use the sequential writers
+		check(largeTree, MappingFormat.CSRG_FILE, VisitOrder.createByInputOrder(), 4);
+	}
+
+	private static void check(MappingTreeView tree, MappingFormat format, VisitOrder order, int shards) throws IOException {
+		StringWriter expected = new StringWriter();
+		tree.accept(MappingWriter.create(expected, format), order);
+
+		StringWriter actual = new StringWriter();
+		ParallelTreeWriter.write(tree, actual, format, order, shards);
+
+		assertEquals(expected.toString(), actual.toString(), format.name);
+	}
+}
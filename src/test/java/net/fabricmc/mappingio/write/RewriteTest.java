@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2024 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.mappingio.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.MappingVisitor;
+import net.fabricmc.mappingio.MappingWriter;
+import net.fabricmc.mappingio.TestHelper;
+import net.fabricmc.mappingio.adapter.ForwardingMappingVisitor;
+import net.fabricmc.mappingio.adapter.MappingDstNsReorder;
+import net.fabricmc.mappingio.adapter.MappingNsRenamer;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.MappingRewriter;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MappingTreeView.ClassMappingView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+public class RewriteTest {
+	@Test
+	public void matchesFullRewrite() throws IOException {
+		Map<String, String> renames = Collections.singletonMap("target", "renamed");
+		List<String> swapped = Arrays.asList("target2", "target");
+		List<String> extended = Arrays.asList("target2", "extra", "target");
+
+		for (MappingFormat format : new MappingFormat[] { MappingFormat.TINY_2_FILE, MappingFormat.TSRG_2_FILE }) {
+			for (MemoryMappingTree tree : Arrays.asList(TestHelper.createTestTree(), TestHelper.createTestTreeWithHoles())) {
+				List<String> classes = new ArrayList<>();
+
+				for (ClassMappingView cls : tree.getClasses()) {
+					classes.add(cls.getSrcName());
+				}
+
+				String first = classes.get(0);
+				String last = classes.get(classes.size() - 1);
+
+				check(tree, format, null, null, null, null);
+				check(tree, format, renames, null, null, null);
+				check(tree, format, null, swapped, null, null);
+				check(tree, format, renames, extended, null, null);
+				check(tree, format, null, null, name -> !name.equals(last), null);
+				check(tree, format, null, null, null, first);
+				check(tree, format, renames, swapped, name -> !name.equals(first), last);
+			}
+		}
+	}
+
+	private static void check(MappingTreeView tree, MappingFormat format, @Nullable Map<String, String> renames, @Nullable List<String> newDstNs,
+			@Nullable Predicate<String> filter, @Nullable String transformed) throws IOException {
+		ByteArrayOutputStream input = new ByteArrayOutputStream();
+
+		try (Writer writer = new OutputStreamWriter(input, StandardCharsets.UTF_8)) {
+			tree.accept(MappingWriter.create(writer, format));
+		}
+
+		// reference: full read, adapt and write
+
+		MemoryMappingTree inputTree = new MemoryMappingTree();
+		MappingReader.read(new InputStreamReader(new ByteArrayInputStream(input.toByteArray()), StandardCharsets.UTF_8), format, inputTree);
+
+		if (filter != null) {
+			List<String> removed = new ArrayList<>();
+
+			for (ClassMappingView cls : inputTree.getClasses()) {
+				if (!filter.test(cls.getSrcName())) removed.add(cls.getSrcName());
+			}
+
+			for (String name : removed) {
+				inputTree.removeClass(name);
+			}
+		}
+
+		StringWriter expected = new StringWriter();
+		MappingVisitor visitor = MappingWriter.create(expected, format);
+		if (renames != null) visitor = new MappingNsRenamer(visitor, renames);
+		if (newDstNs != null) visitor = new MappingDstNsReorder(visitor, newDstNs);
+		if (transformed != null) visitor = new UpperCaser(visitor, transformed);
+		inputTree.accept(visitor);
+
+		// passthrough rewrite
+
+		MappingRewriter rewriter = new MappingRewriter(format);
+		if (renames != null) rewriter.renameNamespaces(renames);
+		if (newDstNs != null) rewriter.reorderDstNamespaces(newDstNs);
+		if (filter != null) rewriter.filterClasses(filter);
+		if (transformed != null) rewriter.transformClasses(transformed::equals, next -> new UpperCaser(next, transformed));
+
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		rewriter.rewrite(new ByteArrayInputStream(input.toByteArray()), actual);
+
+		assertEquals(expected.toString(), new String(actual.toByteArray(), StandardCharsets.UTF_8),
+				format+" renames="+renames+" newDstNs="+newDstNs+" filtered="+(filter != null)+" transformed="+transformed);
+	}
+
+	/**
+	 * Upper-cases the destination names of one class and its members.
+	 */
+	private static final class UpperCaser extends ForwardingMappingVisitor {
+		UpperCaser(MappingVisitor next, String className) {
+			super(next);
+
+			this.className = className;
+		}
+
+		@Override
+		public boolean visitClass(String srcName) throws IOException {
+			active = srcName.equals(className);
+
+			return super.visitClass(srcName);
+		}
+
+		@Override
+		public void visitDstName(MappedElementKind targetKind, int namespace, String name) throws IOException {
+			super.visitDstName(targetKind, namespace, active ? name.toUpperCase(Locale.ROOT) : name);
+		}
+
+		private final String className;
+		private boolean active;
+	}
+}
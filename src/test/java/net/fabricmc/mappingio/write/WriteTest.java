@@ -128,6 +128,11 @@ public class WriteTest {
 		check(MappingFormat.JOBF_FILE);
 	}
 
+	@Test
+	public void binaryFile() throws Exception {
+		check(MappingFormat.BINARY_FILE);
+	}
+
 	private void check(MappingFormat format) throws Exception {
 		Path path = TestHelper.writeToDir(validTree, dir, format);
 		readWithMio(validTree, path, format);